@@ -3,14 +3,18 @@ package org.toskan4134.easytrade;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.util.Config;
 import org.toskan4134.easytrade.command.TradeCommand;
 import org.toskan4134.easytrade.config.ConfigManager;
 import org.toskan4134.easytrade.config.TradeConfig;
 import org.toskan4134.easytrade.events.InventoryChangeListener;
+import org.toskan4134.easytrade.events.PlayerConnectListener;
 import org.toskan4134.easytrade.events.PlayerDisconnectListener;
 import org.toskan4134.easytrade.events.PlayerJoinListener;
 import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.storage.EscrowStorage;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.util.Common;
 import org.toskan4134.easytrade.util.VersionChecker;
@@ -18,6 +22,7 @@ import org.toskan4134.easytrade.util.VersionChecker;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -42,6 +47,7 @@ public class TradingPlugin extends JavaPlugin {
     private ScheduledExecutorService updateCheckScheduler;
     @Nullable
     private ScheduledFuture<?> updateCheckTask;
+    private EscrowStorage escrowStorage;
     private TradeManager tradeManager;
 
     public TradingPlugin(@Nonnull JavaPluginInit init) {
@@ -58,7 +64,7 @@ public class TradingPlugin extends JavaPlugin {
         if (!dataFolder.exists()) {
             dataFolder.mkdirs();
         }
-        this.configManager = new ConfigManager(this.config, dataFolder);
+        this.configManager = new ConfigManager(this.config, dataFolder, getDataDirectory().resolve("EasyTrade.json"));
         TradeMessages.init(configManager);
 
         // Initialize common utilities
@@ -66,6 +72,10 @@ public class TradingPlugin extends JavaPlugin {
 
         Common.logDebug(LOGGER, "Setting up Trading plugin");
 
+        // Load the escrow ledger before any session can escrow items
+        this.escrowStorage = new EscrowStorage(dataFolder);
+        escrowStorage.load();
+
         // Initialize trade manager
         this.tradeManager = new TradeManager(this);
 
@@ -76,12 +86,21 @@ public class TradingPlugin extends JavaPlugin {
         Common.logDebug(LOGGER, "Registered /trade command");
 
         // Register event listeners
+        PlayerConnectListener connectListener = new PlayerConnectListener(tradeManager);
+        connectListener.register(this.getEventRegistry());
+
         PlayerDisconnectListener disconnectListener = new PlayerDisconnectListener(tradeManager);
         disconnectListener.register(this.getEventRegistry());
 
         InventoryChangeListener inventoryListener = new InventoryChangeListener(tradeManager);
         inventoryListener.register(this.getEventRegistry());
 
+        // Index players already online (plugin reload)
+        List<PlayerRef> onlinePlayers = Universe.get().getPlayers();
+        if (onlinePlayers != null) {
+            onlinePlayers.forEach(tradeManager::onPlayerConnect);
+        }
+
         // Save config to create file with defaults if it doesn't exist
         config.save();
 
@@ -157,6 +176,21 @@ public class TradingPlugin extends JavaPlugin {
             updateCheckScheduler = null;
         }
 
+        // Finish executing trades, cancel the others and stop the trade threads (bounded by ShutdownTimeout)
+        if (tradeManager != null) {
+            tradeManager.shutdown();
+        }
+
+        // Write escrow still held by sessions, so it is returned on the owners' next join
+        if (escrowStorage != null) {
+            escrowStorage.close();
+        }
+
+        // Stop the file watchers and flush pending message writes
+        if (configManager != null) {
+            configManager.close();
+        }
+
         getLogger().atInfo().log(this.getName() + " shutdown complete!");
     }
 
@@ -165,6 +199,10 @@ public class TradingPlugin extends JavaPlugin {
         return tradeManager;
     }
 
+    public EscrowStorage getEscrowStorage() {
+        return escrowStorage;
+    }
+
     public Config<TradeConfig> getConfig() {
         return config;
     }
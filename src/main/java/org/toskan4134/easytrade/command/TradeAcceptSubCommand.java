@@ -1,6 +1,8 @@
 package org.toskan4134.easytrade.command;
 
 import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -8,9 +10,11 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.ActionRateLimiter;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.trade.TradeSession;
 import org.toskan4134.easytrade.trade.TradeState;
+import org.toskan4134.easytrade.util.Common;
 
 import javax.annotation.Nonnull;
 import java.util.Optional;
@@ -18,12 +22,13 @@ import java.util.Optional;
 import static org.toskan4134.easytrade.constants.TradeConstants.DEFAULT_PERMISSION;
 
 /**
- * Subcommand: /trade accept
- * Accept a pending trade request OR accept current trade offers.
+ * Subcommand: /trade accept [player]
+ * Accept a pending trade request (from a specific player) OR accept current trade offers.
  */
 public class TradeAcceptSubCommand extends AbstractPlayerCommand {
 
     private final TradeManager tradeManager;
+    private final OptionalArg<String> playerArg;
 
     public TradeAcceptSubCommand(TradeManager tradeManager) {
         super("accept", "Accept a trade request/Accept current offer");
@@ -31,6 +36,7 @@ public class TradeAcceptSubCommand extends AbstractPlayerCommand {
         this.requirePermission(DEFAULT_PERMISSION + "accept");
 
         this.tradeManager = tradeManager;
+        this.playerArg = withOptionalArg("player", "Player whose request to accept", ArgTypes.STRING);
     }
 
     @Override
@@ -44,22 +50,39 @@ public class TradeAcceptSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
-        // First check if player has a pending request to accept
-        if (tradeManager.hasPendingRequest(playerRef)) {
-            TradeManager.TradeRequestResult result = tradeManager.acceptTradeRequest(playerRef);
+        // A named player always selects one of the pending requests
+        boolean named = playerArg.provided(ctx);
+
+        // Check if player has a pending request to accept (offers of a running trade come first)
+        if (named || (!tradeManager.isInTrade(playerRef) && tradeManager.hasPendingRequest(playerRef))) {
+            int pending = tradeManager.getPendingRequestCount(playerRef);
+            if (!named && pending > 1) {
+                ctx.sender().sendMessage(messages.chooseRequest(pending));
+                return;
+            }
+
+            TradeManager.TradeRequestResult result = named
+                ? tradeManager.acceptTradeRequest(playerRef, playerArg.get(ctx))
+                : tradeManager.acceptTradeRequest(playerRef);
 
             if (result.success) {
-                ctx.sender().sendMessage(TradeMessages.acceptedTrade());
+                ctx.sender().sendMessage(messages.acceptedTrade());
                 tradeManager.openTradeUI(playerRef, store, playerEntityRef);
 
                 // Notify the initiator
                 if (result.session != null) {
-                    result.session.getInitiator().sendMessage(TradeMessages.requestAccepted());
-                    tradeManager.openTradeUI(result.session.getInitiator(), store, result.session.getInitiator().getReference());
+                    PlayerRef initiator = result.session.getInitiator();
+                    initiator.sendMessage(TradeMessages.forPlayer(initiator).requestAccepted());
+                    tradeManager.openTradeUI(initiator);
                 }
+            } else if (result.reason != null) {
+                ctx.sender().sendMessage(result.reason);
+            } else if (named) {
+                ctx.sender().sendMessage(messages.noPendingRequestFrom(playerArg.get(ctx)));
             } else {
-                ctx.sender().sendMessage(TradeMessages.noPendingRequest());
+                ctx.sender().sendMessage(messages.noPendingRequest());
             }
             return;
         }
@@ -67,39 +90,54 @@ public class TradeAcceptSubCommand extends AbstractPlayerCommand {
         // Otherwise, check if in active trade and accept the offers
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            ctx.sender().sendMessage(TradeMessages.notInTradeUseRequest());
+            ctx.sender().sendMessage(messages.notInTradeUseRequest());
             return;
         }
 
         TradeSession session = optSession.get();
         if (session.getState() != TradeState.NEGOTIATING && session.getState() != TradeState.ONE_ACCEPTED) {
-            ctx.sender().sendMessage(TradeMessages.errorNotReady());
+            ctx.sender().sendMessage(messages.errorNotReady());
             return;
         }
 
         if (session.hasAccepted(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.statusOneAccepted());
+            ctx.sender().sendMessage(messages.statusOneAccepted());
+            return;
+        }
+
+        if (!tradeManager.isWithinTradeDistance(session)) {
+            PlayerRef partner = session.getOtherPlayer(playerRef);
+            ctx.sender().sendMessage(messages.tooFarFromPartner(
+                partner != null ? partner.getUsername() : "", Common.getMaxTradeDistance()));
+            return;
+        }
+
+        ActionRateLimiter.Outcome rate = tradeManager.tryAction(playerRef, ActionRateLimiter.Action.ACCEPT_TOGGLE);
+        if (!rate.isAllowed()) {
+            if (rate == ActionRateLimiter.Outcome.LIMITED) {
+                ctx.sender().sendMessage(messages.errorRateLimited());
+            }
             return;
         }
 
         if (tradeManager.acceptTrade(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.acceptedTrade());
+            ctx.sender().sendMessage(messages.acceptedTrade());
 
             // Notify partner
             PlayerRef partner = session.getOtherPlayer(playerRef);
             if (partner != null && !session.isTestMode()) {
-                partner.sendMessage(TradeMessages.requestAccepted());
+                partner.sendMessage(TradeMessages.forPlayer(partner).requestAccepted());
             }
 
             // Check if both accepted
             if (session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-                ctx.sender().sendMessage(TradeMessages.statusOneAccepted());
+                ctx.sender().sendMessage(messages.statusOneAccepted());
                 if (partner != null && !session.isTestMode()) {
-                    partner.sendMessage(TradeMessages.statusOneAccepted());
+                    partner.sendMessage(TradeMessages.forPlayer(partner).statusOneAccepted());
                 }
             }
         } else {
-            ctx.sender().sendMessage(TradeMessages.confirmFailed());
+            ctx.sender().sendMessage(messages.confirmFailed());
         }
     }
 }
@@ -0,0 +1,22 @@
+package org.toskan4134.easytrade.command;
+
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
+import org.toskan4134.easytrade.trade.TradeManager;
+
+/**
+ * Subcommand collection: /trade admin
+ * Server-wide trading controls for administrators.
+ *
+ * Usage:
+ *   /trade admin pause   - Refuse new requests, trades and confirms
+ *   /trade admin resume  - Allow trading again
+ */
+public class TradeAdminCommand extends AbstractCommandCollection {
+
+    public TradeAdminCommand(TradeManager tradeManager) {
+        super("admin", "Server-wide trading controls");
+
+        addSubCommand(new TradeAdminPauseSubCommand(tradeManager));
+        addSubCommand(new TradeAdminResumeSubCommand(tradeManager));
+    }
+}
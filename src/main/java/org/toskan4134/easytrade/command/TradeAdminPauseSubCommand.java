@@ -0,0 +1,40 @@
+package org.toskan4134.easytrade.command;
+
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.TradeManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.toskan4134.easytrade.constants.TradeConstants.ADMIN_PERMISSION;
+
+/**
+ * Subcommand: /trade admin pause
+ * Pauses trading: new requests, accepted requests and confirms are refused.
+ * Trades already in progress stay open. Requires admin permission.
+ */
+public class TradeAdminPauseSubCommand extends AbstractCommand {
+
+    private final TradeManager tradeManager;
+
+    public TradeAdminPauseSubCommand(TradeManager tradeManager) {
+        super("pause", "Pause all trading");
+        this.requirePermission(ADMIN_PERMISSION + "pause");
+        this.tradeManager = tradeManager;
+    }
+
+    @Override
+    @Nullable
+    protected CompletableFuture<Void> execute(@Nonnull CommandContext ctx) {
+        TradeMessages messages = TradeMessages.forSender(ctx);
+        if (tradeManager.pauseTrading()) {
+            ctx.sender().sendMessage(messages.adminPaused());
+        } else {
+            ctx.sender().sendMessage(messages.adminAlreadyPaused());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
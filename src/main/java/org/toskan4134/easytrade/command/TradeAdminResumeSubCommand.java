@@ -0,0 +1,40 @@
+package org.toskan4134.easytrade.command;
+
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.TradeManager;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.toskan4134.easytrade.constants.TradeConstants.ADMIN_PERMISSION;
+
+/**
+ * Subcommand: /trade admin resume
+ * Resumes trading after /trade admin pause.
+ * Requires admin permission (the same as pause).
+ */
+public class TradeAdminResumeSubCommand extends AbstractCommand {
+
+    private final TradeManager tradeManager;
+
+    public TradeAdminResumeSubCommand(TradeManager tradeManager) {
+        super("resume", "Resume trading");
+        this.requirePermission(ADMIN_PERMISSION + "pause");
+        this.tradeManager = tradeManager;
+    }
+
+    @Override
+    @Nullable
+    protected CompletableFuture<Void> execute(@Nonnull CommandContext ctx) {
+        TradeMessages messages = TradeMessages.forSender(ctx);
+        if (tradeManager.resumeTrading()) {
+            ctx.sender().sendMessage(messages.adminResumed());
+        } else {
+            ctx.sender().sendMessage(messages.adminNotPaused());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
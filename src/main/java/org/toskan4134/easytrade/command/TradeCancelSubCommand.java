@@ -41,11 +41,12 @@ public class TradeCancelSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
         if (tradeManager.cancelTrade(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.tradeCancelled());
+            ctx.sender().sendMessage(messages.tradeCancelled());
         } else {
-            ctx.sender().sendMessage(TradeMessages.notInTrade());
+            ctx.sender().sendMessage(messages.notInTrade());
         }
     }
 }
@@ -11,13 +11,16 @@ import org.toskan4134.easytrade.util.Common;
  *
  * Usage:
  *   /trade help              - Show help
- *   /trade request <player>  - Send a trade request to a player
+ *   /trade request [player]  - Send a trade request to a player (nearest if omitted)
+ *   /trade nearby            - List nearby players to trade with
  *   /trade accept            - Accept a pending trade request
  *   /trade decline           - Decline a pending trade request
  *   /trade cancel            - Cancel the current trade
  *   /trade confirm           - Confirm trade after countdown
  *   /trade open              - Open trading UI
  *   /trade reload            - Reload config and messages (admin only)
+ *   /trade admin pause       - Pause all trading (admin only)
+ *   /trade admin resume      - Resume trading (admin only)
  *   /trade test              - Start a test trade (solo development)
  */
 public class TradeCommand extends AbstractCommandCollection {
@@ -30,12 +33,14 @@ public class TradeCommand extends AbstractCommandCollection {
         // Add all subcommands
         addSubCommand(new TradeHelpSubCommand(pluginName, pluginVersion, plugin));
         addSubCommand(new TradeRequestSubCommand(tradeManager));
+        addSubCommand(new TradeNearbySubCommand(tradeManager));
         addSubCommand(new TradeAcceptSubCommand(tradeManager));
         addSubCommand(new TradeDeclineSubCommand(tradeManager));
         addSubCommand(new TradeCancelSubCommand(tradeManager));
         addSubCommand(new TradeConfirmSubCommand(tradeManager));
         addSubCommand(new TradeOpenSubCommand(tradeManager));
         addSubCommand(new TradeReloadSubCommand(plugin));
+        addSubCommand(new TradeAdminCommand(tradeManager));
 
         if (Common.isDebug()) {
             addSubCommand(new TradeTestSubCommand(tradeManager));
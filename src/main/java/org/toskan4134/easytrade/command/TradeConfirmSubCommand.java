@@ -44,32 +44,34 @@ public class TradeConfirmSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            ctx.sender().sendMessage(TradeMessages.notInTrade());
+            ctx.sender().sendMessage(messages.notInTrade());
             return;
         }
 
         TradeSession session = optSession.get();
 
         if (session.getState() != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-            ctx.sender().sendMessage(TradeMessages.errorAcceptFirst());
+            ctx.sender().sendMessage(messages.errorAcceptFirst());
             return;
         }
 
         if (!session.isCountdownComplete()) {
             long remaining = session.getRemainingCountdownMs() / 1000;
-            ctx.sender().sendMessage(TradeMessages.statusCountdown(remaining));
+            ctx.sender().sendMessage(messages.statusCountdown(remaining));
             return;
         }
 
-        TradeSession.TradeResult result = tradeManager.confirmTrade(playerRef, store, playerEntityRef);
-
-        if (result.success) {
-            ctx.sender().sendMessage(TradeMessages.confirmSuccess());
-        } else {
-            ctx.sender().sendMessage(TradeMessages.statusFailed(result.message));
-        }
+        long token = session.getView().getCountdownDeadline();
+        tradeManager.confirmTrade(playerRef, store, playerEntityRef, token).thenAccept(result -> {
+            if (result.success) {
+                ctx.sender().sendMessage(messages.confirmSuccess());
+            } else {
+                ctx.sender().sendMessage(messages.statusFailed(result.message));
+            }
+        });
     }
 }
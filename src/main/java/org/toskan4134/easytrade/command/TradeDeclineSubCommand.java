@@ -1,6 +1,8 @@
 package org.toskan4134.easytrade.command;
 
 import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
@@ -15,12 +17,13 @@ import javax.annotation.Nonnull;
 import static org.toskan4134.easytrade.constants.TradeConstants.DEFAULT_PERMISSION;
 
 /**
- * Subcommand: /trade decline
- * Decline a pending trade request.
+ * Subcommand: /trade decline [player]
+ * Decline a pending trade request (from a specific player).
  */
 public class TradeDeclineSubCommand extends AbstractPlayerCommand {
 
     private final TradeManager tradeManager;
+    private final OptionalArg<String> playerArg;
 
     public TradeDeclineSubCommand(TradeManager tradeManager) {
         super("decline", "Decline a pending trade request");
@@ -28,6 +31,7 @@ public class TradeDeclineSubCommand extends AbstractPlayerCommand {
         this.requirePermission(DEFAULT_PERMISSION + "decline");
 
         this.tradeManager = tradeManager;
+        this.playerArg = withOptionalArg("player", "Player whose request to decline", ArgTypes.STRING);
     }
 
     @Override
@@ -41,11 +45,25 @@ public class TradeDeclineSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
-        if (tradeManager.declineTradeRequest(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.declinedRequest());
+        if (playerArg.provided(ctx)) {
+            String initiatorName = playerArg.get(ctx);
+            if (tradeManager.declineTradeRequest(playerRef, initiatorName)) {
+                ctx.sender().sendMessage(messages.declinedRequest());
+            } else {
+                ctx.sender().sendMessage(messages.noPendingRequestFrom(initiatorName));
+            }
+            return;
+        }
+
+        int pending = tradeManager.getPendingRequestCount(playerRef);
+        if (pending > 1) {
+            ctx.sender().sendMessage(messages.chooseRequest(pending));
+        } else if (tradeManager.declineTradeRequest(playerRef)) {
+            ctx.sender().sendMessage(messages.declinedRequest());
         } else {
-            ctx.sender().sendMessage(TradeMessages.noPendingRequest());
+            ctx.sender().sendMessage(messages.noPendingRequest());
         }
     }
 }
@@ -37,27 +37,30 @@ public class TradeHelpSubCommand extends AbstractCommand {
     @Override
     @Nullable
     protected CompletableFuture<Void> execute(@Nonnull CommandContext ctx) {
-        ctx.sender().sendMessage(TradeMessages.helpHeader(pluginVersion));
+        TradeMessages messages = TradeMessages.forSender(ctx);
+        ctx.sender().sendMessage(messages.helpHeader(pluginVersion));
         ctx.sender().sendMessage(Message.raw(""));
-        ctx.sender().sendMessage(TradeMessages.helpBasic());
-        ctx.sender().sendMessage(TradeMessages.helpRequest());
-        ctx.sender().sendMessage(TradeMessages.helpAccept());
-        ctx.sender().sendMessage(TradeMessages.helpDecline());
-        ctx.sender().sendMessage(TradeMessages.helpCancel());
-        ctx.sender().sendMessage(TradeMessages.helpConfirm());
-        ctx.sender().sendMessage(TradeMessages.helpOpen());
-        ctx.sender().sendMessage(TradeMessages.helpReload());
+        ctx.sender().sendMessage(messages.helpBasic());
+        ctx.sender().sendMessage(messages.helpRequest());
+        ctx.sender().sendMessage(messages.helpNearby());
+        ctx.sender().sendMessage(messages.helpAccept());
+        ctx.sender().sendMessage(messages.helpDecline());
+        ctx.sender().sendMessage(messages.helpCancel());
+        ctx.sender().sendMessage(messages.helpConfirm());
+        ctx.sender().sendMessage(messages.helpOpen());
+        ctx.sender().sendMessage(messages.helpReload());
+        ctx.sender().sendMessage(messages.helpAdmin());
         if (Common.isDebug()) {
-            ctx.sender().sendMessage(TradeMessages.helpTest());
+            ctx.sender().sendMessage(messages.helpTest());
         }
-        ctx.sender().sendMessage(TradeMessages.helpHelpCmd());
+        ctx.sender().sendMessage(messages.helpHelpCmd());
         ctx.sender().sendMessage(Message.raw(""));
-        ctx.sender().sendMessage(TradeMessages.helpHowTo());
-        ctx.sender().sendMessage(TradeMessages.helpStep1());
-        ctx.sender().sendMessage(TradeMessages.helpStep2());
-        ctx.sender().sendMessage(TradeMessages.helpStep3());
-        ctx.sender().sendMessage(TradeMessages.helpStep4());
-        ctx.sender().sendMessage(TradeMessages.helpStep5());
+        ctx.sender().sendMessage(messages.helpHowTo());
+        ctx.sender().sendMessage(messages.helpStep1());
+        ctx.sender().sendMessage(messages.helpStep2());
+        ctx.sender().sendMessage(messages.helpStep3());
+        ctx.sender().sendMessage(messages.helpStep4());
+        ctx.sender().sendMessage(messages.helpStep5());
 
         return CompletableFuture.completedFuture(null);
     }
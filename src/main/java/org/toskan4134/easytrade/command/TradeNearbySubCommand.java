@@ -0,0 +1,64 @@
+package org.toskan4134.easytrade.command;
+
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.TradeManager;
+import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.PlayerSpatialIndex;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+import static org.toskan4134.easytrade.constants.TradeConstants.DEFAULT_PERMISSION;
+import static org.toskan4134.easytrade.constants.TradeConstants.NEARBY_LIST_LIMIT;
+
+/**
+ * Subcommand: /trade nearby
+ * List the players within the nearby radius, closest first.
+ */
+public class TradeNearbySubCommand extends AbstractPlayerCommand {
+
+    private final TradeManager tradeManager;
+
+    public TradeNearbySubCommand(TradeManager tradeManager) {
+        super("nearby", "List nearby players to trade with");
+        addAliases("near", "around");
+        this.requirePermission(DEFAULT_PERMISSION + "nearby");
+
+        this.tradeManager = tradeManager;
+    }
+
+    @Override
+    protected boolean canGeneratePermission() {
+        return false;
+    }
+
+    @Override
+    protected void execute(@Nonnull CommandContext ctx,
+                           @Nonnull Store<EntityStore> store,
+                           @Nonnull Ref<EntityStore> playerEntityRef,
+                           @Nonnull PlayerRef playerRef,
+                           @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
+
+        int radius = Common.getNearbyRadius();
+        List<PlayerSpatialIndex.Nearby> nearby = tradeManager.findNearbyPlayers(playerRef, NEARBY_LIST_LIMIT);
+
+        if (nearby.isEmpty()) {
+            ctx.sender().sendMessage(messages.nearbyNone(radius));
+            return;
+        }
+
+        ctx.sender().sendMessage(messages.nearbyHeader(radius));
+        for (PlayerSpatialIndex.Nearby entry : nearby) {
+            ctx.sender().sendMessage(messages.nearbyEntry(entry.player.getUsername(), Math.round(entry.distance)));
+        }
+        ctx.sender().sendMessage(messages.nearbyHint());
+    }
+}
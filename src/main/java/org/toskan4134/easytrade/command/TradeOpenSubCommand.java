@@ -12,6 +12,7 @@ import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.messages.TradeMessages;
 import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.trade.TradeSession;
 
@@ -48,11 +49,12 @@ public class TradeOpenSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
         // Check if player is in an active trade
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            ctx.sender().sendMessage(TradeMessages.notInTradeUseRequest());
+            ctx.sender().sendMessage(messages.notInTradeUseRequest());
             return;
         }
 
@@ -60,27 +62,27 @@ public class TradeOpenSubCommand extends AbstractPlayerCommand {
             // Get player component
             Player player = store.getComponent(playerEntityRef, Player.getComponentType());
             if (player == null) {
-                ctx.sender().sendMessage(TradeMessages.errorPlayerUnavailable());
+                ctx.sender().sendMessage(messages.errorPlayerUnavailable());
                 return;
             }
 
             // Get page manager
             PageManager pageManager = player.getPageManager();
             if (pageManager == null) {
-                ctx.sender().sendMessage(TradeMessages.uiOpenFailed());
+                ctx.sender().sendMessage(messages.uiOpenFailed());
                 return;
             }
 
             // Create and open the trading page
-            Common.logDebug(LOGGER, "[TradeOpen] Calling tradeManager.openTradeUI()");
+            Common.logDebug(LOGGER, DebugCategory.UI, "[TradeOpen] Calling tradeManager.openTradeUI()");
             tradeManager.openTradeUI(playerRef, store, playerEntityRef);
-            Common.logDebug(LOGGER, "[TradeOpen] openTradeUI() returned");
+            Common.logDebug(LOGGER, DebugCategory.UI, "[TradeOpen] openTradeUI() returned");
 
-            ctx.sender().sendMessage(TradeMessages.uiOpened());
+            ctx.sender().sendMessage(messages.uiOpened());
 
         } catch (Exception e) {
             LOGGER.atSevere().withCause(e).log("[TradeOpen] Exception: " + e.getMessage());
-            ctx.sender().sendMessage(TradeMessages.uiOpenFailed());
+            ctx.sender().sendMessage(messages.uiOpenFailed());
         }
     }
 }
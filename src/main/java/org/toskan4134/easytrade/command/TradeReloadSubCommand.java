@@ -8,12 +8,13 @@ import org.toskan4134.easytrade.messages.TradeMessages;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.toskan4134.easytrade.constants.TradeConstants.ADMIN_PERMISSION;
 
 /**
  * Subcommand: /trade reload
- * Reloads the plugin configuration and messages from disk.
+ * Reloads the plugin configuration, messages and trade zones from disk.
  * Requires admin permission.
  */
 public class TradeReloadSubCommand extends AbstractCommand {
@@ -29,21 +30,35 @@ public class TradeReloadSubCommand extends AbstractCommand {
     @Override
     @Nullable
     protected CompletableFuture<Void> execute(@Nonnull CommandContext ctx) {
+        TradeMessages messages = TradeMessages.forSender(ctx);
+        CompletableFuture<Void> configLoaded;
         try {
-            // Reload config
-            plugin.getConfigManager().reloadConfig();
+            // Reload config (loaded in the background, replied to once it is done)
+            configLoaded = plugin.getConfigManager().reloadConfig();
 
             // Reload messages
             plugin.getConfigManager().reloadMessages();
 
+            // Reload and recompile trade zones
+            plugin.getConfigManager().reloadZones();
+            plugin.getTradeManager().reloadZones();
+
             // Re-initialize TradeMessages with new config
             TradeMessages.init(plugin.getConfigManager());
-
-            ctx.sender().sendMessage(TradeMessages.reloadSuccess());
         } catch (Exception e) {
-            ctx.sender().sendMessage(TradeMessages.reloadFailed(e.getMessage()));
+            ctx.sender().sendMessage(messages.reloadFailed(e.getMessage()));
+            return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.completedFuture(null);
+        return configLoaded.handle((ignored, error) -> {
+            TradeMessages reloaded = TradeMessages.forSender(ctx);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                ctx.sender().sendMessage(reloaded.reloadFailed(String.valueOf(cause.getMessage())));
+            } else {
+                ctx.sender().sendMessage(reloaded.reloadSuccess());
+            }
+            return null;
+        });
     }
 }
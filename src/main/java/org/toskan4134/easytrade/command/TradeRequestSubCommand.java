@@ -1,32 +1,37 @@
 package org.toskan4134.easytrade.command;
 
-import com.hypixel.hytale.server.core.NameMatching;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
-import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.ActionRateLimiter;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.trade.TradeState;
+import org.toskan4134.easytrade.trade.TradeZoneTable;
+import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.PlayerSpatialIndex;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 
 import static org.toskan4134.easytrade.constants.TradeConstants.DEFAULT_PERMISSION;
+import static org.toskan4134.easytrade.constants.TradeConstants.NAME_SUGGESTION_LIMIT;
 
 /**
- * Subcommand: /trade request <player>
- * Send a trade request to another player.
+ * Subcommand: /trade request [player]
+ * Send a trade request to another player. A unique start of their name is enough;
+ * without a name the request goes to the nearest player.
  */
 public class TradeRequestSubCommand extends AbstractPlayerCommand {
 
     private final TradeManager tradeManager;
-    private final RequiredArg<String> playerArg;
+    private final OptionalArg<String> playerArg;
 
     public TradeRequestSubCommand(TradeManager tradeManager) {
         super("request", "Send a trade request to a player");
@@ -34,7 +39,7 @@ public class TradeRequestSubCommand extends AbstractPlayerCommand {
         this.requirePermission(DEFAULT_PERMISSION + "request");
 
         this.tradeManager = tradeManager;
-        this.playerArg = withRequiredArg("player", "Target player name", ArgTypes.STRING);
+        this.playerArg = withOptionalArg("player", "Target player name (nearest if omitted)", ArgTypes.STRING);
     }
 
     @Override
@@ -48,26 +53,60 @@ public class TradeRequestSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
-
-        String targetName = playerArg.get(ctx);
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
         // Check if player is already in a trade
         if (tradeManager.isInTrade(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.alreadyInTrade());
+            ctx.sender().sendMessage(messages.alreadyInTrade());
             return;
         }
 
-        // Find target player by name
-        PlayerRef targetRef = Universe.get().getPlayerByUsername(targetName, NameMatching.EXACT_IGNORE_CASE);
-
-        if (targetRef == null) {
-            ctx.sender().sendMessage(TradeMessages.targetNotFound());
+        // Limit how often a player can send requests, before resolving the target and its zone
+        ActionRateLimiter.Outcome rate = tradeManager.tryAction(playerRef, ActionRateLimiter.Action.REQUEST);
+        if (!rate.isAllowed()) {
+            if (rate == ActionRateLimiter.Outcome.LIMITED) {
+                ctx.sender().sendMessage(messages.errorRateLimited());
+            }
             return;
         }
 
+        PlayerRef targetRef;
+        if (!playerArg.provided(ctx)) {
+            // No name: ask the nearest player
+            PlayerSpatialIndex.Nearby nearest = tradeManager.findNearestPlayer(playerRef);
+            if (nearest == null) {
+                ctx.sender().sendMessage(messages.nearbyNone(Common.getNearbyRadius()));
+                return;
+            }
+            targetRef = nearest.player;
+        } else {
+            // Find target player by name (exact, or a unique partial name)
+            String targetName = playerArg.get(ctx);
+            targetRef = tradeManager.findPlayer(targetName);
+
+            if (targetRef == null) {
+                List<String> matches = tradeManager.completePlayerName(targetName, NAME_SUGGESTION_LIMIT);
+                if (matches.size() > 1) {
+                    ctx.sender().sendMessage(messages.targetAmbiguous(targetName, String.join(", ", matches)));
+                } else if (tradeManager.isOnOtherNode(targetName)) {
+                    ctx.sender().sendMessage(messages.targetOnOtherNode(targetName));
+                } else {
+                    ctx.sender().sendMessage(messages.targetNotFound());
+                }
+                return;
+            }
+        }
+
         // Can't trade with yourself
         if (targetRef.getUuid().equals(playerRef.getUuid())) {
-            ctx.sender().sendMessage(TradeMessages.cannotTradeSelf());
+            ctx.sender().sendMessage(messages.cannotTradeSelf());
+            return;
+        }
+
+        // Both players must stand where trading is allowed
+        TradeZoneTable.Check zoneCheck = tradeManager.checkTradeZone(playerRef, targetRef);
+        if (!zoneCheck.allowed) {
+            ctx.sender().sendMessage(zoneCheck.getDenialMessage(messages));
             return;
         }
 
@@ -76,17 +115,21 @@ public class TradeRequestSubCommand extends AbstractPlayerCommand {
 
         if (result.success) {
             // Send to requester with target name
-            ctx.sender().sendMessage(TradeMessages.requestSent(targetName));
+            ctx.sender().sendMessage(messages.requestSent(targetRef.getUsername()));
             // Send to target with initiator name
-            targetRef.sendMessage(TradeMessages.requestReceived(playerRef.getUsername()));
+            targetRef.sendMessage(TradeMessages.forPlayer(targetRef).requestReceived(playerRef.getUsername()));
 
             // If trade was auto-accepted (they had sent us a request)
             if (result.session != null && result.session.getState() == TradeState.NEGOTIATING) {
-                ctx.sender().sendMessage(TradeMessages.requestAccepted());
-                targetRef.sendMessage(TradeMessages.requestAccepted());
+                ctx.sender().sendMessage(messages.requestAccepted());
+                targetRef.sendMessage(TradeMessages.forPlayer(targetRef).requestAccepted());
             }
+        } else if (result.reason != null) {
+            ctx.sender().sendMessage(result.reason);
+        } else if (tradeManager.getPendingRequestCount(targetRef) >= Common.getMaxPendingRequests()) {
+            ctx.sender().sendMessage(messages.inboxFull(targetRef.getUsername()));
         } else {
-            ctx.sender().sendMessage(TradeMessages.alreadyPending());
+            ctx.sender().sendMessage(messages.alreadyPending());
         }
     }
 }
@@ -42,10 +42,11 @@ public class TradeTestSubCommand extends AbstractPlayerCommand {
                            @Nonnull Ref<EntityStore> playerEntityRef,
                            @Nonnull PlayerRef playerRef,
                            @Nonnull World world) {
+        TradeMessages messages = TradeMessages.forPlayer(playerRef);
 
         // Check if already in a trade
         if (tradeManager.isInTrade(playerRef)) {
-            ctx.sender().sendMessage(TradeMessages.alreadyInTrade());
+            ctx.sender().sendMessage(messages.alreadyInTrade());
             return;
         }
 
@@ -54,20 +55,20 @@ public class TradeTestSubCommand extends AbstractPlayerCommand {
 
         if (result.success) {
             ctx.sender().sendMessage(Message.raw(""));
-            ctx.sender().sendMessage(TradeMessages.testHeader());
-            ctx.sender().sendMessage(TradeMessages.testDescription());
+            ctx.sender().sendMessage(messages.testHeader());
+            ctx.sender().sendMessage(messages.testDescription());
             ctx.sender().sendMessage(Message.raw(""));
-            ctx.sender().sendMessage(TradeMessages.testCommands());
-            ctx.sender().sendMessage(TradeMessages.testAccept());
-            ctx.sender().sendMessage(TradeMessages.testConfirm());
-            ctx.sender().sendMessage(TradeMessages.testCancel());
+            ctx.sender().sendMessage(messages.testCommands());
+            ctx.sender().sendMessage(messages.testAccept());
+            ctx.sender().sendMessage(messages.testConfirm());
+            ctx.sender().sendMessage(messages.testCancel());
             ctx.sender().sendMessage(Message.raw(""));
-            ctx.sender().sendMessage(TradeMessages.testAutoAccept());
+            ctx.sender().sendMessage(messages.testAutoAccept());
 
             tradeManager.openTradeUI(playerRef, store, playerEntityRef);
 
         } else {
-            ctx.sender().sendMessage(TradeMessages.testFailed());
+            ctx.sender().sendMessage(result.reason != null ? result.reason : messages.testFailed());
         }
     }
 }
@@ -2,16 +2,27 @@ package org.toskan4134.easytrade.config;
 
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.util.Config;
+import org.toskan4134.easytrade.storage.MessageCatalog;
 import org.toskan4134.easytrade.storage.MessagesStorage;
+import org.toskan4134.easytrade.storage.TradeZonesStorage;
+import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.FileWatcher;
+import org.toskan4134.easytrade.util.MessageTemplate;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Manages plugin configuration and messages.
- * Config is stored in EasyTrade.json (handled by Hytale's Config system).
- * Messages are stored in messages.json (custom JSON file).
+ * Config is stored in EasyTrade.json (handled by Hytale's Config system) and published as an
+ * immutable {@link TradeConfigSnapshot} on every load, including when the file changes on disk.
+ * Messages are stored in messages.json (custom JSON file) and reloaded automatically when it changes.
+ * Trade zones are stored in zones.json (custom JSON file).
  */
 public class ConfigManager {
 
@@ -19,18 +30,48 @@ public class ConfigManager {
 
     private final Config<TradeConfig> config;
     private final MessagesStorage messagesStorage;
+    private final TradeZonesStorage zonesStorage;
+    private final FileWatcher configWatcher;
 
-    public ConfigManager(Config<TradeConfig> config, File dataFolder) {
+    /**
+     * @param config The plugin config
+     * @param dataFolder Folder of messages.json and zones.json
+     * @param configFile Path of the config file, watched for changes
+     */
+    public ConfigManager(Config<TradeConfig> config, File dataFolder, Path configFile) {
         this.config = config;
         this.messagesStorage = new MessagesStorage(dataFolder);
+        this.zonesStorage = new TradeZonesStorage(dataFolder);
+        publishConfig();
         loadMessages();
+        messagesStorage.startWatching(this::onMessagesFileChanged);
+        zonesStorage.load();
+
+        String configFileName = configFile.getFileName().toString();
+        this.configWatcher = new FileWatcher(configFile.toAbsolutePath().getParent(), configFileName::equals,
+            this::reloadConfig, "EasyTrade-ConfigWatcher");
+        configWatcher.start();
+    }
+
+    /**
+     * Publish a snapshot of the loaded config for the rest of the plugin.
+     */
+    private void publishConfig() {
+        TradeConfig loaded = config.get();
+        if (loaded != null) {
+            Common.publishConfig(TradeConfigSnapshot.of(loaded));
+        }
     }
 
     /**
      * Load messages from messages.json.
      * If file doesn't exist, creates it with default messages.
+     * Writing the file happens in the background, so this never waits on disk writes.
      */
-    private void loadMessages() {
+    private synchronized void loadMessages() {
+        // Translations are read again on next use
+        messagesStorage.clearLanguages();
+
         if (messagesStorage.load()) {
             // Merge with defaults to add any new message keys
             if (messagesStorage.mergeWithDefaults(getDefaultMessages())) {
@@ -46,6 +87,18 @@ public class ConfigManager {
         messagesStorage.save();
     }
 
+    /**
+     * Called on the watcher thread after messages.json was changed on disk.
+     */
+    private void onMessagesFileChanged() {
+        long before = messagesStorage.getCatalog().getVersion();
+        loadMessages();
+        long after = messagesStorage.getCatalog().getVersion();
+        if (after != before) {
+            LOGGER.atInfo().log("messages.json changed, messages reloaded (version " + after + ")");
+        }
+    }
+
     /**
      * Get the Trade configuration.
      */
@@ -60,6 +113,28 @@ public class ConfigManager {
         return messagesStorage.getMessage(key);
     }
 
+    /**
+     * Get the compiled template of a message from the current message catalog.
+     */
+    public MessageTemplate getMessageTemplate(String key) {
+        return messagesStorage.getCatalog().getTemplate(key);
+    }
+
+    /**
+     * Get the compiled template of a message in a client language, or the default messages
+     * if there is no translation for it.
+     */
+    public MessageTemplate getMessageTemplate(String language, String key) {
+        return messagesStorage.getCatalog(language).getTemplate(key);
+    }
+
+    /**
+     * Get the current message catalog.
+     */
+    public MessageCatalog getMessageCatalog() {
+        return messagesStorage.getCatalog();
+    }
+
     /**
      * Get a message with placeholder replacements.
      *
@@ -87,10 +162,19 @@ public class ConfigManager {
 
     /**
      * Reload configuration from disk.
+     * @return future completed once the new config is published, or completed exceptionally if
+     *         loading failed (the current config is kept)
      */
-    public void reloadConfig() {
-        config.load();
-        LOGGER.atInfo().log("Configuration reloaded");
+    public CompletableFuture<Void> reloadConfig() {
+        return config.load().handle((loaded, error) -> {
+            if (error != null) {
+                LOGGER.atWarning().withCause(error).log("Failed to reload configuration, keeping the current one");
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            publishConfig();
+            LOGGER.atInfo().log("Configuration reloaded");
+            return null;
+        });
     }
 
     /**
@@ -101,6 +185,36 @@ public class ConfigManager {
         LOGGER.atInfo().log("Messages reloaded");
     }
 
+    /**
+     * Stop watching the config and messages files and finish pending message writes.
+     */
+    public void close() {
+        configWatcher.stop();
+        messagesStorage.close();
+    }
+
+    /**
+     * Reload trade zones from disk.
+     */
+    public void reloadZones() {
+        zonesStorage.load();
+        LOGGER.atInfo().log("Trade zones reloaded");
+    }
+
+    /**
+     * Get the trade policy that applies outside every zone.
+     */
+    public TradeZone.Policy getZoneDefaultPolicy() {
+        return zonesStorage.getDefaultPolicy();
+    }
+
+    /**
+     * Get the trade zones defined in zones.json.
+     */
+    public List<TradeZone> getZones() {
+        return zonesStorage.getZones();
+    }
+
     /**
      * Define default messages with color codes.
      * Color codes: &0-9,&a-f for standard colors, &#RRGGBB for hex colors, &l for bold, &r for reset
@@ -117,10 +231,25 @@ public class ConfigManager {
         messages.put("trade.request.targetAlreadyInTrade", "&cThat player is already in a trade.");
         messages.put("trade.request.alreadyPending", "&cYou already have a pending request to this player.");
         messages.put("trade.request.noPending", "&cNo pending trade request.");
+        messages.put("trade.request.noPendingFrom", "&cNo pending trade request from &f{player}&c.");
+        messages.put("trade.request.inboxFull", "&c{target} has too many pending trade requests.");
+        messages.put("trade.request.choose", "&eYou have &f{count} &epending requests. Use &6/trade accept &3<player> &eor &6/trade decline &3<player>&e.");
         messages.put("trade.request.expired", "&cTrade request expired.");
         messages.put("trade.request.targetNotFound", "&cTarget player not found");
+        messages.put("trade.request.targetAmbiguous", "&eSeveral players match &f{name}&e: &f{matches}");
+        messages.put("trade.request.targetOnOtherNode", "&f{name} &cis playing on another server. Trading across servers is not supported.");
         messages.put("trade.request.cannotTradeSelf", "&eYou cannot trade with yourself.");
 
+        // Nearby players
+        messages.put("trade.nearby.header", "&ePlayers within &f{radius} &eblocks:");
+        messages.put("trade.nearby.entry", "&7  - &f{player} &7({distance} blocks)");
+        messages.put("trade.nearby.none", "&cNo players within &f{radius} &cblocks.");
+        messages.put("trade.zone.denied", "&cTrading is not allowed in &f{zone}&c.");
+        messages.put("trade.zone.sameZone", "&cYou can only trade with players inside &f{zone}&c.");
+        messages.put("trade.distance.tooFar", "&cYou are too far from &f{player} &cto trade (max &f{distance} &cblocks). Move closer or the trade will be cancelled.");
+        messages.put("trade.distance.cancelled", "&cTrade cancelled: you stayed too far from your partner.");
+        messages.put("trade.nearby.hint", "&7Use &6/trade request &3<player>&7, or &6/trade request &7to ask the nearest player.");
+
         // ===== Cancel Messages =====
         messages.put("trade.cancelled.byYou", "&eTrade cancelled");
         messages.put("trade.cancelled.byPartner", "&eTrade cancelled by your partner");
@@ -144,14 +273,16 @@ public class ConfigManager {
         // ===== Help Messages =====
         messages.put("trade.help.header", "&b&l=== EasyTrade v{version} ===");
         messages.put("trade.help.basic", "&f&lCOMMANDS:");
-        messages.put("trade.help.request", "&6  /trade request &3<player> &7- Send trade request");
-        messages.put("trade.help.accept", "&6  /trade accept &7- Accept pending request");
-        messages.put("trade.help.decline", "&6  /trade decline &7- Decline pending request");
+        messages.put("trade.help.request", "&6  /trade request &3[player] &7- Send trade request (nearest player if omitted)");
+        messages.put("trade.help.nearby", "&6  /trade nearby &7- List nearby players to trade with");
+        messages.put("trade.help.accept", "&6  /trade accept &3[player] &7- Accept pending request");
+        messages.put("trade.help.decline", "&6  /trade decline &3[player] &7- Decline pending request");
         messages.put("trade.help.cancel", "&6  /trade cancel &7- Cancel current trade");
         messages.put("trade.help.confirm", "&6  /trade confirm &7- Confirm after countdown");
         messages.put("trade.help.open", "&6  /trade open &7- Open trading UI");
         messages.put("trade.help.reload", "&6  /trade reload &7- Reload config and messages &c(admin)");
         messages.put("trade.help.test", "&6  /trade test &7- Start solo test trade &c(admin)");
+        messages.put("trade.help.admin", "&6  /trade admin &3pause|resume &7- Pause or resume all trading &c(admin)");
         messages.put("trade.help.helpCmd", "&6  /trade help &7- Show this help");
         messages.put("trade.help.howTo", "&f&lHOW TO TRADE:");
         messages.put("trade.help.step1", "&7  1. &6/trade request &3<player>");
@@ -181,10 +312,16 @@ public class ConfigManager {
         messages.put("trade.error.partnerDepositFailed", "&c{player} couldn't receive items");
         messages.put("trade.error.systemError", "&cTrade failed: {reason}");
         messages.put("trade.error.acceptFirst", "&eBoth players must accept first");
+        messages.put("trade.error.rateLimited", "&cYou're doing that too fast, slow down.");
 
         // ===== Disconnect =====
         messages.put("trade.disconnect.cancelled", "&eTrade cancelled - other player disconnected");
         messages.put("trade.disconnect.requestCancelled", "&eTrade request cancelled - player disconnected");
+        messages.put("trade.idle.cancelled", "&eTrade cancelled - no activity for too long");
+        messages.put("trade.shutdown.cancelled", "&eTrade cancelled - the server is shutting down. Your offered items stay with you.");
+        messages.put("trade.escrow.returnPending", "&eSome of your traded items didn't fit in your inventory. They will be returned the next time you join.");
+        messages.put("trade.escrow.held", "&cThe trade could not be undone. Your offered items are held for an admin to return.");
+        messages.put("trade.escrow.returned", "&aReturned {count} item stacks left over from an earlier trade.");
 
         // ===== Test Mode =====
         messages.put("trade.test.started", "&aTest trade session started. You are both players");
@@ -202,6 +339,18 @@ public class ConfigManager {
         messages.put("trade.reload.success", "&aConfiguration and messages reloaded successfully!");
         messages.put("trade.reload.failed", "&cFailed to reload: {reason}");
 
+        // ===== Admission =====
+        messages.put("trade.admission.paused", "&cTrading is paused by an admin. Try again later.");
+        messages.put("trade.admission.shuttingDown", "&cThe server is shutting down, trading is closed.");
+        messages.put("trade.admission.tooManyRequests", "&cThe server has too many pending trade requests. Try again in a moment.");
+        messages.put("trade.admission.tooManySessions", "&cThe server has too many active trades. Your request stays pending, try again in a moment.");
+        messages.put("trade.admission.queueFull", "&cThe server is busy completing other trades. Confirm again in a moment.");
+        messages.put("trade.admission.autoExecuteDelayed", "&eThe server is busy, the trade will complete automatically as soon as it can.");
+        messages.put("trade.admin.paused", "&eTrading paused. New requests, trades and confirms are refused until &6/trade admin resume&e.");
+        messages.put("trade.admin.alreadyPaused", "&eTrading is already paused.");
+        messages.put("trade.admin.resumed", "&aTrading resumed.");
+        messages.put("trade.admin.notPaused", "&eTrading is not paused.");
+
         // ===== UI =====
         messages.put("trade.ui.opened", "&aTrading UI opened");
         messages.put("trade.ui.openFailed", "&cFailed to open trading UI");
@@ -230,6 +379,8 @@ public class ConfigManager {
         messages.put("ui.status.failedValidation", "Cannot accept - items no longer available");
         messages.put("ui.status.cannotAcceptState", "Cannot accept in current state");
         messages.put("ui.status.noActiveSession", "No active trade session");
+        messages.put("ui.status.tooFarFromPartner", "Too far from partner (max {distance} blocks)");
+        messages.put("ui.status.rateLimited", "Too fast - slow down");
 
         // ===== UI Item Actions =====
         messages.put("ui.action.addedToOffer", "Added x{amount} to offer");
@@ -22,6 +22,18 @@ public class TradeConfig {
                     (config, value, info) -> config.requestTimeout = value,
                     (config, info) -> config.requestTimeout)
             .add()
+            .append(new KeyedCodec<>("NegotiationTimeout", Codec.INTEGER),
+                    (config, value, info) -> config.negotiationTimeout = value,
+                    (config, info) -> config.negotiationTimeout)
+            .add()
+            .append(new KeyedCodec<>("ConfirmTimeout", Codec.INTEGER),
+                    (config, value, info) -> config.confirmTimeout = value,
+                    (config, info) -> config.confirmTimeout)
+            .add()
+            .append(new KeyedCodec<>("ShutdownTimeout", Codec.INTEGER),
+                    (config, value, info) -> config.shutdownTimeout = value,
+                    (config, info) -> config.shutdownTimeout)
+            .add()
             .append(new KeyedCodec<>("CheckForUpdates", Codec.BOOLEAN),
                     (config, value, info) -> config.checkForUpdates = value,
                     (config, info) -> config.checkForUpdates)
@@ -30,13 +42,81 @@ public class TradeConfig {
                     (config, value, info) -> config.debug = value,
                     (config, info) -> config.debug)
             .add()
+            .append(new KeyedCodec<>("DebugCategories", Codec.STRING),
+                    (config, value, info) -> config.debugCategories = value,
+                    (config, info) -> config.debugCategories)
+            .add()
+            .append(new KeyedCodec<>("EscrowMode", Codec.BOOLEAN),
+                    (config, value, info) -> config.escrowMode = value,
+                    (config, info) -> config.escrowMode)
+            .add()
+            .append(new KeyedCodec<>("AutoExecute", Codec.BOOLEAN),
+                    (config, value, info) -> config.autoExecute = value,
+                    (config, info) -> config.autoExecute)
+            .add()
+            .append(new KeyedCodec<>("ExecutionBudget", Codec.INTEGER),
+                    (config, value, info) -> config.executionBudget = value,
+                    (config, info) -> config.executionBudget)
+            .add()
+            .append(new KeyedCodec<>("MaxPendingRequests", Codec.INTEGER),
+                    (config, value, info) -> config.maxPendingRequests = value,
+                    (config, info) -> config.maxPendingRequests)
+            .add()
+            .append(new KeyedCodec<>("MaxTotalPendingRequests", Codec.INTEGER),
+                    (config, value, info) -> config.maxTotalPendingRequests = value,
+                    (config, info) -> config.maxTotalPendingRequests)
+            .add()
+            .append(new KeyedCodec<>("MaxActiveSessions", Codec.INTEGER),
+                    (config, value, info) -> config.maxActiveSessions = value,
+                    (config, info) -> config.maxActiveSessions)
+            .add()
+            .append(new KeyedCodec<>("MaxExecutionQueue", Codec.INTEGER),
+                    (config, value, info) -> config.maxExecutionQueue = value,
+                    (config, info) -> config.maxExecutionQueue)
+            .add()
+            .append(new KeyedCodec<>("NearbyRadius", Codec.INTEGER),
+                    (config, value, info) -> config.nearbyRadius = value,
+                    (config, info) -> config.nearbyRadius)
+            .add()
+            .append(new KeyedCodec<>("MaxTradeDistance", Codec.INTEGER),
+                    (config, value, info) -> config.maxTradeDistance = value,
+                    (config, info) -> config.maxTradeDistance)
+            .add()
+            .append(new KeyedCodec<>("RequestRateLimit", Codec.INTEGER),
+                    (config, value, info) -> config.requestRateLimit = value,
+                    (config, info) -> config.requestRateLimit)
+            .add()
+            .append(new KeyedCodec<>("OfferEditRateLimit", Codec.INTEGER),
+                    (config, value, info) -> config.offerEditRateLimit = value,
+                    (config, info) -> config.offerEditRateLimit)
+            .add()
+            .append(new KeyedCodec<>("AcceptRateLimit", Codec.INTEGER),
+                    (config, value, info) -> config.acceptRateLimit = value,
+                    (config, info) -> config.acceptRateLimit)
+            .add()
 
             .build();
 
     private int countdownDuration = COUNTDOWN_DURATION_MS; // in milliseconds
     private int requestTimeout = REQUEST_TIMEOUT_MS; // in milliseconds
+    private int negotiationTimeout = NEGOTIATION_TIMEOUT_MS; // in milliseconds, 0 = never
+    private int confirmTimeout = CONFIRM_TIMEOUT_MS; // in milliseconds, 0 = never
+    private int shutdownTimeout = SHUTDOWN_TIMEOUT_MS; // in milliseconds
     private boolean checkForUpdates = CHECK_FOR_UPDATES;
     private boolean debug = DEBUG;
+    private String debugCategories = DEBUG_CATEGORIES; // comma-separated
+    private boolean escrowMode = ESCROW_MODE;
+    private boolean autoExecute = AUTO_EXECUTE;
+    private int executionBudget = EXECUTION_BUDGET_MS; // in milliseconds per tick
+    private int maxPendingRequests = MAX_PENDING_REQUESTS; // per target player
+    private int maxTotalPendingRequests = MAX_TOTAL_PENDING_REQUESTS; // across the server, 0 = no limit
+    private int maxActiveSessions = MAX_ACTIVE_SESSIONS; // across the server, 0 = no limit
+    private int maxExecutionQueue = MAX_EXECUTION_QUEUE; // per world, 0 = no limit
+    private int nearbyRadius = NEARBY_RADIUS; // in blocks
+    private int maxTradeDistance = MAX_TRADE_DISTANCE; // in blocks, 0 = no limit
+    private int requestRateLimit = REQUEST_RATE_LIMIT; // per minute, 0 = no limit
+    private int offerEditRateLimit = OFFER_EDIT_RATE_LIMIT; // per second, 0 = no limit
+    private int acceptRateLimit = ACCEPT_RATE_LIMIT; // per second, 0 = no limit
 
     public TradeConfig() {
     }
@@ -65,6 +145,34 @@ public class TradeConfig {
         this.requestTimeout = Math.max(5000, Math.min(300000, requestTimeout)); // 5s to 5min range
     }
 
+    public long getNegotiationTimeoutMs() {
+        return clampIdleTimeout(negotiationTimeout);
+    }
+
+    public void setNegotiationTimeout(int negotiationTimeout) {
+        this.negotiationTimeout = (int) clampIdleTimeout(negotiationTimeout);
+    }
+
+    public long getConfirmTimeoutMs() {
+        return clampIdleTimeout(confirmTimeout);
+    }
+
+    public void setConfirmTimeout(int confirmTimeout) {
+        this.confirmTimeout = (int) clampIdleTimeout(confirmTimeout);
+    }
+
+    public long getShutdownTimeoutMs() {
+        return (long) Math.max(1000, Math.min(60000, shutdownTimeout)); // 1s to 60s range
+    }
+
+    public void setShutdownTimeout(int shutdownTimeout) {
+        this.shutdownTimeout = Math.max(1000, Math.min(60000, shutdownTimeout)); // 1s to 60s range
+    }
+
+    private static long clampIdleTimeout(int timeout) {
+        return timeout <= 0 ? 0 : Math.max(10000, timeout); // 0 = never, else at least 10s
+    }
+
     public boolean isCheckForUpdates() {
         return checkForUpdates;
     }
@@ -80,4 +188,112 @@ public class TradeConfig {
     public void setDebug(boolean debug) {
         this.debug = debug;
     }
+
+    public String getDebugCategories() {
+        return debugCategories != null ? debugCategories : "";
+    }
+
+    public void setDebugCategories(String debugCategories) {
+        this.debugCategories = debugCategories != null ? debugCategories : "";
+    }
+
+    public boolean isEscrowMode() {
+        return escrowMode;
+    }
+
+    public void setEscrowMode(boolean escrowMode) {
+        this.escrowMode = escrowMode;
+    }
+
+    public boolean isAutoExecute() {
+        return autoExecute;
+    }
+
+    public void setAutoExecute(boolean autoExecute) {
+        this.autoExecute = autoExecute;
+    }
+
+    public int getExecutionBudget() {
+        return executionBudget;
+    }
+
+    public long getExecutionBudgetMs() {
+        return (long) Math.max(1, Math.min(50, executionBudget)); // 1ms to 50ms range
+    }
+
+    public void setExecutionBudget(int executionBudget) {
+        this.executionBudget = Math.max(1, Math.min(50, executionBudget)); // 1ms to 50ms range
+    }
+
+    public int getMaxPendingRequests() {
+        return Math.max(1, maxPendingRequests);
+    }
+
+    public void setMaxPendingRequests(int maxPendingRequests) {
+        this.maxPendingRequests = Math.max(1, maxPendingRequests);
+    }
+
+    public int getMaxTotalPendingRequests() {
+        return Math.max(0, maxTotalPendingRequests);
+    }
+
+    public void setMaxTotalPendingRequests(int maxTotalPendingRequests) {
+        this.maxTotalPendingRequests = Math.max(0, maxTotalPendingRequests);
+    }
+
+    public int getMaxActiveSessions() {
+        return Math.max(0, maxActiveSessions);
+    }
+
+    public void setMaxActiveSessions(int maxActiveSessions) {
+        this.maxActiveSessions = Math.max(0, maxActiveSessions);
+    }
+
+    public int getMaxExecutionQueue() {
+        return Math.max(0, maxExecutionQueue);
+    }
+
+    public void setMaxExecutionQueue(int maxExecutionQueue) {
+        this.maxExecutionQueue = Math.max(0, maxExecutionQueue);
+    }
+
+    public int getNearbyRadius() {
+        return Math.max(1, Math.min(128, nearbyRadius)); // 1 to 128 blocks
+    }
+
+    public void setNearbyRadius(int nearbyRadius) {
+        this.nearbyRadius = Math.max(1, Math.min(128, nearbyRadius)); // 1 to 128 blocks
+    }
+
+    public int getMaxTradeDistance() {
+        return Math.max(0, maxTradeDistance);
+    }
+
+    public void setMaxTradeDistance(int maxTradeDistance) {
+        this.maxTradeDistance = Math.max(0, maxTradeDistance);
+    }
+
+    public int getRequestRateLimit() {
+        return Math.max(0, requestRateLimit);
+    }
+
+    public void setRequestRateLimit(int requestRateLimit) {
+        this.requestRateLimit = Math.max(0, requestRateLimit);
+    }
+
+    public int getOfferEditRateLimit() {
+        return Math.max(0, offerEditRateLimit);
+    }
+
+    public void setOfferEditRateLimit(int offerEditRateLimit) {
+        this.offerEditRateLimit = Math.max(0, offerEditRateLimit);
+    }
+
+    public int getAcceptRateLimit() {
+        return Math.max(0, acceptRateLimit);
+    }
+
+    public void setAcceptRateLimit(int acceptRateLimit) {
+        this.acceptRateLimit = Math.max(0, acceptRateLimit);
+    }
 }
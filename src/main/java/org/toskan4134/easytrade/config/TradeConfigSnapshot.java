@@ -0,0 +1,158 @@
+package org.toskan4134.easytrade.config;
+
+import org.toskan4134.easytrade.util.DebugCategory;
+
+/**
+ * Immutable copy of the trade configuration.
+ *
+ * A new snapshot is published whenever EasyTrade.json is loaded, so readers get every value from
+ * one consistent version without going through the Config system. Trade sessions keep the snapshot
+ * they were created with, so a reload can't change the timing of a trade already in progress.
+ */
+public final class TradeConfigSnapshot {
+
+    /**
+     * Snapshot of the built-in defaults, used until the config is loaded
+     */
+    public static final TradeConfigSnapshot DEFAULTS = of(new TradeConfig());
+
+    private final long countdownDurationMs;
+    private final long requestTimeoutMs;
+    private final long negotiationTimeoutMs;
+    private final long confirmTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final boolean checkForUpdates;
+    private final boolean debug;
+    private final int debugMask;
+    private final boolean escrowMode;
+    private final boolean autoExecute;
+    private final long executionBudgetMs;
+    private final int maxPendingRequests;
+    private final int maxTotalPendingRequests;
+    private final int maxActiveSessions;
+    private final int maxExecutionQueue;
+    private final int nearbyRadius;
+    private final int maxTradeDistance;
+    private final int requestRateLimit;
+    private final int offerEditRateLimit;
+    private final int acceptRateLimit;
+
+    private TradeConfigSnapshot(TradeConfig config) {
+        this.countdownDurationMs = config.getCountdownDurationMs();
+        this.requestTimeoutMs = config.getRequestTimeoutMs();
+        this.negotiationTimeoutMs = config.getNegotiationTimeoutMs();
+        this.confirmTimeoutMs = config.getConfirmTimeoutMs();
+        this.shutdownTimeoutMs = config.getShutdownTimeoutMs();
+        this.checkForUpdates = config.isCheckForUpdates();
+        this.debug = config.isDebug();
+        this.debugMask = debug ? DebugCategory.ALL : DebugCategory.parseMask(config.getDebugCategories());
+        this.escrowMode = config.isEscrowMode();
+        this.autoExecute = config.isAutoExecute();
+        this.executionBudgetMs = config.getExecutionBudgetMs();
+        this.maxPendingRequests = config.getMaxPendingRequests();
+        this.maxTotalPendingRequests = config.getMaxTotalPendingRequests();
+        this.maxActiveSessions = config.getMaxActiveSessions();
+        this.maxExecutionQueue = config.getMaxExecutionQueue();
+        this.nearbyRadius = config.getNearbyRadius();
+        this.maxTradeDistance = config.getMaxTradeDistance();
+        this.requestRateLimit = config.getRequestRateLimit();
+        this.offerEditRateLimit = config.getOfferEditRateLimit();
+        this.acceptRateLimit = config.getAcceptRateLimit();
+    }
+
+    /**
+     * Take a snapshot of the current values of a config.
+     */
+    public static TradeConfigSnapshot of(TradeConfig config) {
+        return new TradeConfigSnapshot(config);
+    }
+
+    public long getCountdownDurationMs() {
+        return countdownDurationMs;
+    }
+
+    public long getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    /**
+     * Get how long a trade may negotiate without activity, 0 for no limit.
+     */
+    public long getNegotiationTimeoutMs() {
+        return negotiationTimeoutMs;
+    }
+
+    /**
+     * Get how long a trade may wait for Confirm once both players accepted, 0 for no limit.
+     */
+    public long getConfirmTimeoutMs() {
+        return confirmTimeoutMs;
+    }
+
+    public long getShutdownTimeoutMs() {
+        return shutdownTimeoutMs;
+    }
+
+    public boolean isCheckForUpdates() {
+        return checkForUpdates;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Get the debug categories to log, as a {@link DebugCategory} mask.
+     */
+    public int getDebugMask() {
+        return debugMask;
+    }
+
+    public boolean isEscrowMode() {
+        return escrowMode;
+    }
+
+    public boolean isAutoExecute() {
+        return autoExecute;
+    }
+
+    public long getExecutionBudgetMs() {
+        return executionBudgetMs;
+    }
+
+    public int getMaxPendingRequests() {
+        return maxPendingRequests;
+    }
+
+    public int getMaxTotalPendingRequests() {
+        return maxTotalPendingRequests;
+    }
+
+    public int getMaxActiveSessions() {
+        return maxActiveSessions;
+    }
+
+    public int getMaxExecutionQueue() {
+        return maxExecutionQueue;
+    }
+
+    public int getNearbyRadius() {
+        return nearbyRadius;
+    }
+
+    public int getMaxTradeDistance() {
+        return maxTradeDistance;
+    }
+
+    public int getRequestRateLimit() {
+        return requestRateLimit;
+    }
+
+    public int getOfferEditRateLimit() {
+        return offerEditRateLimit;
+    }
+
+    public int getAcceptRateLimit() {
+        return acceptRateLimit;
+    }
+}
@@ -0,0 +1,132 @@
+package org.toskan4134.easytrade.config;
+
+import java.util.Locale;
+
+/**
+ * A region of a world with its own trading policy, as defined in zones.json.
+ * A zone without bounds covers its whole world.
+ */
+public class TradeZone {
+
+    /**
+     * What trading is allowed inside a zone.
+     */
+    public enum Policy {
+        /**
+         * Trading is allowed
+         */
+        ALLOW,
+
+        /**
+         * Trading is not allowed (e.g. PvP arenas)
+         */
+        DENY,
+
+        /**
+         * Trading is only allowed with players in the same zone (e.g. markets)
+         */
+        SAME_ZONE;
+
+        /**
+         * Parse a policy name such as "Deny" or "SameZone" (case and separators are ignored).
+         * @return the policy, or null if the name is unknown
+         */
+        public static Policy parse(String name) {
+            if (name == null) {
+                return null;
+            }
+            String normalized = name.replace("_", "").replace("-", "").toUpperCase(Locale.ROOT);
+            for (Policy policy : values()) {
+                if (policy.name().replace("_", "").equals(normalized)) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String name;
+    private final String world;
+    private final Policy policy;
+    private final int priority;
+    private final boolean bounded;
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+
+    /**
+     * Create a zone covering a whole world.
+     */
+    public TradeZone(String name, String world, Policy policy, int priority) {
+        this.name = name;
+        this.world = world;
+        this.policy = policy;
+        this.priority = priority;
+        this.bounded = false;
+        this.minX = this.minY = this.minZ = Double.NEGATIVE_INFINITY;
+        this.maxX = this.maxY = this.maxZ = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Create a zone covering a box (corners in any order, both inclusive).
+     */
+    public TradeZone(String name, String world, Policy policy, int priority,
+                     double x1, double y1, double z1, double x2, double y2, double z2) {
+        this.name = name;
+        this.world = world;
+        this.policy = policy;
+        this.priority = priority;
+        this.bounded = true;
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Where zones overlap, the one with the highest priority applies.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinZ() {
+        return minZ;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Check if a position lies inside the zone.
+     */
+    public boolean contains(double x, double y, double z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+}
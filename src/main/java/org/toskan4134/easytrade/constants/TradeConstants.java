@@ -37,9 +37,157 @@ public final class TradeConstants {
     public static final boolean DEBUG = false;
 
     /**
-     * Maximum concurrent trades per player
+     * Comma-separated debug categories logged while Debug is off (default: none)
      */
-    public static final int MAX_PENDING_REQUESTS = 1;
+    public static final String DEBUG_CATEGORIES = "";
+
+    /**
+     * Whether accepting moves the offered items into the session escrow (default: false = no)
+     */
+    public static final boolean ESCROW_MODE = false;
+
+    /**
+     * Whether the trade executes by itself when the countdown ends (default: false = wait for confirm)
+     */
+    public static final boolean AUTO_EXECUTE = false;
+
+    /**
+     * How long before the countdown ends auto-execute pre-verifies the trade
+     */
+    public static final long PRE_VERIFY_LEAD_MS = 1000;
+
+    /**
+     * Time per tick each world may spend executing queued trades (default: 2ms)
+     */
+    public static final int EXECUTION_BUDGET_MS = 2;
+
+    /**
+     * Interval at which world shards are ticked for due timers and leftover executions (one server tick)
+     */
+    public static final long SHARD_TICK_INTERVAL_MS = 50;
+
+    /**
+     * Node ID used by the built-in single-node trade directory
+     */
+    public static final String LOCAL_NODE_ID = "local";
+
+    /**
+     * Maximum pending trade requests a player can hold at once (default: 5)
+     */
+    public static final int MAX_PENDING_REQUESTS = 5;
+
+    /**
+     * Maximum pending trade requests across the server (default: 200, 0 = no limit)
+     */
+    public static final int MAX_TOTAL_PENDING_REQUESTS = 200;
+
+    /**
+     * Maximum active trade sessions across the server (default: 100, 0 = no limit)
+     */
+    public static final int MAX_ACTIVE_SESSIONS = 100;
+
+    /**
+     * Maximum confirmed trades waiting in a world's execution queue (default: 32, 0 = no limit)
+     */
+    public static final int MAX_EXECUTION_QUEUE = 32;
+
+    /**
+     * Maximum player names suggested when a typed name matches several players
+     */
+    public static final int NAME_SUGGESTION_LIMIT = 5;
+
+    /**
+     * Radius in blocks within which players count as nearby (default: 32 blocks)
+     */
+    public static final int NEARBY_RADIUS = 32;
+
+    /**
+     * Side length in blocks of a cell in the player position grid
+     */
+    public static final int NEARBY_CELL_SIZE = 16;
+
+    /**
+     * Maximum players listed by /trade nearby
+     */
+    public static final int NEARBY_LIST_LIMIT = 10;
+
+    /**
+     * Maximum distance in blocks between trade partners (default: 0 = no limit)
+     */
+    public static final int MAX_TRADE_DISTANCE = 0;
+
+    /**
+     * Number of server ticks between two checks of the trade partners' distance
+     */
+    public static final int DISTANCE_CHECK_INTERVAL_TICKS = 10;
+
+    /**
+     * How long partners may stay out of range before their trade is cancelled
+     */
+    public static final long DISTANCE_GRACE_MS = 10000;
+
+    /**
+     * Time a trade may stay negotiating without any offer edit or acceptance before it is
+     * cancelled (default: 5 minutes, 0 = never)
+     */
+    public static final int NEGOTIATION_TIMEOUT_MS = 300000;
+
+    /**
+     * Time a trade may wait for Confirm once both players accepted before it is cancelled
+     * (default: 60 seconds, 0 = never)
+     */
+    public static final int CONFIRM_TIMEOUT_MS = 60000;
+
+    /**
+     * Interval of the sweep that cancels idle trades
+     */
+    public static final long IDLE_SWEEP_INTERVAL_MS = 1000;
+
+    /**
+     * Delay before an idle trade whose cancellation didn't go through is checked again
+     */
+    public static final long IDLE_RETRY_MS = 5000;
+
+    /**
+     * First delay before an auto-executed trade refused by admission control is tried again,
+     * doubled on every refusal up to AUTO_EXECUTE_RETRY_MAX_MS
+     */
+    public static final long AUTO_EXECUTE_RETRY_MS = 500;
+
+    /**
+     * Longest delay between two tries of an auto-executed trade refused by admission control
+     */
+    public static final long AUTO_EXECUTE_RETRY_MAX_MS = 5000;
+
+    /**
+     * Interval of the check for trading pages that outlived their session
+     */
+    public static final long PAGE_LEAK_CHECK_INTERVAL_MS = 10000;
+
+    /**
+     * How long a trading page may stay open after its session ended before it counts as leaked
+     */
+    public static final long PAGE_LEAK_GRACE_MS = 30000;
+
+    /**
+     * Trade requests a player can send per minute (default: 6, 0 = no limit)
+     */
+    public static final int REQUEST_RATE_LIMIT = 6;
+
+    /**
+     * Offer edits (item moves) a player can make per second (default: 10, 0 = no limit)
+     */
+    public static final int OFFER_EDIT_RATE_LIMIT = 10;
+
+    /**
+     * Accept toggles a player can make per second (default: 3, 0 = no limit)
+     */
+    public static final int ACCEPT_RATE_LIMIT = 3;
+
+    /**
+     * Minimum time between two "slow down" notices to the same player for the same action
+     */
+    public static final long RATE_LIMIT_NOTICE_INTERVAL_MS = 2000;
 
     /**
      * Default max stack size when we can't determine it
@@ -162,4 +310,10 @@ public final class TradeConstants {
      * Scheduler shutdown timeout in seconds
      */
     public static final int SCHEDULER_SHUTDOWN_TIMEOUT_SEC = 5;
+
+    /**
+     * Time the plugin may take to finish executing trades, cancel the rest and stop its threads
+     * on shutdown (default: 10 seconds)
+     */
+    public static final int SHUTDOWN_TIMEOUT_MS = 10000;
 }
@@ -69,6 +69,6 @@ public class InventoryChangeListener {
             }
         }
 
-        tradeManager.onPlayerInventoryChanged(playerRef);
+        tradeManager.onPlayerInventoryChanged(playerRef, player.getInventory());
     }
 }
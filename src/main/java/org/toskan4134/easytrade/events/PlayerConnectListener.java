@@ -0,0 +1,59 @@
+package org.toskan4134.easytrade.events;
+
+import com.hypixel.hytale.event.IEventRegistry;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import org.toskan4134.easytrade.trade.TradeManager;
+import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
+
+/**
+ * Listens for player connect events to publish players to the trade manager
+ * (trade directory of this node), and for player ready events to give back escrowed items
+ * left over from earlier trades.
+ */
+public class PlayerConnectListener {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final TradeManager tradeManager;
+
+    public PlayerConnectListener(TradeManager tradeManager) {
+        this.tradeManager = tradeManager;
+    }
+
+    /**
+     * Register this listener with the event registry.
+     */
+    public void register(IEventRegistry registry) {
+        registry.register(PlayerConnectEvent.class, this::onPlayerConnect);
+        // Using registerGlobal since PlayerReadyEvent has a String key type
+        registry.registerGlobal(PlayerReadyEvent.class, this::onPlayerReady);
+        Common.logDebug(LOGGER, "PlayerConnectListener registered");
+    }
+
+    /**
+     * Handle player connect - make the player known to the trade manager.
+     */
+    private void onPlayerConnect(PlayerConnectEvent event) {
+        PlayerRef player = event.getPlayerRef();
+        if (player != null) {
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Player connected: {}", player.getUsername());
+            tradeManager.onPlayerConnect(player);
+        }
+    }
+
+    /**
+     * Handle player ready (fully joined, inventory loaded) - return escrowed items still owed to them.
+     */
+    private void onPlayerReady(PlayerReadyEvent event) {
+        Player player = event.getPlayer();
+        PlayerRef playerRef = player != null ? player.getPlayerRef() : null;
+        if (playerRef != null) {
+            tradeManager.onPlayerReady(playerRef);
+        }
+    }
+}
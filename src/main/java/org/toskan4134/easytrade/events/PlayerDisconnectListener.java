@@ -6,6 +6,7 @@ import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
 
 /**
  * Listens for player disconnect events to properly cancel trades
@@ -35,7 +36,7 @@ public class PlayerDisconnectListener {
     private void onPlayerDisconnect(PlayerDisconnectEvent event) {
         PlayerRef player = event.getPlayerRef();
         if (player != null) {
-            Common.logDebug(LOGGER, "Player disconnected, checking for active trades");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Player disconnected, checking for active trades");
             tradeManager.onPlayerDisconnect(player);
         }
     }
@@ -1,18 +1,38 @@
 package org.toskan4134.easytrade.messages;
 
 import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 import org.toskan4134.easytrade.config.ConfigManager;
-import org.toskan4134.easytrade.util.MessageFormatter;
+import org.toskan4134.easytrade.util.MessageTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Trade message helper class.
- * Uses ConfigManager to load messages from messages.json and MessageFormatter to convert color codes.
+ * Uses ConfigManager to load messages from messages.json, compiled once into MessageTemplates
+ * (color codes and placeholder slots resolved up front) and cached with the current message catalog.
  *
  * All messages support color codes (&a, &c, &#FF0000, etc.) and placeholders ({player}, {target}, etc.)
+ *
+ * Messages are built in the language of the player who receives them: use {@link #forPlayer(PlayerRef)}
+ * for the recipient, or {@link #defaults()} when there is no single recipient (e.g. trade results).
  */
 public class TradeMessages {
 
     private static ConfigManager configManager;
+    private static final TradeMessages DEFAULT = new TradeMessages(null);
+    // Client language tag -> messages in that language
+    private static final Map<String, TradeMessages> languages = new ConcurrentHashMap<>();
+
+    // Client language tag, or null for the default messages
+    private final String language;
+
+    private TradeMessages(String language) {
+        this.language = language;
+    }
 
     /**
      * Initialize the message system with a config manager.
@@ -22,503 +42,671 @@ public class TradeMessages {
         configManager = manager;
     }
 
+    /**
+     * Get the messages in a player's client language.
+     */
+    public static TradeMessages forPlayer(PlayerRef player) {
+        String language = player != null ? player.getLanguage() : null;
+        if (language == null || language.isEmpty()) {
+            return DEFAULT;
+        }
+        return languages.computeIfAbsent(language, TradeMessages::new);
+    }
+
+    /**
+     * Get the messages in the language of a command's sender (default messages for the console).
+     */
+    public static TradeMessages forSender(CommandContext ctx) {
+        if (!ctx.isPlayer()) {
+            return DEFAULT;
+        }
+        return forPlayer(Universe.get().getPlayer(ctx.sender().getUuid()));
+    }
+
+    /**
+     * Get the default messages (messages.json).
+     */
+    public static TradeMessages defaults() {
+        return DEFAULT;
+    }
+
     // ===== Request Messages =====
 
-    public static Message requestSent(String target) {
+    public Message requestSent(String target) {
         return format("trade.request.sent", "target", target);
     }
 
-    public static Message requestReceived(String initiator) {
+    public Message requestReceived(String initiator) {
         return format("trade.request.received", "initiator", initiator);
     }
 
-    public static Message requestAccepted() {
+    public Message requestAccepted() {
         return format("trade.request.accepted");
     }
 
-    public static Message requestDeclined() {
+    public Message requestDeclined() {
         return format("trade.request.declined");
     }
 
-    public static Message alreadyInTrade() {
+    public Message alreadyInTrade() {
         return format("trade.request.alreadyInTrade");
     }
 
-    public static Message targetAlreadyInTrade() {
+    public Message targetAlreadyInTrade() {
         return format("trade.request.targetAlreadyInTrade");
     }
 
-    public static Message alreadyPending() {
+    public Message alreadyPending() {
         return format("trade.request.alreadyPending");
     }
 
-    public static Message noPendingRequest() {
+    public Message noPendingRequest() {
         return format("trade.request.noPending");
     }
 
-    public static Message requestExpired() {
+    public Message noPendingRequestFrom(String player) {
+        return format("trade.request.noPendingFrom", "player", player);
+    }
+
+    public Message inboxFull(String target) {
+        return format("trade.request.inboxFull", "target", target);
+    }
+
+    public Message chooseRequest(int count) {
+        return format("trade.request.choose", "count", String.valueOf(count));
+    }
+
+    public Message requestExpired() {
         return format("trade.request.expired");
     }
 
-    public static Message targetNotFound() {
+    public Message targetNotFound() {
         return format("trade.request.targetNotFound");
     }
 
-    public static Message cannotTradeSelf() {
+    public Message targetAmbiguous(String name, String matches) {
+        return format("trade.request.targetAmbiguous", "name", name, "matches", matches);
+    }
+
+    public Message targetOnOtherNode(String name) {
+        return format("trade.request.targetOnOtherNode", "name", name);
+    }
+
+    // ===== ZONE MESSAGES =====
+
+    public Message zoneDenied(String zone) {
+        return format("trade.zone.denied", "zone", zone);
+    }
+
+    public Message zoneSameZoneRequired(String zone) {
+        return format("trade.zone.sameZone", "zone", zone);
+    }
+
+    // ===== DISTANCE MESSAGES =====
+
+    public Message tooFarFromPartner(String player, int distance) {
+        return format("trade.distance.tooFar", "player", player, "distance", String.valueOf(distance));
+    }
+
+    public Message tooFarCancelled() {
+        return format("trade.distance.cancelled");
+    }
+
+    // ===== NEARBY MESSAGES =====
+
+    public Message nearbyHeader(int radius) {
+        return format("trade.nearby.header", "radius", String.valueOf(radius));
+    }
+
+    public Message nearbyEntry(String player, long distance) {
+        return format("trade.nearby.entry", "player", player, "distance", String.valueOf(distance));
+    }
+
+    public Message nearbyNone(int radius) {
+        return format("trade.nearby.none", "radius", String.valueOf(radius));
+    }
+
+    public Message nearbyHint() {
+        return format("trade.nearby.hint");
+    }
+
+    public Message cannotTradeSelf() {
         return format("trade.request.cannotTradeSelf");
     }
 
     // ===== Cancel Messages =====
 
-    public static Message cancelledByYou() {
+    public Message cancelledByYou() {
         return format("trade.cancelled.byYou");
     }
 
-    public static Message cancelledByPartner() {
+    public Message cancelledByPartner() {
         return format("trade.cancelled.byPartner");
     }
 
-    public static Message notInTrade() {
+    public Message notInTrade() {
         return format("trade.cancelled.notInTrade");
     }
 
-    public static Message tradeCancelled() {
+    public Message tradeCancelled() {
         return format("trade.cancelled.tradeCancelled");
     }
 
-    public static Message cancelFailed() {
+    public Message cancelFailed() {
         return format("trade.cancel.failed");
     }
 
     // ===== Status Messages =====
 
-    public static Message statusNegotiating() {
+    public Message statusNegotiating() {
         return format("trade.status.negotiating");
     }
 
-    public static Message statusOneAccepted() {
+    public Message statusOneAccepted() {
         return format("trade.status.oneAccepted");
     }
 
-    public static Message statusCountdown(long seconds) {
+    public Message statusCountdown(long seconds) {
         return format("trade.status.countdown", "seconds", String.valueOf(seconds));
     }
 
-    public static Message statusCompleted() {
+    public Message statusCompleted() {
         return format("trade.status.completed");
     }
 
-    public static Message statusFailed(String reason) {
+    public Message statusFailed(String reason) {
         return format("trade.status.failed", "reason", reason);
     }
 
-    public static Message statusCancelled() {
+    public Message statusCancelled() {
         return format("trade.status.cancelled");
     }
 
     // ===== Pending Request =====
 
-    public static Message pendingRequest() {
+    public Message pendingRequest() {
         return format("trade.pending.request");
     }
 
-    public static Message pendingInstructions() {
+    public Message pendingInstructions() {
         return format("trade.pending.instructions");
     }
 
-    public static Message notInTradeUseRequest() {
+    public Message notInTradeUseRequest() {
         return format("trade.pending.useRequest");
     }
 
     // ===== Help Messages =====
 
-    public static Message helpHeader(String version) {
+    public Message helpHeader(String version) {
         return format("trade.help.header", "version", version);
     }
 
-    public static Message helpBasic() {
+    public Message helpBasic() {
         return format("trade.help.basic");
     }
 
-    public static Message helpRequest() {
+    public Message helpRequest() {
         return format("trade.help.request");
     }
 
-    public static Message helpAccept() {
+    public Message helpNearby() {
+        return format("trade.help.nearby");
+    }
+
+    public Message helpAccept() {
         return format("trade.help.accept");
     }
 
-    public static Message helpDecline() {
+    public Message helpDecline() {
         return format("trade.help.decline");
     }
 
-    public static Message helpCancel() {
+    public Message helpCancel() {
         return format("trade.help.cancel");
     }
 
-    public static Message helpConfirm() {
+    public Message helpConfirm() {
         return format("trade.help.confirm");
     }
 
-    public static Message helpOpen() {
+    public Message helpOpen() {
         return format("trade.help.open");
     }
 
-    public static Message helpReload() {
+    public Message helpReload() {
         return format("trade.help.reload");
     }
 
-    public static Message helpTest() {
+    public Message helpTest() {
         return format("trade.help.test");
     }
 
-    public static Message helpHelpCmd() {
+    public Message helpAdmin() {
+        return format("trade.help.admin");
+    }
+
+    public Message helpHelpCmd() {
         return format("trade.help.helpCmd");
     }
 
-    public static Message helpHowTo() {
+    public Message helpHowTo() {
         return format("trade.help.howTo");
     }
 
-    public static Message helpStep1() {
+    public Message helpStep1() {
         return format("trade.help.step1");
     }
 
-    public static Message helpStep2() {
+    public Message helpStep2() {
         return format("trade.help.step2");
     }
 
-    public static Message helpStep3() {
+    public Message helpStep3() {
         return format("trade.help.step3");
     }
 
-    public static Message helpStep4() {
+    public Message helpStep4() {
         return format("trade.help.step4");
     }
 
-    public static Message helpStep5() {
+    public Message helpStep5() {
         return format("trade.help.step5");
     }
 
     // ===== Accept/Decline =====
 
-    public static Message acceptedTrade() {
+    public Message acceptedTrade() {
         return format("trade.accepted.trade");
     }
 
-    public static Message declinedTrade() {
+    public Message declinedTrade() {
         return format("trade.declined.trade");
     }
 
-    public static Message declinedRequest() {
+    public Message declinedRequest() {
         return format("trade.declined.request");
     }
 
     // ===== Errors =====
 
-    public static Message errorNoActiveSession() {
+    public Message errorNoActiveSession() {
         return format("trade.error.noActiveSession");
     }
 
-    public static Message errorNotReady() {
+    public Message errorNotReady() {
         return format("trade.error.notReady");
     }
 
-    public static Message errorCountdownNotComplete() {
+    public Message errorCountdownNotComplete() {
         return format("trade.error.countdownNotComplete");
     }
 
-    public static Message errorPlayerUnavailable() {
+    public Message errorPlayerUnavailable() {
         return format("trade.error.playerUnavailable");
     }
 
-    public static Message errorItemsNotFound() {
+    public Message errorItemsNotFound() {
         return format("trade.error.itemsNotFound");
     }
 
-    public static Message errorPartnerItemsNotFound(String player) {
+    public Message errorPartnerItemsNotFound(String player) {
         return format("trade.error.partnerItemsNotFound", "player", player);
     }
 
-    public static Message errorNoSpace() {
+    public Message errorNoSpace() {
         return format("trade.error.noSpace");
     }
 
-    public static Message errorPartnerNoSpace(String player) {
+    public Message errorPartnerNoSpace(String player) {
         return format("trade.error.partnerNoSpace", "player", player);
     }
 
-    public static Message errorWithdrawFailed() {
+    public Message errorWithdrawFailed() {
         return format("trade.error.withdrawFailed");
     }
 
-    public static Message errorPartnerWithdrawFailed(String player) {
+    public Message errorPartnerWithdrawFailed(String player) {
         return format("trade.error.partnerWithdrawFailed", "player", player);
     }
 
-    public static Message errorDepositFailed() {
+    public Message errorDepositFailed() {
         return format("trade.error.depositFailed");
     }
 
-    public static Message errorPartnerDepositFailed(String player) {
+    public Message errorPartnerDepositFailed(String player) {
         return format("trade.error.partnerDepositFailed", "player", player);
     }
 
-    public static Message errorSystemError(String reason) {
+    public Message errorSystemError(String reason) {
         return format("trade.error.systemError", "reason", reason);
     }
 
-    public static Message errorAcceptFirst() {
+    public Message errorAcceptFirst() {
         return format("trade.error.acceptFirst");
     }
 
+    public Message errorRateLimited() {
+        return format("trade.error.rateLimited");
+    }
+
     // ===== Disconnect =====
 
-    public static Message disconnectCancelled() {
+    public Message disconnectCancelled() {
         return format("trade.disconnect.cancelled");
     }
 
-    public static Message disconnectRequestCancelled() {
+    public Message disconnectRequestCancelled() {
         return format("trade.disconnect.requestCancelled");
     }
 
+    public Message idleCancelled() {
+        return format("trade.idle.cancelled");
+    }
+
+    public Message shutdownCancelled() {
+        return format("trade.shutdown.cancelled");
+    }
+
+    public Message escrowReturnPending() {
+        return format("trade.escrow.returnPending");
+    }
+
+    public Message escrowHeld() {
+        return format("trade.escrow.held");
+    }
+
+    public Message escrowReturned(int count) {
+        return format("trade.escrow.returned", "count", String.valueOf(count));
+    }
+
     // ===== Test Mode =====
 
-    public static Message testStarted() {
+    public Message testStarted() {
         return format("trade.test.started");
     }
 
-    public static Message testNotAvailable() {
+    public Message testNotAvailable() {
         return format("trade.test.notAvailable");
     }
 
-    public static Message testHeader() {
+    public Message testHeader() {
         return format("trade.test.header");
     }
 
-    public static Message testDescription() {
+    public Message testDescription() {
         return format("trade.test.description");
     }
 
-    public static Message testCommands() {
+    public Message testCommands() {
         return format("trade.test.commands");
     }
 
-    public static Message testAccept() {
+    public Message testAccept() {
         return format("trade.test.accept");
     }
 
-    public static Message testConfirm() {
+    public Message testConfirm() {
         return format("trade.test.confirm");
     }
 
-    public static Message testCancel() {
+    public Message testCancel() {
         return format("trade.test.cancel");
     }
 
-    public static Message testAutoAccept() {
+    public Message testAutoAccept() {
         return format("trade.test.autoAccept");
     }
 
-    public static Message testFailed() {
+    public Message testFailed() {
         return format("trade.test.failed");
     }
 
     // ===== Reload =====
 
-    public static Message reloadSuccess() {
+    public Message reloadSuccess() {
         return format("trade.reload.success");
     }
 
-    public static Message reloadFailed(String reason) {
+    public Message reloadFailed(String reason) {
         return format("trade.reload.failed", "{reason}", reason);
     }
 
+    // ===== Admission =====
+
+    public Message admissionPaused() {
+        return format("trade.admission.paused");
+    }
+
+    public Message admissionShuttingDown() {
+        return format("trade.admission.shuttingDown");
+    }
+
+    public Message admissionTooManyRequests() {
+        return format("trade.admission.tooManyRequests");
+    }
+
+    public Message admissionTooManySessions() {
+        return format("trade.admission.tooManySessions");
+    }
+
+    public Message admissionQueueFull() {
+        return format("trade.admission.queueFull");
+    }
+
+    public Message admissionAutoExecuteDelayed() {
+        return format("trade.admission.autoExecuteDelayed");
+    }
+
+    public Message adminPaused() {
+        return format("trade.admin.paused");
+    }
+
+    public Message adminAlreadyPaused() {
+        return format("trade.admin.alreadyPaused");
+    }
+
+    public Message adminResumed() {
+        return format("trade.admin.resumed");
+    }
+
+    public Message adminNotPaused() {
+        return format("trade.admin.notPaused");
+    }
+
     // ===== UI =====
 
-    public static Message uiOpened() {
+    public Message uiOpened() {
         return format("trade.ui.opened");
     }
 
-    public static Message uiOpenFailed() {
+    public Message uiOpenFailed() {
         return format("trade.ui.openFailed");
     }
 
-    public static Message confirmSuccess() {
+    public Message confirmSuccess() {
         return format("trade.confirm.success");
     }
 
-    public static Message confirmTooEarly() {
+    public Message confirmTooEarly() {
         return format("trade.confirm.tooEarly");
     }
 
-    public static Message confirmFailed() {
+    public Message confirmFailed() {
         return format("trade.confirm.failed");
     }
 
     // ===== UI Status (plain text for UI elements) =====
 
-    public static String uiClickInstructions() {
+    public String uiClickInstructions() {
         return getText("ui.status.clickInstructions");
     }
 
-    public static String uiWaitingForPartner() {
+    public String uiWaitingForPartner() {
         return getText("ui.status.waitingForPartner");
     }
 
-    public static String uiPartnerAccepted() {
+    public String uiPartnerAccepted() {
         return getText("ui.status.partnerAccepted");
     }
 
-    public static String uiBothAccepted() {
+    public String uiBothAccepted() {
         return getText("ui.status.bothAccepted");
     }
 
-    public static String uiCountdownReady() {
+    public String uiCountdownReady() {
         return getText("ui.status.countdownReady");
     }
 
-    public static String uiModifiedInventory(String player) {
+    public String uiModifiedInventory(String player) {
         return getText("ui.status.modifiedInventory", "player", player);
     }
 
-    public static String uiPartnerModified() {
+    public String uiPartnerModified() {
         return getText("ui.status.partnerModified");
     }
 
-    public static String uiAcceptRevoked() {
+    public String uiAcceptRevoked() {
         return getText("ui.status.acceptRevoked");
     }
 
-    public static String uiAcceptRevokedManual() {
+    public String uiAcceptRevokedManual() {
         return getText("ui.status.acceptRevokedManual");
     }
 
-    public static String uiPartnerAcceptRevoked() {
+    public String uiPartnerAcceptRevoked() {
         return getText("ui.status.partnerAcceptRevoked");
     }
 
-    public static String uiNoItemsAvailable() {
+    public String uiNoItemsAvailable() {
         return getText("ui.status.noItemsAvailable");
     }
 
-    public static String uiItemNotFound() {
+    public String uiItemNotFound() {
         return getText("ui.status.itemNotFound");
     }
 
-    public static String uiFailedToAdd() {
+    public String uiFailedToAdd() {
         return getText("ui.status.failedToAdd");
     }
 
-    public static String uiNotEnoughSpace() {
+    public String uiNotEnoughSpace() {
         return getText("ui.status.notEnoughSpace");
     }
 
-    public static String uiWaitMoreSeconds(long seconds) {
+    public String uiWaitMoreSeconds(long seconds) {
         return getText("ui.status.waitMoreSeconds", "seconds", String.valueOf(seconds));
     }
 
-    public static String uiTradeCompleted() {
+    public String uiTradeCompleted() {
         return getText("ui.status.tradeCompleted");
     }
 
-    public static String uiCancelledByPartner() {
+    public String uiCancelledByPartner() {
         return getText("ui.status.cancelledByPartner");
     }
 
-    public static String uiFailedValidation() {
+    public String uiFailedValidation() {
         return getText("ui.status.failedValidation");
     }
 
-    public static String uiCannotAcceptState() {
+    public String uiCannotAcceptState() {
         return getText("ui.status.cannotAcceptState");
     }
 
-    public static String uiNoActiveSession() {
+    public String uiTooFarFromPartner(int distance) {
+        return getText("ui.status.tooFarFromPartner", "distance", String.valueOf(distance));
+    }
+
+    public String uiRateLimited() {
+        return getText("ui.status.rateLimited");
+    }
+
+    public String uiNoActiveSession() {
         return getText("ui.status.noActiveSession");
     }
 
     // ===== UI Item Actions =====
 
-    public static String actionAddedToOffer(int amount) {
+    public String actionAddedToOffer(int amount) {
         return getText("ui.action.addedToOffer", "amount", String.valueOf(amount));
     }
 
-    public static String actionReturnedFromOffer(int amount) {
+    public String actionReturnedFromOffer(int amount) {
         return getText("ui.action.returnedFromOffer", "amount", String.valueOf(amount));
     }
 
-    public static String actionRemovedFromOffer(String item) {
+    public String actionRemovedFromOffer(String item) {
         return getText("ui.action.removedFromOffer", "item", item);
     }
 
-    public static String actionReducedInOffer(String item, int amount) {
+    public String actionReducedInOffer(String item, int amount) {
         return getText("ui.action.reducedInOffer", "item", item, "amount", String.valueOf(amount));
     }
 
     // ===== UI Element Text =====
 
-    public static String uiTitleTrade() {
+    public String uiTitleTrade() {
         return getText("ui.title.trade");
     }
 
-    public static String uiLabelYourOffer() {
+    public String uiLabelYourOffer() {
         return getText("ui.label.yourOffer");
     }
 
-    public static String uiLabelPartnerOffer() {
+    public String uiLabelPartnerOffer() {
         return getText("ui.label.partnerOffer");
     }
 
-    public static String uiLabelYourInventory() {
+    public String uiLabelYourInventory() {
         return getText("ui.label.yourInventory");
     }
 
-    public static String uiLabelYourStatus() {
+    public String uiLabelYourStatus() {
         return getText("ui.label.yourStatus");
     }
 
-    public static String uiLabelPartnerStatus() {
+    public String uiLabelPartnerStatus() {
         return getText("ui.label.partnerStatus");
     }
 
-    public static String uiLabelTradingWith() {
+    public String uiLabelTradingWith() {
         return getText("ui.label.tradingWith");
     }
 
-    public static String uiLabelTestPartner() {
+    public String uiLabelTestPartner() {
         return getText("ui.label.testPartner");
     }
 
-    public static String uiLabelUnknown() {
+    public String uiLabelUnknown() {
         return getText("ui.label.unknown");
     }
 
-    public static String uiButtonAccept() {
+    public String uiButtonAccept() {
         return getText("ui.button.accept");
     }
 
-    public static String uiButtonConfirm() {
+    public String uiButtonConfirm() {
         return getText("ui.button.confirm");
     }
 
-    public static String uiButtonCancel() {
+    public String uiButtonCancel() {
         return getText("ui.button.cancel");
     }
 
-    public static String uiStatusAccepted() {
+    public String uiStatusAccepted() {
         return getText("ui.status.accepted");
     }
 
-    public static String uiStatusNotAccepted() {
+    public String uiStatusNotAccepted() {
         return getText("ui.status.notAccepted");
     }
 
-    public static String uiStatusAcceptedWaiting() {
+    public String uiStatusAcceptedWaiting() {
         return getText("ui.status.acceptedWaiting");
     }
 
-    public static String uiStatusReady() {
+    public String uiStatusReady() {
         return getText("ui.status.ready");
     }
 
@@ -527,21 +715,27 @@ public class TradeMessages {
     /**
      * Get formatted Message with color codes processed.
      */
-    private static Message format(String key, String... replacements) {
+    private Message format(String key, String... replacements) {
         if (configManager == null) {
             return Message.raw("&cTradeMessages not initialized!");
         }
-        String text = configManager.getMessage(key, replacements);
-        return MessageFormatter.format(text);
+        return getTemplate(key).format(replacements);
     }
 
     /**
      * Get plain text (for UI elements that don't support color codes).
      */
-    private static String getText(String key, String... replacements) {
+    private String getText(String key, String... replacements) {
         if (configManager == null) {
             return "TradeMessages not initialized!";
         }
-        return MessageFormatter.stripColors(configManager.getMessage(key, replacements));
+        return getTemplate(key).formatPlain(replacements);
+    }
+
+    /**
+     * Get the compiled template of a message from the current catalog of this language.
+     */
+    private MessageTemplate getTemplate(String key) {
+        return configManager.getMessageTemplate(language, key);
     }
 }
@@ -0,0 +1,346 @@
+package org.toskan4134.easytrade.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ledger of items held in escrow, stored in escrow.json in the plugin's data folder:
+ *
+ * <pre>
+ * {
+ *   "Escrow": [
+ *     { "Session": "...", "Side": "Initiator", "Owner": "...", "OwnerName": "Steve", "Held": false,
+ *       "Items": [ { "Id": "Rock_Stone", "Quantity": 64 } ] }
+ *   ]
+ * }
+ * </pre>
+ *
+ * Every change to a session's escrow is recorded here, so items taken out of an inventory are never
+ * only in memory: what a session could not give back when it ended (inventory full, owner offline)
+ * and whatever was escrowed when the server stopped is returned to its owner on their next join.
+ * Held entries are kept back for an admin after a cross-world trade could not be undone, and are
+ * never returned automatically; setting Held to false while the server is stopped releases them.
+ * Saves are coalesced and written on a background thread to a temporary file that is then renamed
+ * over escrow.json.
+ */
+public class EscrowStorage {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    private static final String FILE_NAME = "escrow.json";
+
+    private final File dataFolder;
+    // "session/side" -> escrow of that side
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    // Background writer; a save requested while one is pending is merged into it
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "EasyTrade-EscrowWriter");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    // Version of the ledger last written to disk (only touched by the writer thread)
+    private long writtenVersion;
+
+    public EscrowStorage(File dataFolder) {
+        this.dataFolder = dataFolder;
+    }
+
+    /**
+     * Load the ledger from escrow.json. Entries left by a previous run belong to sessions that no
+     * longer exist, so they are all returned to their owners (held entries excepted).
+     */
+    public void load() {
+        File file = new File(dataFolder, FILE_NAME);
+        if (!file.exists()) {
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            JsonElement element = gson.fromJson(reader, JsonElement.class);
+            JsonElement list = element != null && element.isJsonObject() ? element.getAsJsonObject().get("Escrow") : null;
+            if (list != null && list.isJsonArray()) {
+                for (JsonElement entryElement : list.getAsJsonArray()) {
+                    Entry entry = parseEntry(entryElement);
+                    if (entry != null) {
+                        entries.put(key(entry.sessionId, entry.initiatorSide), entry);
+                    }
+                }
+            }
+            writtenVersion = version.get();
+            if (!entries.isEmpty()) {
+                LOGGER.atInfo().log("Loaded " + entries.size() + " escrow entries waiting to be returned from escrow.json");
+            }
+            for (Entry held : getHeld()) {
+                LOGGER.atWarning().log("Escrow held for admin recovery in escrow.json: " + held);
+            }
+        } catch (Exception e) {
+            LOGGER.atSevere().log("Failed to load escrow.json, escrowed items are not returned: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record the items a session side holds in escrow, replacing what was recorded before.
+     * Null or empty items remove the entry. A held entry stays held.
+     */
+    public void record(UUID sessionId, boolean initiatorSide, UUID owner, String ownerName, List<ItemStack> items) {
+        String key = key(sessionId, initiatorSide);
+        if (items == null || items.isEmpty()) {
+            if (entries.remove(key) == null) {
+                return;
+            }
+        } else {
+            entries.compute(key, (k, current) -> new Entry(sessionId, initiatorSide, owner, ownerName,
+                current != null && current.held, items));
+        }
+        changed();
+    }
+
+    /**
+     * Keep a side's escrow back for an admin instead of returning it to its owner.
+     * @return false if the side has nothing recorded
+     */
+    public boolean hold(UUID sessionId, boolean initiatorSide) {
+        Entry held = entries.computeIfPresent(key(sessionId, initiatorSide), (k, current) ->
+            new Entry(current.sessionId, current.initiatorSide, current.owner, current.ownerName, true, current.items));
+        if (held == null) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Check if a session side has escrow recorded.
+     */
+    public boolean contains(UUID sessionId, boolean initiatorSide) {
+        return entries.containsKey(key(sessionId, initiatorSide));
+    }
+
+    /**
+     * Get the entries waiting to be returned to a player (held entries excluded).
+     */
+    public List<Entry> getReturns(UUID owner) {
+        List<Entry> returns = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.held && entry.owner.equals(owner)) {
+                returns.add(entry);
+            }
+        }
+        return returns;
+    }
+
+    /**
+     * Get the entries held back for an admin.
+     */
+    public List<Entry> getHeld() {
+        List<Entry> held = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.held) {
+                held.add(entry);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Save the ledger to escrow.json in the background.
+     * Several saves requested before the writer runs result in a single write of the latest ledger.
+     */
+    public void save() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writeLatest);
+            } catch (RejectedExecutionException e) {
+                writeScheduled.set(false);
+                LOGGER.atSevere().log("Escrow writer is closed, escrow.json not saved");
+            }
+        }
+    }
+
+    /**
+     * Write any pending change and stop the writer (up to a few seconds).
+     */
+    public void close() {
+        save();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.atSevere().log("Timed out writing escrow.json on shutdown");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== HELPER METHODS =====
+
+    private static String key(UUID sessionId, boolean initiatorSide) {
+        return sessionId + (initiatorSide ? "/initiator" : "/target");
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+        save();
+    }
+
+    /**
+     * Write the latest ledger to a temporary file and rename it over escrow.json.
+     * Runs on the writer thread.
+     */
+    private void writeLatest() {
+        writeScheduled.set(false);
+        long snapshotVersion = version.get();
+        if (snapshotVersion == writtenVersion) {
+            return;
+        }
+
+        JsonArray list = new JsonArray();
+        for (Entry entry : entries.values()) {
+            list.add(toJson(entry));
+        }
+        JsonObject root = new JsonObject();
+        root.add("Escrow", list);
+
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        File file = new File(dataFolder, FILE_NAME);
+        File temp = new File(dataFolder, FILE_NAME + ".tmp");
+        try {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                gson.toJson(root, out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            writtenVersion = snapshotVersion;
+        } catch (Exception e) {
+            LOGGER.atSevere().log("Failed to save escrow.json: " + e.getMessage());
+        }
+    }
+
+    private static JsonObject toJson(Entry entry) {
+        JsonObject object = new JsonObject();
+        object.addProperty("Session", entry.sessionId.toString());
+        object.addProperty("Side", entry.initiatorSide ? "Initiator" : "Target");
+        object.addProperty("Owner", entry.owner.toString());
+        object.addProperty("OwnerName", entry.ownerName);
+        object.addProperty("Held", entry.held);
+        JsonArray items = new JsonArray();
+        for (ItemStack item : entry.items) {
+            JsonObject itemObject = new JsonObject();
+            itemObject.addProperty("Id", item.getItem().getId());
+            itemObject.addProperty("Quantity", item.getQuantity());
+            items.add(itemObject);
+        }
+        object.add("Items", items);
+        return object;
+    }
+
+    private static Entry parseEntry(JsonElement element) {
+        try {
+            JsonObject object = element.getAsJsonObject();
+            UUID sessionId = UUID.fromString(object.get("Session").getAsString());
+            boolean initiatorSide = !"Target".equals(object.get("Side").getAsString());
+            UUID owner = UUID.fromString(object.get("Owner").getAsString());
+            String ownerName = object.has("OwnerName") ? object.get("OwnerName").getAsString() : owner.toString();
+            boolean held = object.has("Held") && object.get("Held").getAsBoolean();
+            List<ItemStack> items = new ArrayList<>();
+            for (JsonElement itemElement : object.get("Items").getAsJsonArray()) {
+                JsonObject itemObject = itemElement.getAsJsonObject();
+                items.add(new ItemStack(itemObject.get("Id").getAsString(), itemObject.get("Quantity").getAsInt()));
+            }
+            return items.isEmpty() ? null : new Entry(sessionId, initiatorSide, owner, ownerName, held, items);
+        } catch (Exception e) {
+            LOGGER.atSevere().log("Skipping invalid escrow entry in escrow.json: " + element);
+            return null;
+        }
+    }
+
+    /**
+     * Items one side of a session holds in escrow.
+     */
+    public static final class Entry {
+        private final UUID sessionId;
+        private final boolean initiatorSide;
+        private final UUID owner;
+        private final String ownerName;
+        private final boolean held;
+        private final List<ItemStack> items;
+
+        private Entry(UUID sessionId, boolean initiatorSide, UUID owner, String ownerName, boolean held, List<ItemStack> items) {
+            this.sessionId = sessionId;
+            this.initiatorSide = initiatorSide;
+            this.owner = owner;
+            this.ownerName = ownerName;
+            this.held = held;
+            this.items = List.copyOf(items);
+        }
+
+        public UUID getSessionId() {
+            return sessionId;
+        }
+
+        public boolean isInitiatorSide() {
+            return initiatorSide;
+        }
+
+        public UUID getOwner() {
+            return owner;
+        }
+
+        public String getOwnerName() {
+            return ownerName;
+        }
+
+        public boolean isHeld() {
+            return held;
+        }
+
+        public List<ItemStack> getItems() {
+            return items;
+        }
+
+        @Override
+        public String toString() {
+            List<String> stacks = new ArrayList<>();
+            for (ItemStack item : items) {
+                stacks.add(item.getQuantity() + "x " + item.getItem().getId());
+            }
+            return ownerName + " (session " + sessionId + "): " + stacks;
+        }
+    }
+}
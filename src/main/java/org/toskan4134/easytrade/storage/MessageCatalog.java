@@ -0,0 +1,64 @@
+package org.toskan4134.easytrade.storage;
+
+import org.toskan4134.easytrade.util.MessageTemplate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, versioned snapshot of the plugin messages.
+ *
+ * A new catalog is published for every change, so readers always see one consistent set of
+ * messages. Compiled templates are cached per catalog and are dropped with it on reload.
+ */
+public final class MessageCatalog {
+
+    static final MessageCatalog EMPTY = new MessageCatalog(Collections.emptyMap(), 0);
+
+    private final Map<String, String> messages;
+    private final long version;
+    // Message key -> compiled template, filled on first use
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    MessageCatalog(Map<String, String> messages, long version) {
+        this.messages = Collections.unmodifiableMap(new HashMap<>(messages));
+        this.version = version;
+    }
+
+    /**
+     * Get a copy of this catalog with changed messages and the next version.
+     */
+    MessageCatalog with(Map<String, String> changes) {
+        Map<String, String> merged = new HashMap<>(messages);
+        merged.putAll(changes);
+        return new MessageCatalog(merged, version + 1);
+    }
+
+    public Map<String, String> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Version of this catalog; increases with every published change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get a message by key, or a "missing message" text if not found.
+     */
+    public String getMessage(String key) {
+        String message = messages.get(key);
+        return message != null ? message : "&cMissing message: " + key;
+    }
+
+    /**
+     * Get the compiled template of a message, compiling it on first use.
+     */
+    public MessageTemplate getTemplate(String key) {
+        return templates.computeIfAbsent(key, k -> MessageTemplate.compile(getMessage(k)));
+    }
+}
@@ -6,16 +6,37 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.hypixel.hytale.logger.HytaleLogger;
+import org.toskan4134.easytrade.util.FileWatcher;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Storage for plugin messages.
  * Messages are stored in messages.json in the plugin's data folder.
+ *
+ * Messages are held in an immutable {@link MessageCatalog} published through an atomic reference:
+ * loads and edits build a new catalog and swap it in, so readers never block or see a half-loaded
+ * set. Saves are coalesced and written on a background thread to a temporary file that is then
+ * renamed over messages.json. A file watcher can reload the file when it is edited on disk.
+ *
+ * Translations live next to it in messages_&lt;LANGUAGE&gt;.json files (e.g. messages_ES.json). A
+ * language is only read the first time a player with that client language needs a message; its
+ * catalog is the base messages overlaid with the translation, so lookups never fall back at runtime.
  */
 public class MessagesStorage {
 
@@ -25,33 +46,56 @@ public class MessagesStorage {
             .disableHtmlEscaping()  // Keep & as & instead of \\u0026
             .create();
 
+    private static final String FILE_NAME = "messages.json";
+    private static final String LANGUAGE_FILE_PREFIX = "messages_";
+
     private final File dataFolder;
-    private final Object fileLock = new Object();
-    private Map<String, String> messages = new HashMap<>();
+    private final AtomicReference<MessageCatalog> catalog = new AtomicReference<>(MessageCatalog.EMPTY);
+    // Client language tag -> catalog for that language, loaded on first use
+    private final Map<String, MessageCatalog> languageCatalogs = new ConcurrentHashMap<>();
+
+    // Background writer; a save requested while one is pending is merged into it
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "EasyTrade-MessagesWriter");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    // Version of the catalog last written to disk (only touched by the writer thread)
+    private long writtenVersion = -1;
+    // Contents of messages.json as last read or written by this storage, null if unknown
+    private volatile Map<String, String> diskMessages;
+
+    private FileWatcher watcher;
 
     public MessagesStorage(File dataFolder) {
         this.dataFolder = dataFolder;
     }
 
     /**
-     * Load messages from messages.json.
+     * Load messages from messages.json and publish them if they changed.
+     * A file whose contents are the ones last read or written here is not published again, so the
+     * reload triggered by our own write can't replace edits made in memory since that write.
      * Returns true if file exists and was loaded successfully.
      */
     public boolean load() {
-        File file = new File(dataFolder, "messages.json");
+        File file = new File(dataFolder, FILE_NAME);
         if (!file.exists()) {
             return false;
         }
 
-        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
-            JsonElement element = gson.fromJson(reader, JsonElement.class);
-            Map<String, String> loaded = new HashMap<>();
-            if (element != null) {
-                flattenJson("", element, loaded);
-            }
+        try {
+            Map<String, String> loaded = readMessages(file);
             if (!loaded.isEmpty()) {
-                messages = loaded;
-                LOGGER.atInfo().log("Loaded " + messages.size() + " messages from messages.json");
+                if (loaded.equals(diskMessages)) {
+                    return true;
+                }
+                diskMessages = loaded;
+                MessageCatalog current = catalog.get();
+                if (!loaded.equals(current.getMessages())) {
+                    publish(loaded);
+                    LOGGER.atInfo().log("Loaded " + loaded.size() + " messages from messages.json");
+                }
                 return true;
             }
         } catch (Exception e) {
@@ -61,26 +105,17 @@ public class MessagesStorage {
     }
 
     /**
-     * Save messages to messages.json.
+     * Save messages to messages.json in the background.
      * Messages are saved as a flat key-value map sorted alphabetically.
+     * Several saves requested before the writer runs result in a single write of the latest catalog.
      */
     public void save() {
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
-        }
-
-        File file = new File(dataFolder, "messages.json");
-        synchronized (fileLock) {
-            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-                // Save as flat map sorted by key
-                Map<String, String> sorted = new LinkedHashMap<>();
-                messages.entrySet().stream()
-                        .sorted(Map.Entry.comparingByKey())
-                        .forEach(e -> sorted.put(e.getKey(), e.getValue()));
-                gson.toJson(sorted, writer);
-                LOGGER.atInfo().log("Saved " + messages.size() + " messages to messages.json");
-            } catch (Exception e) {
-                LOGGER.atWarning().log("Failed to save messages.json: " + e.getMessage());
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::writeLatest);
+            } catch (RejectedExecutionException e) {
+                writeScheduled.set(false);
+                LOGGER.atWarning().log("Messages writer is closed, messages.json not saved");
             }
         }
     }
@@ -89,14 +124,46 @@ public class MessagesStorage {
      * Set all messages (used during initialization).
      */
     public void setMessages(Map<String, String> messages) {
-        this.messages = new HashMap<>(messages);
+        publish(messages);
+    }
+
+    /**
+     * Get the current message catalog.
+     */
+    public MessageCatalog getCatalog() {
+        return catalog.get();
+    }
+
+    /**
+     * Get the message catalog for a client language (e.g. "es-ES"), loading its translation on first use.
+     * Languages without a translation file use the base catalog.
+     */
+    public MessageCatalog getCatalog(String language) {
+        MessageCatalog base = catalog.get();
+        if (language == null || language.isEmpty()) {
+            return base;
+        }
+        MessageCatalog cached = languageCatalogs.get(language);
+        // Language catalogs share the version of the base catalog they were built from
+        if (cached != null && cached.getVersion() == base.getVersion()) {
+            return cached;
+        }
+        return languageCatalogs.compute(language, (tag, current) ->
+            current != null && current.getVersion() == base.getVersion() ? current : loadLanguage(tag, base));
+    }
+
+    /**
+     * Forget loaded translations so they are read again on next use.
+     */
+    public void clearLanguages() {
+        languageCatalogs.clear();
     }
 
     /**
      * Get all messages.
      */
     public Map<String, String> getMessages() {
-        return messages;
+        return catalog.get().getMessages();
     }
 
     /**
@@ -104,7 +171,7 @@ public class MessagesStorage {
      * Returns a fallback message if key is not found.
      */
     public String getMessage(String key) {
-        return messages.getOrDefault(key, "&cMissing message: " + key);
+        return catalog.get().getMessage(key);
     }
 
     /**
@@ -131,14 +198,16 @@ public class MessagesStorage {
      * Set a specific message.
      */
     public void setMessage(String key, String value) {
-        messages.put(key, value);
+        Map<String, String> change = new HashMap<>();
+        change.put(key, value);
+        catalog.updateAndGet(current -> current.with(change));
     }
 
     /**
      * Check if messages.json exists.
      */
     public boolean exists() {
-        return new File(dataFolder, "messages.json").exists();
+        return new File(dataFolder, FILE_NAME).exists();
     }
 
     /**
@@ -146,14 +215,144 @@ public class MessagesStorage {
      * Returns true if new messages were added.
      */
     public boolean mergeWithDefaults(Map<String, String> defaults) {
-        boolean added = false;
-        for (Map.Entry<String, String> entry : defaults.entrySet()) {
-            if (!messages.containsKey(entry.getKey())) {
-                messages.put(entry.getKey(), entry.getValue());
-                added = true;
+        boolean[] added = new boolean[1];
+        catalog.updateAndGet(current -> {
+            Map<String, String> missing = new HashMap<>();
+            for (Map.Entry<String, String> entry : defaults.entrySet()) {
+                if (!current.getMessages().containsKey(entry.getKey())) {
+                    missing.put(entry.getKey(), entry.getValue());
+                }
+            }
+            added[0] = !missing.isEmpty();
+            return missing.isEmpty() ? current : current.with(missing);
+        });
+        return added[0];
+    }
+
+    // ===== FILE WATCHING =====
+
+    /**
+     * Watch messages.json and translation files for edits and run a callback (on the watcher thread) after each one.
+     * Edits made by this storage's own writes are reported too; reloading them is a no-op.
+     */
+    public synchronized void startWatching(Runnable onChange) {
+        if (watcher != null) {
+            return;
+        }
+        watcher = new FileWatcher(dataFolder.toPath(), MessagesStorage::isMessagesFile, onChange, "EasyTrade-MessagesWatcher");
+        watcher.start();
+    }
+
+    private static boolean isMessagesFile(String name) {
+        return FILE_NAME.equals(name) || (name.startsWith(LANGUAGE_FILE_PREFIX) && name.endsWith(".json"));
+    }
+
+    /**
+     * Stop watching and write any pending save before returning (up to a few seconds).
+     */
+    public void close() {
+        synchronized (this) {
+            if (watcher != null) {
+                watcher.stop();
+                watcher = null;
+            }
+        }
+
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.atWarning().log("Timed out writing messages.json on shutdown");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== HELPER METHODS =====
+
+    private void publish(Map<String, String> messages) {
+        catalog.updateAndGet(current -> new MessageCatalog(messages, current.getVersion() + 1));
+    }
+
+    /**
+     * Write the latest catalog to a temporary file and rename it over messages.json.
+     * Runs on the writer thread.
+     */
+    private void writeLatest() {
+        writeScheduled.set(false);
+        MessageCatalog snapshot = catalog.get();
+        if (snapshot.getVersion() == writtenVersion) {
+            return;
+        }
+
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        File file = new File(dataFolder, FILE_NAME);
+        File temp = new File(dataFolder, FILE_NAME + ".tmp");
+        try {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                // Save as flat map sorted by key
+                Map<String, String> sorted = new LinkedHashMap<>();
+                snapshot.getMessages().entrySet().stream()
+                        .sorted(Map.Entry.comparingByKey())
+                        .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+                gson.toJson(sorted, out);
+            }
+            // Recorded before the rename so the watcher never sees our own write as an edit
+            diskMessages = snapshot.getMessages();
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            writtenVersion = snapshot.getVersion();
+            LOGGER.atInfo().log("Saved " + snapshot.getMessages().size() + " messages to messages.json");
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to save messages.json: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build the catalog of a language from its translation file, trying the full tag first
+     * (messages_ES_MX.json for "es-MX") and then the language alone (messages_ES.json).
+     */
+    private MessageCatalog loadLanguage(String language, MessageCatalog base) {
+        String tag = language.replace('-', '_').toUpperCase(Locale.ROOT);
+        int separator = tag.indexOf('_');
+        String[] candidates = separator > 0
+            ? new String[] { tag, tag.substring(0, separator) }
+            : new String[] { tag };
+
+        for (String candidate : candidates) {
+            File file = new File(dataFolder, LANGUAGE_FILE_PREFIX + candidate + ".json");
+            if (!file.exists()) {
+                continue;
+            }
+            try {
+                Map<String, String> translated = readMessages(file);
+                Map<String, String> merged = new HashMap<>(base.getMessages());
+                merged.putAll(translated);
+                LOGGER.atInfo().log("Loaded " + translated.size() + " messages from " + file.getName() + " for language " + language);
+                return new MessageCatalog(merged, base.getVersion());
+            } catch (Exception e) {
+                LOGGER.atWarning().log("Failed to load " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return base;
+    }
+
+    private static Map<String, String> readMessages(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            JsonElement element = gson.fromJson(reader, JsonElement.class);
+            Map<String, String> loaded = new HashMap<>();
+            if (element != null) {
+                flattenJson("", element, loaded);
             }
+            return loaded;
         }
-        return added;
     }
 
     /**
@@ -0,0 +1,156 @@
+package org.toskan4134.easytrade.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.toskan4134.easytrade.config.TradeZone;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Storage for trade zones.
+ * Zones are stored in zones.json in the plugin's data folder:
+ *
+ * <pre>
+ * {
+ *   "DefaultPolicy": "Allow",
+ *   "Zones": [
+ *     { "Name": "Arena", "World": "default", "Policy": "Deny", "Priority": 0,
+ *       "Min": [-50, 0, -50], "Max": [50, 256, 50] }
+ *   ]
+ * }
+ * </pre>
+ *
+ * A zone without Min/Max covers its whole world. Invalid zones are skipped with a warning.
+ */
+public class TradeZonesStorage {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+    private static final Gson gson = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    private final File dataFolder;
+    private TradeZone.Policy defaultPolicy = TradeZone.Policy.ALLOW;
+    private List<TradeZone> zones = Collections.emptyList();
+
+    public TradeZonesStorage(File dataFolder) {
+        this.dataFolder = dataFolder;
+    }
+
+    /**
+     * Load zones from zones.json, creating an empty file if it doesn't exist.
+     */
+    public void load() {
+        File file = new File(dataFolder, "zones.json");
+        if (!file.exists()) {
+            defaultPolicy = TradeZone.Policy.ALLOW;
+            zones = Collections.emptyList();
+            saveEmpty(file);
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            JsonElement element = gson.fromJson(reader, JsonElement.class);
+            TradeZone.Policy loadedDefault = TradeZone.Policy.ALLOW;
+            List<TradeZone> loaded = new ArrayList<>();
+            if (element != null && element.isJsonObject()) {
+                JsonObject root = element.getAsJsonObject();
+                if (root.has("DefaultPolicy")) {
+                    TradeZone.Policy policy = TradeZone.Policy.parse(root.get("DefaultPolicy").getAsString());
+                    if (policy != null && policy != TradeZone.Policy.SAME_ZONE) {
+                        loadedDefault = policy;
+                    } else {
+                        LOGGER.atWarning().log("Invalid DefaultPolicy in zones.json, using Allow");
+                    }
+                }
+                JsonElement list = root.get("Zones");
+                if (list != null && list.isJsonArray()) {
+                    for (JsonElement zoneElement : list.getAsJsonArray()) {
+                        TradeZone zone = parseZone(zoneElement);
+                        if (zone != null) {
+                            loaded.add(zone);
+                        }
+                    }
+                }
+            }
+            defaultPolicy = loadedDefault;
+            zones = Collections.unmodifiableList(loaded);
+            LOGGER.atInfo().log("Loaded " + zones.size() + " trade zones from zones.json");
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to load zones.json: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the policy that applies outside every zone.
+     */
+    public TradeZone.Policy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public List<TradeZone> getZones() {
+        return zones;
+    }
+
+    private TradeZone parseZone(JsonElement element) {
+        if (element == null || !element.isJsonObject()) {
+            LOGGER.atWarning().log("Skipping trade zone that is not an object");
+            return null;
+        }
+        JsonObject object = element.getAsJsonObject();
+        String name = object.has("Name") ? object.get("Name").getAsString() : null;
+        String world = object.has("World") ? object.get("World").getAsString() : null;
+        TradeZone.Policy policy = object.has("Policy") ? TradeZone.Policy.parse(object.get("Policy").getAsString()) : null;
+        if (name == null || world == null || policy == null) {
+            LOGGER.atWarning().log("Skipping trade zone " + name + ": Name, World and a valid Policy are required");
+            return null;
+        }
+        int priority = object.has("Priority") ? object.get("Priority").getAsInt() : 0;
+
+        if (!object.has("Min") && !object.has("Max")) {
+            return new TradeZone(name, world, policy, priority);
+        }
+        double[] min = readPoint(object.get("Min"));
+        double[] max = readPoint(object.get("Max"));
+        if (min == null || max == null) {
+            LOGGER.atWarning().log("Skipping trade zone " + name + ": Min and Max must both be [x, y, z]");
+            return null;
+        }
+        return new TradeZone(name, world, policy, priority, min[0], min[1], min[2], max[0], max[1], max[2]);
+    }
+
+    private static double[] readPoint(JsonElement element) {
+        if (element == null || !element.isJsonArray()) {
+            return null;
+        }
+        JsonArray array = element.getAsJsonArray();
+        if (array.size() != 3) {
+            return null;
+        }
+        return new double[] { array.get(0).getAsDouble(), array.get(1).getAsDouble(), array.get(2).getAsDouble() };
+    }
+
+    private void saveEmpty(File file) {
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("DefaultPolicy", "Allow");
+        root.add("Zones", new JsonArray());
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            gson.toJson(root, writer);
+            LOGGER.atInfo().log("Created empty zones.json");
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to create zones.json: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.toskan4134.easytrade.trade;
+
+import org.toskan4134.easytrade.constants.TradeConstants;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player token buckets limiting how fast each kind of trade action can be repeated.
+ *
+ * Every action has a bucket holding up to its configured limit of tokens, refilled evenly over the
+ * action's window; each action takes one token. A player's buckets are one small long array
+ * (tokens, last refill and last notice per action), so a check is a few arithmetic operations
+ * and nothing is allocated after the player's first action.
+ */
+public class ActionRateLimiter {
+
+    /**
+     * Kinds of rate-limited actions, with the window their limit is counted over.
+     */
+    public enum Action {
+        REQUEST(60000),
+        OFFER_EDIT(1000),
+        ACCEPT_TOGGLE(1000);
+
+        private final long windowMs;
+
+        Action(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        public long getWindowMs() {
+            return windowMs;
+        }
+    }
+
+    /**
+     * Result of a rate limit check.
+     */
+    public enum Outcome {
+        /** The action may go ahead */
+        ALLOWED,
+        /** The action is refused and the player should be told to slow down */
+        LIMITED,
+        /** The action is refused, but the player was told recently */
+        LIMITED_QUIET;
+
+        public boolean isAllowed() {
+            return this == ALLOWED;
+        }
+    }
+
+    // Tokens are stored in thousandths so slow refill rates don't lose precision
+    private static final long TOKEN_SCALE = 1000;
+
+    // Offsets of each action's values in a player's state array
+    private static final int TOKENS = 0;
+    private static final int LAST_REFILL = 1;
+    private static final int LAST_NOTICE = 2;
+    private static final int STRIDE = 3;
+
+    // Player UUID -> bucket state of every action (STRIDE longs per action)
+    private final Map<UUID, long[]> states = new ConcurrentHashMap<>();
+
+    /**
+     * Take a token for an action.
+     * @param capacity Actions allowed per window of the action, 0 for no limit
+     * @param now Current time in ms
+     */
+    public Outcome tryAcquire(UUID playerId, Action action, int capacity, long now) {
+        if (capacity <= 0) {
+            return Outcome.ALLOWED;
+        }
+        long[] state = states.computeIfAbsent(playerId, id -> newState());
+        int base = action.ordinal() * STRIDE;
+        long max = capacity * TOKEN_SCALE;
+
+        synchronized (state) {
+            long tokens;
+            if (state[base + LAST_REFILL] == 0) {
+                // First use: start with a full bucket
+                tokens = max;
+            } else {
+                long elapsed = Math.min(Math.max(0, now - state[base + LAST_REFILL]), action.windowMs);
+                tokens = Math.min(max, state[base + TOKENS] + elapsed * max / action.windowMs);
+            }
+            state[base + LAST_REFILL] = now;
+
+            if (tokens >= TOKEN_SCALE) {
+                state[base + TOKENS] = tokens - TOKEN_SCALE;
+                return Outcome.ALLOWED;
+            }
+            state[base + TOKENS] = tokens;
+
+            if (now - state[base + LAST_NOTICE] >= TradeConstants.RATE_LIMIT_NOTICE_INTERVAL_MS) {
+                state[base + LAST_NOTICE] = now;
+                return Outcome.LIMITED;
+            }
+            return Outcome.LIMITED_QUIET;
+        }
+    }
+
+    /**
+     * Forget a player's buckets.
+     */
+    public void remove(UUID playerId) {
+        states.remove(playerId);
+    }
+
+    /**
+     * Forget all buckets.
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    private static long[] newState() {
+        return new long[Action.values().length * STRIDE];
+    }
+}
@@ -0,0 +1,174 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.server.core.Message;
+import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.util.Common;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether new trade work may start, so the load trading puts on the server stays within
+ * the configured limits.
+ *
+ * Three kinds of work are admitted: new requests (against the total of pending requests), new
+ * sessions (against the number of active sessions) and executions (against the depth of the
+ * world's execution queue). Admitting a request or a session takes a slot from a counter with a
+ * compare-and-set bounded by the maximum, so concurrent admissions from different worlds can't
+ * overshoot it; the slot is given back when the request or session is removed. A global pause
+ * gate, toggled by admins, refuses all three with a single volatile read; sessions already
+ * negotiating are left alone either way. On shutdown the gate is closed for good.
+ */
+public class AdmissionControl {
+
+    /**
+     * Result of an admission check.
+     */
+    public enum Admission {
+        ADMITTED,
+        PAUSED,
+        SHUTTING_DOWN,
+        TOO_MANY_REQUESTS,
+        TOO_MANY_SESSIONS,
+        QUEUE_FULL;
+
+        public boolean isAdmitted() {
+            return this == ADMITTED;
+        }
+
+        /**
+         * Get the message telling a player why their action was refused.
+         */
+        public Message getDenialMessage(TradeMessages messages) {
+            switch (this) {
+                case PAUSED:
+                    return messages.admissionPaused();
+                case SHUTTING_DOWN:
+                    return messages.admissionShuttingDown();
+                case TOO_MANY_REQUESTS:
+                    return messages.admissionTooManyRequests();
+                case TOO_MANY_SESSIONS:
+                    return messages.admissionTooManySessions();
+                case QUEUE_FULL:
+                    return messages.admissionQueueFull();
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private volatile boolean closed;
+    // Requests and sessions admitted and not released yet
+    private final AtomicInteger requestSlots = new AtomicInteger();
+    private final AtomicInteger sessionSlots = new AtomicInteger();
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    /**
+     * Close the gate: refuse new requests, sessions and executions until resumed.
+     * @return false if trading was already paused
+     */
+    public boolean pause() {
+        return paused.compareAndSet(false, true);
+    }
+
+    /**
+     * Open the gate again.
+     * @return false if trading was not paused
+     */
+    public boolean resume() {
+        return paused.compareAndSet(true, false);
+    }
+
+    /**
+     * Refuse all new work from now on (used on shutdown).
+     */
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Check whether a new trade request may be created, taking a request slot if so.
+     * The slot must be given back with {@link #releaseRequests(int)} once the request is removed,
+     * or right away if it is never added.
+     */
+    public Admission admitRequest() {
+        Admission gate = checkGate();
+        if (gate != null) {
+            return gate;
+        }
+        return tryAcquire(requestSlots, Common.getMaxTotalPendingRequests())
+            ? Admission.ADMITTED : Admission.TOO_MANY_REQUESTS;
+    }
+
+    public void releaseRequests(int count) {
+        release(requestSlots, count);
+    }
+
+    /**
+     * Check whether a request may be accepted, starting a new session, taking a session slot if so.
+     * The slot must be given back with {@link #releaseSessions(int)} once the session is removed,
+     * or right away if it never starts.
+     */
+    public Admission admitSession() {
+        Admission gate = checkGate();
+        if (gate != null) {
+            return gate;
+        }
+        return tryAcquire(sessionSlots, Common.getMaxActiveSessions())
+            ? Admission.ADMITTED : Admission.TOO_MANY_SESSIONS;
+    }
+
+    public void releaseSessions(int count) {
+        release(sessionSlots, count);
+    }
+
+    /**
+     * Check whether a confirmed trade may be queued for execution.
+     * @param queueDepth Trades waiting in the execution queue of the world that would run it
+     */
+    public Admission admitExecution(int queueDepth) {
+        Admission gate = checkGate();
+        if (gate != null) {
+            return gate;
+        }
+        return withinLimit(queueDepth, Common.getMaxExecutionQueue())
+            ? Admission.ADMITTED : Admission.QUEUE_FULL;
+    }
+
+    private Admission checkGate() {
+        if (closed) {
+            return Admission.SHUTTING_DOWN;
+        }
+        return paused.get() ? Admission.PAUSED : null;
+    }
+
+    private static boolean withinLimit(int current, int max) {
+        return max <= 0 || current < max;
+    }
+
+    private static boolean tryAcquire(AtomicInteger slots, int max) {
+        while (true) {
+            int current = slots.get();
+            if (!withinLimit(current, max)) {
+                return false;
+            }
+            if (slots.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static void release(AtomicInteger slots, int count) {
+        if (count > 0) {
+            slots.updateAndGet(current -> Math.max(0, current - count));
+        }
+    }
+}
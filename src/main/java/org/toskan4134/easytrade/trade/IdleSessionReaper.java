@@ -0,0 +1,96 @@
+package org.toskan4134.easytrade.trade;
+
+import org.toskan4134.easytrade.constants.TradeConstants;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Finds active sessions that stayed idle longer than the timeout of their current state.
+ *
+ * Every session has one entry in a deadline-ordered heap. Activity doesn't touch the heap: when an
+ * entry comes due, its deadline is recomputed from the session's last activity and current state,
+ * and the entry goes back in if the session was active in the meantime. A sweep therefore only
+ * looks at entries that are due, and ended sessions drop out the next time their entry comes up.
+ */
+public class IdleSessionReaper {
+
+    private static final class Entry {
+        final TradeSession session;
+        final long dueAt;
+
+        Entry(TradeSession session, long dueAt) {
+            this.session = session;
+            this.dueAt = dueAt;
+        }
+    }
+
+    // Entries by due time, guarded by this
+    private final PriorityQueue<Entry> deadlines = new PriorityQueue<>(Comparator.comparingLong(e -> e.dueAt));
+
+    /**
+     * Start watching a session that just became active.
+     */
+    public synchronized void add(TradeSession session) {
+        deadlines.add(new Entry(session, nextCheck(session, System.currentTimeMillis())));
+    }
+
+    /**
+     * Collect the sessions that have been idle for longer than their timeout.
+     * Idle sessions are checked again after a short delay, in case cancelling them doesn't go through.
+     *
+     * @param isActive Whether a session is still active; entries of ended sessions are dropped
+     * @return the idle sessions, to be cancelled by the caller
+     */
+    public List<TradeSession> sweep(long now, Predicate<TradeSession> isActive) {
+        List<TradeSession> idle = new ArrayList<>();
+        synchronized (this) {
+            List<Entry> requeue = new ArrayList<>();
+            while (!deadlines.isEmpty() && deadlines.peek().dueAt <= now) {
+                TradeSession session = deadlines.poll().session;
+                if (!isActive.test(session)) {
+                    continue;
+                }
+                long timeout = session.getIdleTimeoutMs();
+                if (timeout > 0 && now - session.getLastActivityAt() >= timeout) {
+                    idle.add(session);
+                    requeue.add(new Entry(session, now + TradeConstants.IDLE_RETRY_MS));
+                } else {
+                    requeue.add(new Entry(session, nextCheck(session, now)));
+                }
+            }
+            deadlines.addAll(requeue);
+        }
+        return idle;
+    }
+
+    /**
+     * Number of sessions being watched (including ended ones not swept yet).
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    public synchronized void clear() {
+        deadlines.clear();
+    }
+
+    /**
+     * Time at which a session could be idle for the first time, assuming no more activity.
+     * States without a timeout are looked at again after the shortest configured timeout, in case
+     * they move to a state with one.
+     */
+    private static long nextCheck(TradeSession session, long now) {
+        long timeout = session.getIdleTimeoutMs();
+        if (timeout > 0) {
+            return Math.max(now, session.getLastActivityAt() + timeout);
+        }
+        long negotiation = session.getConfig().getNegotiationTimeoutMs();
+        long confirm = session.getConfig().getConfirmTimeoutMs();
+        long recheck = negotiation > 0 && confirm > 0 ? Math.min(negotiation, confirm) : Math.max(negotiation, confirm);
+        return now + (recheck > 0 ? recheck : TradeConstants.NEGOTIATION_TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,88 @@
+package org.toskan4134.easytrade.trade;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process {@link TradeDirectory}. Nodes sharing a {@link Hub} see each other's players.
+ *
+ * Used as the single-node default (one node on a private hub), and to run several nodes in one
+ * process for tests.
+ */
+public class LoopbackTradeDirectory implements TradeDirectory {
+
+    private final String nodeId;
+    private final Hub hub;
+
+    /**
+     * Create a single node on its own hub.
+     */
+    public LoopbackTradeDirectory(String nodeId) {
+        this(nodeId, new Hub());
+    }
+
+    public LoopbackTradeDirectory(String nodeId, Hub hub) {
+        this.nodeId = nodeId;
+        this.hub = hub;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void playerOnline(UUID playerId, String username) {
+        Presence previous = hub.players.put(playerId, new Presence(nodeId, username));
+        if (previous != null) {
+            hub.names.remove(fold(previous.username), playerId);
+        }
+        hub.names.put(fold(username), playerId);
+    }
+
+    @Override
+    public void playerOffline(UUID playerId) {
+        // Only the node hosting the player may take them offline (they may have moved already)
+        Presence presence = hub.players.get(playerId);
+        if (presence != null && presence.node.equals(nodeId) && hub.players.remove(playerId, presence)) {
+            hub.names.remove(fold(presence.username), playerId);
+        }
+    }
+
+    @Override
+    public String locate(String username) {
+        UUID playerId = hub.names.get(fold(username));
+        Presence presence = playerId != null ? hub.players.get(playerId) : null;
+        return presence != null ? presence.node : null;
+    }
+
+    @Override
+    public void close() {
+        hub.players.values().removeIf(presence -> presence.node.equals(nodeId));
+        hub.names.values().removeIf(playerId -> !hub.players.containsKey(playerId));
+    }
+
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Presence {
+        final String node;
+        final String username;
+
+        Presence(String node, String username) {
+            this.node = node;
+            this.username = username;
+        }
+    }
+
+    /**
+     * Shared state of the nodes that can see each other.
+     */
+    public static final class Hub {
+        private final Map<UUID, Presence> players = new ConcurrentHashMap<>();
+        private final Map<String, UUID> names = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,107 @@
+package org.toskan4134.easytrade.trade;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pending trade requests sent to one player, oldest first.
+ *
+ * Requests are keyed by initiator (one per initiator), with a second index by initiator username,
+ * so adding, deduplicating, selecting by name and expiring a request are all O(1).
+ * All access is synchronized on the inbox; the owning {@link TradeShard} creates and drops
+ * inboxes atomically so a request is never added to an inbox that was just dropped.
+ */
+class RequestInbox {
+
+    // Initiator UUID -> request, in arrival order
+    private final LinkedHashMap<UUID, TradeSession> requests = new LinkedHashMap<>();
+    // Case-folded initiator username -> initiator UUID
+    private final Map<String, UUID> byName = new HashMap<>();
+
+    synchronized boolean contains(UUID initiatorId) {
+        return requests.containsKey(initiatorId);
+    }
+
+    synchronized int size() {
+        return requests.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    /**
+     * Add a request unless this initiator already has one here or the inbox is full.
+     * @return true if the request was added
+     */
+    synchronized boolean add(TradeSession session, int capacity) {
+        UUID initiatorId = session.getInitiator().getUuid();
+        if (requests.containsKey(initiatorId) || requests.size() >= capacity) {
+            return false;
+        }
+        requests.put(initiatorId, session);
+        byName.put(fold(session.getInitiator().getUsername()), initiatorId);
+        return true;
+    }
+
+    synchronized TradeSession get(UUID initiatorId) {
+        return requests.get(initiatorId);
+    }
+
+    /**
+     * Get the only request in the inbox, or null if there are none or several.
+     */
+    synchronized TradeSession getOnly() {
+        return requests.size() == 1 ? requests.values().iterator().next() : null;
+    }
+
+    synchronized TradeSession getOldest() {
+        return requests.isEmpty() ? null : requests.values().iterator().next();
+    }
+
+    /**
+     * Find the initiator of a request by username (case-insensitive).
+     */
+    synchronized UUID findInitiator(String username) {
+        return byName.get(fold(username));
+    }
+
+    synchronized TradeSession remove(UUID initiatorId) {
+        TradeSession session = requests.remove(initiatorId);
+        if (session != null) {
+            byName.remove(fold(session.getInitiator().getUsername()), initiatorId);
+        }
+        return session;
+    }
+
+    /**
+     * Remove a request only if it is still the given session (used by expiry).
+     */
+    synchronized boolean remove(UUID initiatorId, TradeSession session) {
+        if (requests.get(initiatorId) != session) {
+            return false;
+        }
+        remove(initiatorId);
+        return true;
+    }
+
+    /**
+     * Remove all requests.
+     * @return the removed requests, oldest first
+     */
+    synchronized List<TradeSession> clear() {
+        List<TradeSession> removed = new ArrayList<>(requests.values());
+        requests.clear();
+        byName.clear();
+        return removed;
+    }
+
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
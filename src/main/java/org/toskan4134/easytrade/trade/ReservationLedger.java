@@ -0,0 +1,110 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+import org.toskan4134.easytrade.util.InventoryHelper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ledger of the item quantities each player has reserved by offering them in a trade.
+ *
+ * Reservations are replaced whenever an offer changes, using the consolidated items of the
+ * session view, so no extra aggregation is done. Inventory changes are checked against the
+ * reserved totals only: items the player has not offered are never looked at.
+ */
+public class ReservationLedger {
+
+    // Player UUID -> reserved quantity per item ID (immutable maps)
+    private final Map<UUID, Map<String, Integer>> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Replace a player's reservations with the given offered quantities.
+     * @param items Consolidated offer (itemId -> quantity), must not be modified afterwards
+     */
+    public void reserve(UUID playerId, Map<String, Integer> items) {
+        if (items == null || items.isEmpty()) {
+            reservations.remove(playerId);
+        } else {
+            reservations.put(playerId, items);
+        }
+    }
+
+    /**
+     * Release all reservations held by a player.
+     */
+    public void release(UUID playerId) {
+        reservations.remove(playerId);
+    }
+
+    /**
+     * Release all reservations.
+     */
+    public void clear() {
+        reservations.clear();
+    }
+
+    /**
+     * Get the quantities a player currently has reserved.
+     */
+    public Map<String, Integer> getReserved(UUID playerId) {
+        return reservations.getOrDefault(playerId, Collections.emptyMap());
+    }
+
+    public boolean hasReservations(UUID playerId) {
+        return reservations.containsKey(playerId);
+    }
+
+    /**
+     * Find reserved items the inventory can no longer back.
+     * Only slots holding a reserved item are counted.
+     *
+     * @return itemId -> quantity the inventory still backs (less than reserved), empty if all backed
+     */
+    public Map<String, Integer> findUnbacked(UUID playerId, Inventory inventory) {
+        Map<String, Integer> reserved = reservations.get(playerId);
+        if (reserved == null || inventory == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Integer> held = new HashMap<>(reserved.size() * 2);
+        countReserved(inventory.getHotbar(), reserved, held);
+        countReserved(inventory.getBackpack(), reserved, held);
+        countReserved(inventory.getStorage(), reserved, held);
+
+        Map<String, Integer> unbacked = null;
+        for (Map.Entry<String, Integer> entry : reserved.entrySet()) {
+            int available = held.getOrDefault(entry.getKey(), 0);
+            if (available < entry.getValue()) {
+                if (unbacked == null) {
+                    unbacked = new LinkedHashMap<>();
+                }
+                unbacked.put(entry.getKey(), available);
+            }
+        }
+        return unbacked != null ? unbacked : Collections.emptyMap();
+    }
+
+    private static void countReserved(ItemContainer container, Map<String, Integer> reserved,
+                                      Map<String, Integer> held) {
+        if (!InventoryHelper.isValidContainer(container)) {
+            return;
+        }
+        for (short i = 0; i < container.getCapacity(); i++) {
+            ItemStack itemStack = container.getItemStack(i);
+            if (itemStack == null || itemStack.isEmpty()) {
+                continue;
+            }
+            String itemId = itemStack.getItem().getId();
+            if (reserved.containsKey(itemId)) {
+                held.merge(itemId, itemStack.getQuantity(), Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of a trade session at one version.
+ * Built once by {@link TradeSession#getView()} after each change and shared by both trading pages,
+ * so offers are aggregated once per change instead of once per page rebuild.
+ */
+public final class SessionView {
+
+    private final long stateVersion;
+    private final long initiatorOfferRevision;
+    private final long targetOfferRevision;
+
+    private final TradeState state;
+    private final Map<String, Integer> initiatorItems;
+    private final Map<String, Integer> targetItems;
+    private final int initiatorTotal;
+    private final int targetTotal;
+    private final boolean initiatorAccepted;
+    private final boolean targetAccepted;
+    private final long countdownDeadline;
+
+    SessionView(long stateVersion, long initiatorOfferRevision, long targetOfferRevision,
+                TradeState state, TradeOffer initiatorOffer, TradeOffer targetOffer,
+                boolean initiatorAccepted, boolean targetAccepted, long countdownDeadline) {
+        this.stateVersion = stateVersion;
+        this.initiatorOfferRevision = initiatorOfferRevision;
+        this.targetOfferRevision = targetOfferRevision;
+        this.state = state;
+        this.initiatorItems = aggregate(initiatorOffer);
+        this.targetItems = aggregate(targetOffer);
+        this.initiatorTotal = sum(initiatorItems);
+        this.targetTotal = sum(targetItems);
+        this.initiatorAccepted = initiatorAccepted;
+        this.targetAccepted = targetAccepted;
+        this.countdownDeadline = countdownDeadline;
+    }
+
+    /**
+     * Check if this view still matches the given session and offer versions.
+     */
+    boolean isCurrent(long stateVersion, long initiatorOfferRevision, long targetOfferRevision) {
+        return this.stateVersion == stateVersion
+            && this.initiatorOfferRevision == initiatorOfferRevision
+            && this.targetOfferRevision == targetOfferRevision;
+    }
+
+    // ===== GETTERS =====
+
+    public TradeState getState() {
+        return state;
+    }
+
+    /**
+     * Initiator's offer consolidated by item ID (insertion order preserved).
+     */
+    public Map<String, Integer> getInitiatorItems() {
+        return initiatorItems;
+    }
+
+    /**
+     * Target's offer consolidated by item ID (insertion order preserved).
+     */
+    public Map<String, Integer> getTargetItems() {
+        return targetItems;
+    }
+
+    public int getInitiatorTotal() {
+        return initiatorTotal;
+    }
+
+    public int getTargetTotal() {
+        return targetTotal;
+    }
+
+    public boolean isInitiatorAccepted() {
+        return initiatorAccepted;
+    }
+
+    public boolean isTargetAccepted() {
+        return targetAccepted;
+    }
+
+    /**
+     * Get the time (epoch ms) the countdown ends, or 0 if no countdown is running.
+     */
+    public long getCountdownDeadline() {
+        return countdownDeadline;
+    }
+
+    // ===== PER-SIDE HELPERS =====
+
+    public Map<String, Integer> getItems(boolean initiatorSide) {
+        return initiatorSide ? initiatorItems : targetItems;
+    }
+
+    public int getTotal(boolean initiatorSide) {
+        return initiatorSide ? initiatorTotal : targetTotal;
+    }
+
+    public boolean isAccepted(boolean initiatorSide) {
+        return initiatorSide ? initiatorAccepted : targetAccepted;
+    }
+
+    /**
+     * Get the remaining countdown time at the given instant.
+     */
+    public long getRemainingCountdownMs(long now) {
+        if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
+            return 0;
+        }
+        return Math.max(0, countdownDeadline - now);
+    }
+
+    /**
+     * Check if the trade can be confirmed at the given instant
+     * (both accepted and the countdown has run out).
+     */
+    public boolean isConfirmable(long now) {
+        return state == TradeState.BOTH_ACCEPTED_COUNTDOWN && now >= countdownDeadline;
+    }
+
+    // ===== HELPER METHODS =====
+
+    private static Map<String, Integer> aggregate(TradeOffer offer) {
+        Map<String, Integer> items = new LinkedHashMap<>();
+        List<ItemStack> offerItems = offer.getItems();
+        for (ItemStack item : offerItems) {
+            if (item != null && !item.isEmpty()) {
+                items.merge(item.getItem().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return Collections.unmodifiableMap(items);
+    }
+
+    private static int sum(Map<String, Integer> items) {
+        int total = 0;
+        for (int qty : items.values()) {
+            total += qty;
+        }
+        return total;
+    }
+}
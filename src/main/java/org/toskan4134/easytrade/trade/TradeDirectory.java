@@ -0,0 +1,35 @@
+package org.toskan4134.easytrade.trade;
+
+import java.util.UUID;
+
+/**
+ * Directory of the players online across server nodes.
+ *
+ * Nodes publish their players on connect and withdraw them on disconnect, so a node can tell a
+ * player who is online elsewhere from one who is offline. This is presence only: requests, session
+ * state and executions are not routed between nodes, there is no two-phase execution across nodes
+ * and no wire encoding of sessions, so players on different nodes cannot trade. Sessions and their
+ * UI are built on local player refs. {@link LoopbackTradeDirectory} is the in-process
+ * implementation; a broker-backed one can be installed with {@link TradeManager#setDirectory}.
+ */
+public interface TradeDirectory {
+
+    /**
+     * Get the ID of the node this directory runs on.
+     */
+    String getNodeId();
+
+    void playerOnline(UUID playerId, String username);
+
+    void playerOffline(UUID playerId);
+
+    /**
+     * Get the node hosting a player by username (case-insensitive), or null if offline everywhere.
+     */
+    String locate(String username);
+
+    /**
+     * Withdraw this node's players and release the directory (called on shutdown).
+     */
+    void close();
+}
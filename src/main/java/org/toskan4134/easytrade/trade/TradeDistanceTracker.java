@@ -0,0 +1,121 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import org.toskan4134.easytrade.util.PlayerSpatialIndex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Distance between the partners of every active session, checked in one batched pass.
+ *
+ * Sessions are kept in a dense array (swap-remove on end), with the time each pair first went
+ * out of range in a parallel array, so a pass is a single linear scan with no per-session timers.
+ * Partners in different worlds are out of range. Positions come from the snapshots of the
+ * {@link PlayerSpatialIndex}, so a pass never reads live entity state off the world threads.
+ */
+class TradeDistanceTracker {
+
+    private TradeSession[] sessions = new TradeSession[16];
+    // When each pair went out of range (0 while in range)
+    private long[] outOfRangeSince = new long[16];
+    private int size;
+    // Session ID -> index in the arrays
+    private final Map<UUID, Integer> slots = new HashMap<>();
+
+    synchronized void add(TradeSession session) {
+        if (slots.containsKey(session.getSessionId())) {
+            return;
+        }
+        if (size == sessions.length) {
+            sessions = Arrays.copyOf(sessions, size * 2);
+            outOfRangeSince = Arrays.copyOf(outOfRangeSince, size * 2);
+        }
+        sessions[size] = session;
+        outOfRangeSince[size] = 0;
+        slots.put(session.getSessionId(), size);
+        size++;
+    }
+
+    synchronized void remove(TradeSession session) {
+        Integer slot = slots.remove(session.getSessionId());
+        if (slot == null) {
+            return;
+        }
+        // Move the last pair into the freed slot
+        int last = --size;
+        if (slot != last) {
+            sessions[slot] = sessions[last];
+            outOfRangeSince[slot] = outOfRangeSince[last];
+            slots.put(sessions[slot].getSessionId(), slot);
+        }
+        sessions[last] = null;
+        outOfRangeSince[last] = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Check every pair against the maximum distance, sorting out-of-range pairs into three lists:
+     * pairs that just went out of range ({@code warned}), pairs still out of range within the
+     * grace period ({@code outOfRange}) and pairs out of range for the whole grace period ({@code expired}).
+     */
+    synchronized void check(PlayerSpatialIndex positions, double maxDistance, long now, long graceMs,
+                            List<TradeSession> warned, List<TradeSession> outOfRange, List<TradeSession> expired) {
+        double maxDistanceSq = maxDistance * maxDistance;
+        for (int i = 0; i < size; i++) {
+            TradeSession session = sessions[i];
+            TradeState state = session.getState();
+            if (state == TradeState.EXECUTING || state == TradeState.PENDING_REQUEST) {
+                continue;
+            }
+
+            if (isInRange(positions, session.getInitiator(), session.getTarget(), maxDistanceSq)) {
+                outOfRangeSince[i] = 0;
+                continue;
+            }
+
+            if (outOfRangeSince[i] == 0) {
+                outOfRangeSince[i] = now;
+                warned.add(session);
+            } else if (now - outOfRangeSince[i] >= graceMs) {
+                expired.add(session);
+            } else {
+                outOfRange.add(session);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        Arrays.fill(sessions, 0, size, null);
+        Arrays.fill(outOfRangeSince, 0, size, 0);
+        slots.clear();
+        size = 0;
+    }
+
+    /**
+     * Check if two players are within range of each other, by their last snapshot positions.
+     * Players whose position is unknown (e.g. while changing worlds) count as in range.
+     */
+    static boolean isInRange(PlayerSpatialIndex positions, PlayerRef first, PlayerRef second, double maxDistanceSq) {
+        UUID firstWorld = first.getWorldUuid();
+        UUID secondWorld = second.getWorldUuid();
+        double[] a = positions.getPosition(first);
+        double[] b = positions.getPosition(second);
+        if (firstWorld == null || secondWorld == null || a == null || b == null) {
+            return true;
+        }
+        if (!firstWorld.equals(secondWorld)) {
+            return false;
+        }
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz <= maxDistanceSq;
+    }
+}
@@ -0,0 +1,182 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue of confirmed trades waiting to execute on one world's thread.
+ *
+ * Trades are executed in the order they were confirmed. Each drain runs on the world thread and
+ * stops once the configured time budget is spent (always running at least one trade), and the
+ * rest is drained on the next tick of the world's {@link TradeShard}. Every trade still executes
+ * completely within one drain.
+ */
+public class TradeExecutionQueue {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final String worldName;
+    private final Executor worldExecutor;
+
+    private final ConcurrentLinkedQueue<Job> jobs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong drainCount = new AtomicLong();
+    private final AtomicLong overBudgetDrains = new AtomicLong();
+    private volatile long lastDrainNanos;
+
+    public TradeExecutionQueue(String worldName, Executor worldExecutor) {
+        this.worldName = worldName;
+        this.worldExecutor = worldExecutor;
+    }
+
+    /**
+     * Queue a trade execution. It runs on the world thread during a later drain.
+     * @param job The execution to run
+     * @param execution The future the job completes, completed by {@link #clear} if the job is dropped
+     */
+    public void submit(Runnable job, CompletableFuture<TradeSession.TradeResult> execution) {
+        jobs.add(new Job(job, execution));
+        int newDepth = depth.incrementAndGet();
+        maxDepth.accumulateAndGet(newDepth, Math::max);
+        scheduleDrain();
+    }
+
+    /**
+     * Drop all queued executions (used on shutdown).
+     * The future of every dropped execution is completed with the given result, so whoever
+     * waits for it still gets an answer.
+     * @param dropped The result to complete the dropped executions with
+     * @return the number of executions dropped
+     */
+    public int clear(TradeSession.TradeResult dropped) {
+        int count = 0;
+        Job job;
+        while ((job = jobs.poll()) != null) {
+            depth.decrementAndGet();
+            job.execution.complete(dropped);
+            count++;
+        }
+        return count;
+    }
+
+    // ===== DRAINING =====
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            worldExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            drainScheduled.set(false);
+            LOGGER.atWarning().log("Could not schedule trade execution drain for world " + worldName);
+        }
+    }
+
+    /**
+     * Run queued trades until the tick budget is spent. Runs on the world thread.
+     */
+    void drain() {
+        drainScheduled.set(false);
+        long start = System.nanoTime();
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(Common.getExecutionBudgetMs());
+
+        int executed = 0;
+        Job job;
+        while ((job = jobs.poll()) != null) {
+            depth.decrementAndGet();
+            try {
+                job.task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error executing queued trade in world " + worldName);
+            }
+            executed++;
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+
+        lastDrainNanos = System.nanoTime() - start;
+        executedCount.addAndGet(executed);
+        drainCount.incrementAndGet();
+
+        if (!jobs.isEmpty()) {
+            // Budget spent: the shard drains the rest on its next tick
+            overBudgetDrains.incrementAndGet();
+            if (Common.isDebugEnabled(DebugCategory.EXECUTION)) {
+                LOGGER.atInfo().log("Trade queue of world " + worldName + " over budget after " + executed +
+                    " trades, " + depth.get() + " left");
+            }
+        }
+    }
+
+    // ===== METRICS =====
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Number of trades currently waiting to execute.
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Highest number of trades that were waiting at once.
+     */
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    public long getDrainCount() {
+        return drainCount.get();
+    }
+
+    /**
+     * Number of drains that ran out of budget with trades still queued.
+     */
+    public long getOverBudgetDrains() {
+        return overBudgetDrains.get();
+    }
+
+    /**
+     * Time spent in the last drain, in nanoseconds.
+     */
+    public long getLastDrainNanos() {
+        return lastDrainNanos;
+    }
+
+    /**
+     * A queued execution and the future it completes.
+     */
+    private static final class Job {
+        private final Runnable task;
+        private final CompletableFuture<TradeSession.TradeResult> execution;
+
+        private Job(Runnable task, CompletableFuture<TradeSession.TradeResult> execution) {
+            this.task = task;
+            this.execution = execution;
+        }
+    }
+}
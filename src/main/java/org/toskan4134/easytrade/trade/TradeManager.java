@@ -3,17 +3,39 @@ package org.toskan4134.easytrade.trade;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.vector.Transform;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.pages.PageManager;
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.TradingPlugin;
+import org.toskan4134.easytrade.config.ConfigManager;
+import org.toskan4134.easytrade.config.TradeZone;
+import org.toskan4134.easytrade.constants.TradeConstants;
 import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.storage.EscrowStorage;
+import org.toskan4134.easytrade.ui.PageLeakDetector;
 import org.toskan4134.easytrade.ui.TradingPage;
+import org.toskan4134.easytrade.ui.TradingPageModel;
 import org.toskan4134.easytrade.util.Common;
-
+import org.toskan4134.easytrade.util.DebugCategory;
+import org.toskan4134.easytrade.util.PlayerNameIndex;
+import org.toskan4134.easytrade.util.PlayerSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
 
@@ -27,18 +49,31 @@ public class TradeManager {
 
     private final TradingPlugin plugin;
 
-    // Active trade sessions (sessionId -> session)
-    private final Map<UUID, TradeSession> activeSessions;
-
-    // Player UUID to session mapping for quick lookup
-    private final Map<UUID, UUID> playerToSession;
+    // World name -> trade state of that world (sessions, requests, timers, execution queue)
+    private final Map<String, TradeShard> shards = new ConcurrentHashMap<>();
+    // Global directory: player UUID -> shard holding their active session
+    private final Map<UUID, TradeShard> sessionDirectory = new ConcurrentHashMap<>();
+    // Global directory: target player UUID -> shard holding their request inbox (kept while online)
+    private final Map<UUID, TradeShard> requestDirectory = new ConcurrentHashMap<>();
+    // Outbox index: initiator UUID -> targets of their pending requests
+    private final Map<UUID, Set<UUID>> outbox = new ConcurrentHashMap<>();
 
-    // Pending trade requests (target player UUID -> session)
-    private final Map<UUID, TradeSession> pendingRequests;
-
-    // Scheduler for timeouts and countdowns
+    // Single ticker that pumps the shards; timer work itself runs on the world threads
     private final ScheduledExecutorService scheduler;
 
+    // Players online across server nodes
+    private TradeDirectory directory;
+    // Case-folded trie of online usernames, for resolving and completing typed names
+    private final PlayerNameIndex playerNames = new PlayerNameIndex();
+    // Per-world grid of player positions, rebuilt once per tick on each world thread
+    private final PlayerSpatialIndex playerPositions = new PlayerSpatialIndex(TradeConstants.NEARBY_CELL_SIZE);
+    // Worlds with a position grid rebuild posted and not run yet
+    private final Set<UUID> positionRefreshes = ConcurrentHashMap.newKeySet();
+    // Partner pairs of active sessions, checked against the max trade distance in batches
+    private final TradeDistanceTracker distances = new TradeDistanceTracker();
+    // Trade zones compiled into a chunk-keyed table (replaced as a whole on reload)
+    private volatile TradeZoneTable zones = TradeZoneTable.empty();
+
     // Active trading pages for UI updates (player UUID -> callback)
     private final Map<UUID, Runnable> activeTradingPages = new ConcurrentHashMap<>();
     // Player UUID -> PlayerRef mapping for logging
@@ -49,6 +84,18 @@ public class TradeManager {
     private final Map<UUID, StatusUpdateCallback> tradingPageStatusCallbacks = new ConcurrentHashMap<>();
     // Player UUID -> TradingPage instance for closing both UIs
     private final Map<UUID, org.toskan4134.easytrade.ui.TradingPage> tradingPageInstances = new ConcurrentHashMap<>();
+    // Player UUID -> cached page model, kept while the session lives so the UI reopens instantly
+    private final Map<UUID, TradingPageModel> pageModels = new ConcurrentHashMap<>();
+    // Item quantities held by each player's offer
+    private final ReservationLedger reservations = new ReservationLedger();
+    // Per-player token buckets for requests, offer edits and accept toggles
+    private final ActionRateLimiter rateLimiter = new ActionRateLimiter();
+    // Limits on new requests, sessions and executions, and the admin pause gate
+    private final AdmissionControl admission = new AdmissionControl();
+    // Deadline heap of active sessions, swept for sessions idle past their state's timeout
+    private final IdleSessionReaper idleReaper = new IdleSessionReaper();
+    // Trading pages not dismissed yet, checked for pages that outlive their session
+    private final PageLeakDetector pageLeaks = new PageLeakDetector();
 
     /**
      * Callback interface for updating trading page status.
@@ -59,10 +106,20 @@ public class TradeManager {
 
     public TradeManager(TradingPlugin plugin) {
         this.plugin = plugin;
-        this.activeSessions = new ConcurrentHashMap<>();
-        this.playerToSession = new ConcurrentHashMap<>();
-        this.pendingRequests = new ConcurrentHashMap<>();
-        this.scheduler = Executors.newScheduledThreadPool(2);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        setDirectory(new LoopbackTradeDirectory(TradeConstants.LOCAL_NODE_ID));
+        reloadZones();
+        scheduler.scheduleAtFixedRate(this::pumpShards, TradeConstants.SHARD_TICK_INTERVAL_MS,
+            TradeConstants.SHARD_TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::refreshPlayerPositions, TradeConstants.SHARD_TICK_INTERVAL_MS,
+            TradeConstants.SHARD_TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        long distanceCheckInterval = TradeConstants.SHARD_TICK_INTERVAL_MS * TradeConstants.DISTANCE_CHECK_INTERVAL_TICKS;
+        scheduler.scheduleAtFixedRate(this::checkTradeDistances, distanceCheckInterval,
+            distanceCheckInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::sweepIdleSessions, TradeConstants.IDLE_SWEEP_INTERVAL_MS,
+            TradeConstants.IDLE_SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::checkPageLeaks, TradeConstants.PAGE_LEAK_CHECK_INTERVAL_MS,
+            TradeConstants.PAGE_LEAK_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
 
@@ -92,7 +149,7 @@ public class TradeManager {
         if (tradingPage != null) {
             tradingPageInstances.put(playerId, tradingPage);
         }
-        Common.logDebug(LOGGER, "Registered trading page for " + player.getUsername() + " (UUID: " + playerId + ")");
+        Common.logDebug(LOGGER, DebugCategory.UI, "Registered trading page for {} (UUID: {})", player.getUsername(), playerId);
     }
 
     /**
@@ -105,7 +162,22 @@ public class TradeManager {
         playerEntityRefs.remove(playerId);
         tradingPageStatusCallbacks.remove(playerId);
         tradingPageInstances.remove(playerId);
-        Common.logDebug(LOGGER, "Unregistered trading page for " + player.getUsername() + " (UUID: " + playerId + ")");
+        Common.logDebug(LOGGER, DebugCategory.UI, "Unregistered trading page for {} (UUID: {})", player.getUsername(), playerId);
+    }
+
+    /**
+     * Get the cached page model for a player's current session.
+     * A new model is created when the player has none or it belongs to an older session.
+     * Players without a session get a detached model that is not cached.
+     */
+    public TradingPageModel getPageModel(PlayerRef player) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            return new TradingPageModel(null);
+        }
+        UUID sessionId = optSession.get().getSessionId();
+        return pageModels.compute(player.getUuid(), (id, model) ->
+            model != null && sessionId.equals(model.getSessionId()) ? model : new TradingPageModel(sessionId));
     }
 
     /**
@@ -187,7 +259,8 @@ public class TradeManager {
         UUID initiatorId = session.getInitiator().getUuid();
         org.toskan4134.easytrade.ui.TradingPage initiatorPage = tradingPageInstances.get(initiatorId);
         if (initiatorPage != null) {
-            closePlayerUI(session.getInitiator(), initiatorPage, "initiator");
+            // Pages can only be closed from their player's world thread
+            runOnPlayerWorld(session.getInitiator(), () -> closePlayerUI(session.getInitiator(), initiatorPage, "initiator"));
         }
 
         // Close target's UI (if different player - not test mode)
@@ -195,7 +268,7 @@ public class TradeManager {
             UUID targetId = session.getTarget().getUuid();
             org.toskan4134.easytrade.ui.TradingPage targetPage = tradingPageInstances.get(targetId);
             if (targetPage != null) {
-                closePlayerUI(session.getTarget(), targetPage, "target");
+                runOnPlayerWorld(session.getTarget(), () -> closePlayerUI(session.getTarget(), targetPage, "target"));
             }
         }
     }
@@ -208,13 +281,13 @@ public class TradeManager {
     private void closePlayerUI(PlayerRef player, org.toskan4134.easytrade.ui.TradingPage tradingPage, String role) {
         try {
             tradingPage.closeUI();
-            Common.logDebug(LOGGER, "Closed trading UI for " + role + " " + player.getUsername());
+            Common.logDebug(LOGGER, DebugCategory.UI, "Closed trading UI for {} {}", role, player.getUsername());
         } catch (IllegalStateException e) {
             if (e.getMessage() != null && e.getMessage().contains("Assert not in thread")) {
                 // Threading issue - can't close UI from this thread
                 // The UI will close naturally when player interacts with it or manually closes it
-                Common.logDebug(LOGGER, "Skipped UI close for " + role + " " + player.getUsername() +
-                    " (wrong thread - will close naturally)");
+                Common.logDebug(LOGGER, DebugCategory.UI, "Skipped UI close for {} {} (wrong thread - will close naturally)",
+                    role, player.getUsername());
             } else {
                 LOGGER.atWarning().withCause(e).log("Error closing " + role + "'s trading page");
             }
@@ -225,9 +298,10 @@ public class TradeManager {
 
     /**
      * Called when a player's inventory changes while in a trade.
-     * Handles auto-unaccept and offer validation directly, regardless of UI state.
+     * Acceptances are only revoked when the inventory can no longer back a reserved quantity;
+     * the offer is then shrunk to what is still held. Other changes only refresh the UIs.
      */
-    public void onPlayerInventoryChanged(PlayerRef player) {
+    public void onPlayerInventoryChanged(PlayerRef player, Inventory inventory) {
         UUID playerId = player.getUuid();
 
         // First, handle the trade logic directly (regardless of UI state)
@@ -235,18 +309,9 @@ public class TradeManager {
         if (optSession.isPresent()) {
             TradeSession session = optSession.get();
 
-            // Auto-unaccept if player had accepted
-            if (session.hasAccepted(player)) {
-                boolean revoked = session.revokeAccept(player);
-                if (revoked) {
-                    // Use UI status instead of chat
-                    StatusUpdateCallback callback = tradingPageStatusCallbacks.get(playerId);
-                    if (callback != null) {
-                        callback.setStatus(TradeMessages.uiAcceptRevoked(), "#ffcc00");
-                    }
-                    // Notify partner
-                    notifyPartnerStatus(player, TradeMessages.uiPartnerAcceptRevoked(), "#ffcc00");
-                }
+            if (enforceReservations(player, inventory)) {
+                // Both UIs were already refreshed by the offer change
+                return;
             }
 
             // Notify BOTH players' UIs about the change
@@ -264,6 +329,116 @@ public class TradeManager {
         }
     }
 
+    /**
+     * Check the inventory against the player's reserved quantities. If a reservation is no longer
+     * backed, all acceptances are revoked and the offer is shrunk to what the inventory still holds.
+     * A side whose offer is held in escrow has nothing left to back and is never checked.
+     * @return true if the offer was changed
+     */
+    public boolean enforceReservations(PlayerRef player, Inventory inventory) {
+        UUID playerId = player.getUuid();
+        Map<String, Integer> unbacked = reservations.findUnbacked(playerId, inventory);
+        if (unbacked.isEmpty()) {
+            return false;
+        }
+
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            reservations.release(playerId);
+            return false;
+        }
+        TradeSession session = optSession.get();
+        if (session.hasEscrow(session.isInitiator(player))) {
+            // The offered items already left the inventory
+            reservations.release(playerId);
+            return false;
+        }
+
+        Common.logDebug(LOGGER, DebugCategory.INVENTORY, "Reserved items no longer backed for {}: {}", player.getUsername(), unbacked);
+        boolean hadAccepted = session.hasAccepted(player);
+        boolean partnerHadAccepted = !session.isTestMode() && session.hasAccepted(session.getOtherPlayer(player));
+
+        // Unlock the offers first, then shrink to the backed quantities
+        if (!session.revokeAllAcceptances()) {
+            // Executing or already over: the execution verifies the items itself
+            return false;
+        }
+        shrinkOfferToBacked(session, player, unbacked);
+        onOfferChanged(player);
+
+        if (hadAccepted) {
+            sendStatus(playerId, TradeMessages.forPlayer(player).uiAcceptRevoked(), TradeConstants.COLOR_WARNING);
+        }
+        if (partnerHadAccepted) {
+            notifyPartnerStatus(player, TradeMessages.forPlayer(session.getOtherPlayer(player)).uiPartnerAcceptRevoked(), TradeConstants.COLOR_WARNING);
+        }
+        return true;
+    }
+
+    /**
+     * Check that the inventory still backs everything the player has reserved.
+     */
+    public boolean isOfferBacked(PlayerRef player, Inventory inventory) {
+        return reservations.findUnbacked(player.getUuid(), inventory).isEmpty();
+    }
+
+    /**
+     * Reduce or remove offered stacks so the offer matches the quantities still held.
+     * @param backed itemId -> quantity the inventory still backs
+     */
+    private void shrinkOfferToBacked(TradeSession session, PlayerRef player, Map<String, Integer> backed) {
+        TradeOffer offer = session.getOfferFor(player);
+        if (offer == null) return;
+
+        // Keep stacks in order until each item's backed quantity is used up
+        Map<String, Integer> budget = new HashMap<>(backed);
+        List<ItemStack> items = offer.getItems();
+        int[] keep = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            ItemStack item = items.get(i);
+            Integer remaining = item == null || item.isEmpty() ? null : budget.get(item.getItem().getId());
+            if (remaining == null) {
+                keep[i] = -1;
+                continue;
+            }
+            keep[i] = Math.min(item.getQuantity(), remaining);
+            budget.put(item.getItem().getId(), remaining - keep[i]);
+        }
+
+        // Apply from the end so removals don't shift the remaining indices
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (keep[i] < 0) continue;
+            if (keep[i] == 0) {
+                offer.removeItem(i);
+            } else if (keep[i] < items.get(i).getQuantity()) {
+                offer.setItemQuantity(i, keep[i]);
+            }
+        }
+
+        UUID playerId = player.getUuid();
+        for (Map.Entry<String, Integer> entry : backed.entrySet()) {
+            if (entry.getValue() <= 0) {
+                sendStatus(playerId, TradeMessages.forPlayer(player).actionRemovedFromOffer(entry.getKey()), TradeConstants.COLOR_WARNING);
+            } else {
+                sendStatus(playerId, TradeMessages.forPlayer(player).actionReducedInOffer(entry.getKey(), entry.getValue()), TradeConstants.COLOR_WARNING);
+            }
+        }
+    }
+
+    /**
+     * Show a status message on a player's own trading page, if open.
+     */
+    private void sendStatus(UUID playerId, String message, String color) {
+        StatusUpdateCallback callback = tradingPageStatusCallbacks.get(playerId);
+        if (callback != null) {
+            try {
+                callback.setStatus(message, color);
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error updating trading page status");
+            }
+        }
+    }
+
     // ===== TEST MODE =====
 
     /**
@@ -281,23 +456,117 @@ public class TradeManager {
             return new TradeRequestResult(false, "You are already in a trade");
         }
 
+        TradeShard shard = getShard(player);
+        if (shard == null) {
+            return new TradeRequestResult(false, "You are not in a world");
+        }
+
+        // Test sessions count against the session limit like any other
+        AdmissionControl.Admission admitted = admission.admitSession();
+        if (!admitted.isAdmitted()) {
+            return new TradeRequestResult(false, "Trade session not admitted", null,
+                admitted.getDenialMessage(TradeMessages.forPlayer(player)));
+        }
+
         // Create test session (player is both initiator and target)
         TradeSession session = new TradeSession(plugin, player, player, true);
         session.acceptRequest(); // Auto-accept in test mode
 
         // Register as active session
-        activeSessions.put(session.getSessionId(), session);
-        playerToSession.put(player.getUuid(), session.getSessionId());
+        shard.addSession(session);
+        sessionDirectory.put(player.getUuid(), shard);
+        idleReaper.add(session);
 
-        Common.logDebug(LOGGER, "Test trade session " + session.getSessionId() + " started");
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Test trade session {} started", session.getSessionId());
 
         return new TradeRequestResult(true, "Test session started", session);
     }
 
+    // ===== RATE LIMITS =====
+
+    /**
+     * Take a token from a player's bucket for an action.
+     * Callers should tell the player to slow down on {@link ActionRateLimiter.Outcome#LIMITED}
+     * and drop the action silently on {@link ActionRateLimiter.Outcome#LIMITED_QUIET}.
+     */
+    public ActionRateLimiter.Outcome tryAction(PlayerRef player, ActionRateLimiter.Action action) {
+        int capacity;
+        switch (action) {
+            case REQUEST:
+                capacity = Common.getRequestRateLimit();
+                break;
+            case OFFER_EDIT:
+                capacity = Common.getOfferEditRateLimit();
+                break;
+            default:
+                capacity = Common.getAcceptRateLimit();
+                break;
+        }
+        ActionRateLimiter.Outcome outcome = rateLimiter.tryAcquire(player.getUuid(), action, capacity, System.currentTimeMillis());
+        if (!outcome.isAllowed()) {
+            Common.logDebug(LOGGER, DebugCategory.REQUESTS, "Rate limited {} for {}", action, player.getUsername());
+        }
+        return outcome;
+    }
+
+    // ===== ADMISSION CONTROL =====
+
+    /**
+     * Pause trading: new requests, accepted requests and confirms are refused until resumed.
+     * @return false if trading was already paused
+     */
+    public boolean pauseTrading() {
+        boolean changed = admission.pause();
+        if (changed) {
+            LOGGER.atInfo().log("Trading paused (" + getActiveSessionCount() + " active sessions, "
+                + getTotalPendingRequestCount() + " pending requests)");
+        }
+        return changed;
+    }
+
+    /**
+     * Resume trading after {@link #pauseTrading()}.
+     * @return false if trading was not paused
+     */
+    public boolean resumeTrading() {
+        boolean changed = admission.resume();
+        if (changed) {
+            LOGGER.atInfo().log("Trading resumed");
+        }
+        return changed;
+    }
+
+    public boolean isTradingPaused() {
+        return admission.isPaused();
+    }
+
+    /**
+     * Get the number of active sessions across all worlds.
+     */
+    public int getActiveSessionCount() {
+        int count = 0;
+        for (TradeShard shard : shards.values()) {
+            count += shard.getSessionCount();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of pending requests across all worlds.
+     */
+    public int getTotalPendingRequestCount() {
+        int count = 0;
+        for (TradeShard shard : shards.values()) {
+            count += shard.getPendingRequestCount();
+        }
+        return count;
+    }
+
     // ===== TRADE REQUEST FLOW =====
 
     /**
      * Initiate a trade request from one player to another.
+     * The request joins the target's inbox; it is refused if the inbox is full.
      */
     public TradeRequestResult requestTrade(PlayerRef initiator, PlayerRef target) {
         UUID initiatorId = initiator.getUuid();
@@ -314,72 +583,167 @@ public class TradeManager {
         }
 
         // Check if there's already a pending request to this target
-        if (pendingRequests.containsKey(targetId)) {
-            TradeSession existingRequest = pendingRequests.get(targetId);
-            if (existingRequest.getInitiator().getUuid().equals(initiatorId)) {
-                return new TradeRequestResult(false, "You already have a pending request to this player");
-            }
+        if (getPendingRequest(targetId, initiatorId) != null) {
+            return new TradeRequestResult(false, "You already have a pending request to this player");
         }
 
         // Check if target has sent a request to initiator
-        TradeSession reverseRequest = pendingRequests.get(initiatorId);
-        if (reverseRequest != null && reverseRequest.getInitiator().getUuid().equals(targetId)) {
+        if (getPendingRequest(initiatorId, targetId) != null) {
             // Auto-accept the reverse request
-            return acceptTradeRequest(initiator);
+            return acceptTradeRequest(initiator, targetId);
+        }
+
+        // Takes a request slot, given back by the shard when the request leaves its inbox
+        AdmissionControl.Admission admitted = admission.admitRequest();
+        if (!admitted.isAdmitted()) {
+            Common.logDebug(LOGGER, DebugCategory.REQUESTS, "Request from {} not admitted: {}", initiator.getUsername(), admitted);
+            return new TradeRequestResult(false, "Trade request not admitted", null,
+                admitted.getDenialMessage(TradeMessages.forPlayer(initiator)));
+        }
+
+        // The target's inbox lives in the shard of the world they were in when it was created
+        TradeShard shard = requestDirectory.get(targetId);
+        if (shard == null) {
+            shard = getShard(target);
+            if (shard == null) {
+                shard = getShard(initiator);
+            }
+            if (shard == null) {
+                admission.releaseRequests(1);
+                return new TradeRequestResult(false, "That player is not available");
+            }
+            TradeShard existing = requestDirectory.putIfAbsent(targetId, shard);
+            if (existing != null) {
+                shard = existing;
+            }
         }
 
         // Create new trade session
         TradeSession session = new TradeSession(plugin, initiator, target);
-        pendingRequests.put(targetId, session);
+        if (!shard.addRequest(targetId, session, Common.getMaxPendingRequests())) {
+            admission.releaseRequests(1);
+            return new TradeRequestResult(false, "That player has too many pending requests");
+        }
+        outbox.computeIfAbsent(initiatorId, id -> ConcurrentHashMap.newKeySet()).add(targetId);
 
         // Schedule timeout
-        scheduler.schedule(() -> {
-            TradeSession pending = pendingRequests.remove(targetId);
-            if (pending != null && pending.equals(session)) {
-                initiator.sendMessage(TradeMessages.requestExpired());
-                target.sendMessage(TradeMessages.requestExpired());
+        TradeShard inboxShard = shard;
+        inboxShard.schedule(() -> {
+            if (inboxShard.removeRequest(targetId, session)) {
+                removeFromOutbox(initiatorId, targetId);
+                initiator.sendMessage(TradeMessages.forPlayer(initiator).requestExpired());
+                target.sendMessage(TradeMessages.forPlayer(target).requestExpired());
             }
-        }, Common.getRequestTimeoutMs(), TimeUnit.MILLISECONDS);
+        }, session.getConfig().getRequestTimeoutMs());
 
-        Common.logDebug(LOGGER, "Trade request created: " + session.getSessionId());
+        Common.logDebug(LOGGER, DebugCategory.REQUESTS, "Trade request created: {}", session.getSessionId());
 
-        return new TradeRequestResult(true, "Trade request sent",session);
+        return new TradeRequestResult(true, "Trade request sent", session);
     }
 
     /**
-     * Accept a pending trade request.
+     * Accept the pending trade request of a player who has exactly one.
      */
     public TradeRequestResult acceptTradeRequest(PlayerRef target) {
+        RequestInbox inbox = getInbox(target.getUuid());
+        TradeSession only = inbox != null ? inbox.getOnly() : null;
+        if (only == null) {
+            return new TradeRequestResult(false, inbox != null && !inbox.isEmpty()
+                ? "Several pending trade requests" : "No pending trade request");
+        }
+        return acceptTradeRequest(target, only.getInitiator().getUuid());
+    }
+
+    /**
+     * Accept the pending trade request sent by the named player.
+     */
+    public TradeRequestResult acceptTradeRequest(PlayerRef target, String initiatorName) {
+        UUID initiatorId = findRequestInitiator(target, initiatorName);
+        if (initiatorId == null) {
+            return new TradeRequestResult(false, "No pending trade request from that player");
+        }
+        return acceptTradeRequest(target, initiatorId);
+    }
+
+    private TradeRequestResult acceptTradeRequest(PlayerRef target, UUID initiatorId) {
         UUID targetId = target.getUuid();
-        TradeSession session = pendingRequests.remove(targetId);
+
+        // Zones are checked before taking the request, so it can still be accepted elsewhere
+        TradeSession pending = getPendingRequest(targetId, initiatorId);
+        if (pending != null) {
+            TradeZoneTable.Check zoneCheck = checkTradeZone(pending.getInitiator(), target);
+            if (!zoneCheck.allowed) {
+                return new TradeRequestResult(false, "Trading is not allowed here", null,
+                    zoneCheck.getDenialMessage(TradeMessages.forPlayer(target)));
+            }
+        }
+
+        // Over the session limit the request stays pending, so it can be accepted once a slot frees up
+        // Takes a session slot, given back by the shard when the session ends
+        AdmissionControl.Admission admitted = admission.admitSession();
+        if (!admitted.isAdmitted()) {
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Session for {} not admitted: {}", target.getUsername(), admitted);
+            return new TradeRequestResult(false, "Trade session not admitted", null,
+                admitted.getDenialMessage(TradeMessages.forPlayer(target)));
+        }
+
+        TradeShard shard = requestDirectory.get(targetId);
+        TradeSession session = shard != null ? shard.removeRequest(targetId, initiatorId) : null;
         if (session == null) {
+            admission.releaseSessions(1);
             return new TradeRequestResult(false, "No pending trade request");
         }
+        removeFromOutbox(initiatorId, targetId);
+
+        // The initiator may have started another trade since sending the request
+        if (isInTrade(target) || isInTrade(session.getInitiator())) {
+            admission.releaseSessions(1);
+            return new TradeRequestResult(false, "That player is already in a trade");
+        }
 
-        // Move to active session
+        // Move to active session, in the shard that held the request
         session.acceptRequest();
-        activeSessions.put(session.getSessionId(), session);
-        playerToSession.put(session.getInitiator().getUuid(), session.getSessionId());
-        playerToSession.put(targetId, session.getSessionId());
+        shard.addSession(session);
+        sessionDirectory.put(session.getInitiator().getUuid(), shard);
+        sessionDirectory.put(targetId, shard);
+        distances.add(session);
+        idleReaper.add(session);
 
-        Common.logDebug(LOGGER, "Trade session " + session.getSessionId() + " is now active");
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} is now active", session.getSessionId());
 
         return new TradeRequestResult(true, "Trade started", session);
     }
 
     /**
-     * Decline a pending trade request.
+     * Decline the pending trade request of a player who has exactly one.
      */
     public boolean declineTradeRequest(PlayerRef target) {
-        TradeSession session = pendingRequests.remove(target.getUuid());
+        RequestInbox inbox = getInbox(target.getUuid());
+        TradeSession only = inbox != null ? inbox.getOnly() : null;
+        return only != null && declineTradeRequest(target, only.getInitiator().getUuid());
+    }
+
+    /**
+     * Decline the pending trade request sent by the named player.
+     */
+    public boolean declineTradeRequest(PlayerRef target, String initiatorName) {
+        UUID initiatorId = findRequestInitiator(target, initiatorName);
+        return initiatorId != null && declineTradeRequest(target, initiatorId);
+    }
+
+    private boolean declineTradeRequest(PlayerRef target, UUID initiatorId) {
+        TradeShard shard = requestDirectory.get(target.getUuid());
+        TradeSession session = shard != null ? shard.removeRequest(target.getUuid(), initiatorId) : null;
         if (session == null) {
             return false;
         }
+        removeFromOutbox(initiatorId, target.getUuid());
 
-        session.getInitiator().sendMessage(TradeMessages.requestDeclined());
-        target.sendMessage(TradeMessages.requestDeclined());
+        PlayerRef initiator = session.getInitiator();
+        initiator.sendMessage(TradeMessages.forPlayer(initiator).requestDeclined());
+        target.sendMessage(TradeMessages.forPlayer(target).requestDeclined());
 
-        Common.logDebug(LOGGER, "Trade request " + session.getSessionId() + " was declined");
+        Common.logDebug(LOGGER, DebugCategory.REQUESTS, "Trade request {} was declined", session.getSessionId());
         return true;
     }
 
@@ -389,206 +753,1083 @@ public class TradeManager {
      * Get a player's active trade session.
      */
     public Optional<TradeSession> getSession(PlayerRef player) {
-        UUID sessionId = playerToSession.get(player.getUuid());
-        if (sessionId == null) {
+        TradeShard shard = sessionDirectory.get(player.getUuid());
+        if (shard == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(activeSessions.get(sessionId));
+        return Optional.ofNullable(shard.getSession(player.getUuid()));
     }
 
     /**
-     * Get a session by ID.
+     * Get a session by ID (looks through every shard).
      */
     public Optional<TradeSession> getSessionById(UUID sessionId) {
-        return Optional.ofNullable(activeSessions.get(sessionId));
+        for (TradeShard shard : shards.values()) {
+            TradeSession session = shard.getSessionById(sessionId);
+            if (session != null) {
+                return Optional.of(session);
+            }
+        }
+        return Optional.empty();
     }
 
     /**
      * Check if a player is in an active trade.
      */
     public boolean isInTrade(PlayerRef player) {
-        return playerToSession.containsKey(player.getUuid());
+        return sessionDirectory.containsKey(player.getUuid());
     }
 
     /**
      * Check if player has a pending request.
      */
     public boolean hasPendingRequest(PlayerRef player) {
-        return pendingRequests.containsKey(player.getUuid());
+        return getPendingRequestCount(player) > 0;
+    }
+
+    /**
+     * Get the number of pending requests sent to a player.
+     */
+    public int getPendingRequestCount(PlayerRef player) {
+        RequestInbox inbox = getInbox(player.getUuid());
+        return inbox != null ? inbox.size() : 0;
     }
 
     /**
-     * Get pending request for a player.
+     * Get the oldest pending request sent to a player.
      */
     public Optional<TradeSession> getPendingRequest(PlayerRef target) {
-        return Optional.ofNullable(pendingRequests.get(target.getUuid()));
+        RequestInbox inbox = getInbox(target.getUuid());
+        return Optional.ofNullable(inbox != null ? inbox.getOldest() : null);
     }
 
-    // ===== TRADE ACTIONS =====
+    private RequestInbox getInbox(UUID targetId) {
+        TradeShard shard = requestDirectory.get(targetId);
+        return shard != null ? shard.getInbox(targetId) : null;
+    }
+
+    private TradeSession getPendingRequest(UUID targetId, UUID initiatorId) {
+        RequestInbox inbox = getInbox(targetId);
+        return inbox != null ? inbox.get(initiatorId) : null;
+    }
+
+    private UUID findRequestInitiator(PlayerRef target, String initiatorName) {
+        RequestInbox inbox = getInbox(target.getUuid());
+        return inbox != null ? inbox.findInitiator(initiatorName) : null;
+    }
+
+    private void removeFromOutbox(UUID initiatorId, UUID targetId) {
+        outbox.computeIfPresent(initiatorId, (id, targets) -> {
+            targets.remove(targetId);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
 
     /**
-     * Called when a player's offer changes.
-     * Notifies both trading pages to refresh their UI.
+     * Withdraw every request a player has sent, using the outbox index.
+     * @return the withdrawn requests
      */
-    public void onOfferChanged(PlayerRef player) {
-        Optional<TradeSession> optSession = getSession(player);
-        if (optSession.isPresent()) {
-            TradeSession session = optSession.get();
-            session.onOfferChanged(player);
-            // Notify both UIs about the offer change
-            notifyBothTradingPages(session);
+    private List<TradeSession> withdrawOutgoingRequests(UUID initiatorId) {
+        Set<UUID> targets = outbox.remove(initiatorId);
+        if (targets == null) {
+            return Collections.emptyList();
+        }
+        List<TradeSession> withdrawn = new ArrayList<>(targets.size());
+        for (UUID targetId : targets) {
+            TradeShard shard = requestDirectory.get(targetId);
+            TradeSession session = shard != null ? shard.removeRequest(targetId, initiatorId) : null;
+            if (session != null) {
+                withdrawn.add(session);
+            }
         }
+        return withdrawn;
     }
 
     /**
-     * Player accepts their current trade offer.
+     * Drop every request sent to a player.
+     * @return the dropped requests
      */
-    public boolean acceptTrade(PlayerRef player) {
-        Optional<TradeSession> optSession = getSession(player);
-        if (optSession.isEmpty()) {
-            return false;
+    private List<TradeSession> dropIncomingRequests(UUID targetId) {
+        TradeShard shard = requestDirectory.get(targetId);
+        if (shard == null) {
+            return Collections.emptyList();
         }
-
-        TradeSession session = optSession.get();
-        boolean accepted = session.accept(player);
-
-        if (accepted) {
-            // Notify both UIs about the state change
-            notifyBothTradingPages(session);
-
-            if (session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-                // Start countdown
-                startCountdown(session);
-            }
+        List<TradeSession> dropped = shard.removeInbox(targetId);
+        for (TradeSession session : dropped) {
+            removeFromOutbox(session.getInitiator().getUuid(), targetId);
         }
+        return dropped;
+    }
 
-        return accepted;
+    // ===== SHARDS =====
+
+    /**
+     * Get (or create) the shard of a world.
+     */
+    private TradeShard getShard(World world) {
+        return shards.computeIfAbsent(world.getName(), name -> new TradeShard(world, admission));
     }
 
     /**
-     * Player revokes their acceptance.
+     * Get the shard of the world a player is currently in, or null if they are in none.
      */
-    public boolean revokeAccept(PlayerRef player) {
-        Optional<TradeSession> optSession = getSession(player);
-        if (optSession.isEmpty()) {
-            return false;
-        }
+    private TradeShard getShard(PlayerRef player) {
+        World world = getWorld(player.getReference());
+        return world != null ? getShard(world) : null;
+    }
 
-        TradeSession session = optSession.get();
-        boolean revoked = session.revokeAccept(player);
+    /**
+     * Get the shard holding an active session, or null once the session has ended.
+     */
+    private TradeShard getShard(TradeSession session) {
+        TradeShard shard = sessionDirectory.get(session.getInitiator().getUuid());
+        return shard != null && shard.getSessionById(session.getSessionId()) == session ? shard : null;
+    }
 
-        if (revoked) {
-            // Notify both UIs about the state change
-            notifyBothTradingPages(session);
+    /**
+     * Let every shard post a tick to its world if it has due work. Runs on the ticker thread.
+     */
+    private void pumpShards() {
+        long now = System.currentTimeMillis();
+        for (TradeShard shard : shards.values()) {
+            try {
+                shard.pump(now);
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error pumping trade shard of world " + shard.getWorldName());
+            }
         }
-
-        return revoked;
     }
 
     /**
-     * Start the 3-second countdown before trade execution.
+     * Rebuild the player position grids, one batch per world. Runs on the ticker thread, which only
+     * groups the players by world; each grid is rebuilt on its world's thread, where the players'
+     * transforms may be read. A world still busy with its last rebuild is skipped this tick.
      */
-    private void startCountdown(TradeSession session) {
-        ScheduledFuture<?> countdownTask = scheduler.schedule(() -> {
-            // Verify session is still valid and in countdown state
-            TradeSession current = activeSessions.get(session.getSessionId());
-            if (current != null &&
-                current.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN &&
-                current.isCountdownComplete()) {
-
-                // Notify that confirm is now available
-                current.broadcastMessage(TradeMessages.uiCountdownReady());
+    private void refreshPlayerPositions() {
+        try {
+            Universe universe = Universe.get();
+            List<PlayerRef> players = universe != null ? universe.getPlayers() : null;
+            Map<UUID, List<PlayerRef>> byWorld = new HashMap<>();
+            if (players != null) {
+                for (PlayerRef player : players) {
+                    UUID worldId = player.getWorldUuid();
+                    if (worldId != null) {
+                        byWorld.computeIfAbsent(worldId, id -> new ArrayList<>()).add(player);
+                    }
+                }
             }
-        }, Common.getCountdownDurationMs(), TimeUnit.MILLISECONDS);
+            playerPositions.retainWorlds(byWorld.keySet());
 
-        session.setCountdownTask(countdownTask);
+            for (Map.Entry<UUID, List<PlayerRef>> entry : byWorld.entrySet()) {
+                UUID worldId = entry.getKey();
+                World world = universe.getWorld(worldId);
+                if (world == null || !positionRefreshes.add(worldId)) {
+                    continue;
+                }
+                try {
+                    world.execute(() -> {
+                        try {
+                            playerPositions.rebuild(worldId, entry.getValue());
+                        } finally {
+                            positionRefreshes.remove(worldId);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    positionRefreshes.remove(worldId);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.atWarning().withCause(e).log("Error refreshing player positions");
+        }
     }
 
     /**
-     * Execute the trade (called when player clicks confirm after countdown).
+     * Check the partners of every active session against the max trade distance in one pass.
+     * Runs on the ticker thread every few ticks; the resulting actions run on the world threads.
      */
-    public TradeSession.TradeResult confirmTrade(PlayerRef player,
-                                                  Store<EntityStore> store,
-                                                  Ref<EntityStore> playerEntityRef) {
-        Optional<TradeSession> optSession = getSession(player);
-        if (optSession.isEmpty()) {
-            return new TradeSession.TradeResult(false, "No active trade session");
+    private void checkTradeDistances() {
+        int maxDistance = Common.getMaxTradeDistance();
+        if (maxDistance <= 0 || distances.size() == 0) {
+            return;
         }
 
-        TradeSession session = optSession.get();
-
-        if (!session.isCountdownComplete()) {
-            return new TradeSession.TradeResult(false, "Countdown not complete");
+        List<TradeSession> warned = new ArrayList<>();
+        List<TradeSession> outOfRange = new ArrayList<>();
+        List<TradeSession> expired = new ArrayList<>();
+        try {
+            distances.check(playerPositions, maxDistance, System.currentTimeMillis(), TradeConstants.DISTANCE_GRACE_MS,
+                warned, outOfRange, expired);
+        } catch (Exception e) {
+            LOGGER.atWarning().withCause(e).log("Error checking trade distances");
+            return;
         }
 
-        // Get the other player's entity ref (this would need to be stored or retrieved)
-        PlayerRef otherPlayer = session.getOtherPlayer(player);
-        Ref<EntityStore> otherEntityRef = getPlayerEntityRef(otherPlayer);
-
-        if (otherEntityRef == null) {
-            return new TradeSession.TradeResult(false, "Other player not available");
+        for (TradeSession session : warned) {
+            runOnWorldThread(session, () -> revokeOutOfRange(session, maxDistance, true));
         }
-
-        // Determine which ref is initiator and which is target
-        Ref<EntityStore> initiatorRef, targetRef;
-        if (player.getUuid().equals(session.getInitiator().getUuid())) {
-            initiatorRef = playerEntityRef;
-            targetRef = otherEntityRef;
-        } else {
-            initiatorRef = otherEntityRef;
-            targetRef = playerEntityRef;
+        for (TradeSession session : outOfRange) {
+            runOnWorldThread(session, () -> revokeOutOfRange(session, maxDistance, false));
         }
+        for (TradeSession session : expired) {
+            runOnWorldThread(session, () -> cancelOutOfRange(session));
+        }
+    }
 
-        // Execute the trade
-        TradeSession.TradeResult result = session.execute(store, initiatorRef, targetRef);
+    /**
+     * Revoke the acceptances of a session whose partners moved apart.
+     * @param warn Whether to warn both players in chat (first time out of range)
+     */
+    private void revokeOutOfRange(TradeSession session, int maxDistance, boolean warn) {
+        if (getShard(session) == null) return;
+
+        PlayerRef initiator = session.getInitiator();
+        PlayerRef target = session.getTarget();
+        if (warn) {
+            initiator.sendMessage(TradeMessages.forPlayer(initiator).tooFarFromPartner(target.getUsername(), maxDistance));
+            target.sendMessage(TradeMessages.forPlayer(target).tooFarFromPartner(initiator.getUsername(), maxDistance));
+        }
 
-        if (result.success) {
-            // Clean up session (closes both UIs)
-            endSession(session);
-            // Notify both players via chat
-            session.getInitiator().sendMessage(TradeMessages.statusCompleted());
-            if (!session.isTestMode()) {
-                session.getTarget().sendMessage(TradeMessages.statusCompleted());
-            }
-        } else {
-            // Trade failed - notify both trading pages to refresh UI (acceptances were revoked)
-            // Status messages are handled by TradingPage based on result.cause
+        TradeState state = session.getState();
+        if (state == TradeState.ONE_ACCEPTED || state == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
+            session.revokeAllAcceptances();
+            returnEscrow(session);
             notifyBothTradingPages(session);
+            sendStatus(initiator.getUuid(), TradeMessages.forPlayer(initiator).uiTooFarFromPartner(maxDistance), TradeConstants.COLOR_WARNING);
+            sendStatus(target.getUuid(), TradeMessages.forPlayer(target).uiTooFarFromPartner(maxDistance), TradeConstants.COLOR_WARNING);
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - partners out of range, acceptances revoked",
+                session.getSessionId());
         }
+    }
+
+    /**
+     * Cancel a session whose partners stayed apart for the whole grace period.
+     */
+    private void cancelOutOfRange(TradeSession session) {
+        if (getShard(session) == null || !session.cancel(null)) return;
 
-        return result;
+        endSession(session);
+        PlayerRef initiator = session.getInitiator();
+        PlayerRef target = session.getTarget();
+        initiator.sendMessage(TradeMessages.forPlayer(initiator).tooFarCancelled());
+        target.sendMessage(TradeMessages.forPlayer(target).tooFarCancelled());
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} cancelled, partners out of range", session.getSessionId());
     }
 
     /**
-     * Cancel an active trade.
+     * Check if the partners of a session are within the max trade distance of each other.
+     * Always true when no max distance is configured and for test sessions.
      */
-    public boolean cancelTrade(PlayerRef player) {
-        Optional<TradeSession> optSession = getSession(player);
-        if (optSession.isEmpty()) {
-            // Check pending requests
-            TradeSession pending = pendingRequests.remove(player.getUuid());
-            if (pending != null) {
-                pending.cancel(player);
-                return true;
-            }
-            return false;
+    public boolean isWithinTradeDistance(TradeSession session) {
+        int maxDistance = Common.getMaxTradeDistance();
+        if (maxDistance <= 0 || session.isTestMode()) {
+            return true;
         }
+        return TradeDistanceTracker.isInRange(playerPositions, session.getInitiator(), session.getTarget(),
+            (double) maxDistance * maxDistance);
+    }
 
-        TradeSession session = optSession.get();
-        session.cancel(player);
-        endSession(session);
+    // ===== IDLE SESSIONS AND LEAKED PAGES =====
 
-        // Notify partner via chat (UI is already closed by endSession)
+    /**
+     * Cancel sessions idle for longer than the timeout of their state. Runs on the ticker thread;
+     * the cancellation itself runs on the session's world thread.
+     */
+    private void sweepIdleSessions() {
+        List<TradeSession> idle;
+        try {
+            idle = idleReaper.sweep(System.currentTimeMillis(), s -> getShard(s) != null);
+        } catch (Exception e) {
+            LOGGER.atWarning().withCause(e).log("Error sweeping idle trade sessions");
+            return;
+        }
+        for (TradeSession session : idle) {
+            runOnWorldThread(session, () -> cancelIdle(session));
+        }
+    }
+
+    /**
+     * Cancel a session that stayed idle, unless it became active again meanwhile.
+     */
+    private void cancelIdle(TradeSession session) {
+        long timeout = session.getIdleTimeoutMs();
+        if (getShard(session) == null || timeout <= 0
+            || System.currentTimeMillis() - session.getLastActivityAt() < timeout
+            || !session.cancel(null)) {
+            return;
+        }
+
+        endSession(session);
+        PlayerRef initiator = session.getInitiator();
+        initiator.sendMessage(TradeMessages.forPlayer(initiator).idleCancelled());
+        if (!session.isTestMode()) {
+            PlayerRef target = session.getTarget();
+            target.sendMessage(TradeMessages.forPlayer(target).idleCancelled());
+        }
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} cancelled after {}ms without activity",
+            session.getSessionId(), timeout);
+    }
+
+    /**
+     * Start tracking a trading page for leaks; called when the page is created.
+     */
+    public PageLeakDetector.Tracked trackTradingPage(TradingPage page, PlayerRef player, ExecutorService executor) {
+        UUID sessionId = getSession(player).map(TradeSession::getSessionId).orElse(null);
+        return pageLeaks.track(page, player, sessionId, executor);
+    }
+
+    /**
+     * Stop tracking a trading page; called when the page is dismissed.
+     */
+    public void untrackTradingPage(PageLeakDetector.Tracked tracking) {
+        pageLeaks.untrack(tracking);
+    }
+
+    /**
+     * Release trading pages that outlived their session or were never dismissed. Runs on the ticker thread.
+     */
+    private void checkPageLeaks() {
+        try {
+            int leaks = pageLeaks.check(System.currentTimeMillis(), TradeConstants.PAGE_LEAK_GRACE_MS,
+                sessionId -> getSessionById(sessionId).isPresent(), this::closeLeakedPage);
+            if (leaks > 0) {
+                LOGGER.atWarning().log("Released " + leaks + " leaked trading pages (" + pageLeaks.size() + " still open)");
+            }
+        } catch (Exception e) {
+            LOGGER.atWarning().withCause(e).log("Error checking for leaked trading pages");
+        }
+    }
+
+    /**
+     * Drop the registrations of a leaked page and close it on its player's world thread.
+     */
+    private void closeLeakedPage(PlayerRef player, TradingPage page) {
+        page.requestClose();
+        // The player may have opened a new page since, which closing this one would close too
+        if (tradingPageInstances.get(player.getUuid()) != page) {
+            return;
+        }
+        unregisterTradingPage(player);
+        runOnPlayerWorld(player, () -> {
+            try {
+                page.closeUI();
+            } catch (Exception e) {
+                Common.logDebug(LOGGER, DebugCategory.UI, "Could not close leaked trading page of {}: {}",
+                    player.getUsername(), e.getMessage());
+            }
+        });
+    }
+
+    // ===== TRADE ZONES =====
+
+    /**
+     * Recompile the trade zones from the loaded zones.json.
+     */
+    public void reloadZones() {
+        ConfigManager configManager = plugin.getConfigManager();
+        zones = TradeZoneTable.compile(configManager.getZoneDefaultPolicy(), configManager.getZones());
+    }
+
+    /**
+     * Check whether the zones two players stand in allow them to trade.
+     */
+    public TradeZoneTable.Check checkTradeZone(PlayerRef first, PlayerRef second) {
+        TradeZoneTable table = zones;
+        return table.check(getZoneOf(table, first), getZoneOf(table, second));
+    }
+
+    /**
+     * Get the zone a player stands in, or null if the default policy applies (or the position is unknown).
+     */
+    private static TradeZone getZoneOf(TradeZoneTable table, PlayerRef player) {
+        World world = getWorld(player.getReference());
+        Transform transform = player.getTransform();
+        if (world == null || transform == null || transform.getPosition() == null) {
+            return null;
+        }
+        Vector3d position = transform.getPosition();
+        return table.getZoneAt(world.getName(), position.getX(), position.getY(), position.getZ());
+    }
+
+    /**
+     * Get the shards of all worlds that have had trades.
+     */
+    public Collection<TradeShard> getShards() {
+        return Collections.unmodifiableCollection(shards.values());
+    }
+
+    // ===== TRADE ACTIONS =====
+
+    /**
+     * Called when a player's offer changes.
+     * Notifies both trading pages to refresh their UI.
+     */
+    public void onOfferChanged(PlayerRef player) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isPresent()) {
+            TradeSession session = optSession.get();
+            session.onOfferChanged(player);
+            reservations.reserve(player.getUuid(), session.getView().getItems(session.isInitiator(player)));
+            // Offer changes revoke all acceptances, so escrowed items go back
+            returnEscrow(session);
+            // Notify both UIs about the offer change
+            notifyBothTradingPages(session);
+        }
+    }
+
+    /**
+     * Player accepts their current trade offer.
+     */
+    public boolean acceptTrade(PlayerRef player) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            return false;
+        }
+
+        TradeSession session = optSession.get();
+        if (!isWithinTradeDistance(session)) {
+            return false;
+        }
+        boolean accepted = session.accept(player);
+
+        if (accepted && session.getConfig().isEscrowMode() && !escrowAcceptedOffers(session, player)) {
+            LOGGER.atWarning().log("Could not move offered items of " + player.getUsername() + " into escrow");
+            if (session.isTestMode()) {
+                session.revokeAllAcceptances();
+            } else {
+                session.revokeAccept(player);
+            }
+            returnEscrow(session);
+            notifyBothTradingPages(session);
+            return false;
+        }
+
+        if (accepted) {
+            // Notify both UIs about the state change
+            notifyBothTradingPages(session);
+
+            if (session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
+                // Start countdown
+                startCountdown(session);
+            }
+        }
+
+        return accepted;
+    }
+
+    /**
+     * Player revokes their acceptance.
+     */
+    public boolean revokeAccept(PlayerRef player) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            return false;
+        }
+
+        TradeSession session = optSession.get();
+        boolean revoked = session.revokeAccept(player);
+
+        if (revoked) {
+            returnEscrow(session);
+            // Notify both UIs about the state change
+            notifyBothTradingPages(session);
+        }
+
+        return revoked;
+    }
+
+    /**
+     * Start the 3-second countdown before trade execution.
+     */
+    private void startCountdown(TradeSession session) {
+        if (session.getConfig().isAutoExecute()) {
+            startAutoExecuteCountdown(session);
+            return;
+        }
+
+        TradeShard shard = getShard(session);
+        if (shard == null) return;
+
+        TradeShard.Timer countdownTask = shard.schedule(() -> {
+            // Verify session is still valid and in countdown state
+            if (getShard(session) != null &&
+                session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN &&
+                session.isCountdownComplete()) {
+
+                // Notify that confirm is now available
+                PlayerRef initiator = session.getInitiator();
+                PlayerRef target = session.getTarget();
+                initiator.sendMessage(Message.raw(TradeMessages.forPlayer(initiator).uiCountdownReady()));
+                target.sendMessage(Message.raw(TradeMessages.forPlayer(target).uiCountdownReady()));
+            }
+        }, session.getConfig().getCountdownDurationMs());
+
+        session.setCountdownTask(countdownTask);
+    }
+
+    /**
+     * Start a countdown that executes the trade by itself.
+     * Shortly before the end, the trade is pre-verified on the world thread so a doomed trade
+     * fails early; if it passes, the commit is scheduled for the moment the countdown reaches zero.
+     */
+    private void startAutoExecuteCountdown(TradeSession session) {
+        // The deadline identifies this countdown: a revoke and re-accept starts a new one
+        long deadline = session.getView().getCountdownDeadline();
+        long preVerifyDelay = Math.max(0, session.getConfig().getCountdownDurationMs() - TradeConstants.PRE_VERIFY_LEAD_MS);
+
+        TradeShard shard = getShard(session);
+        if (shard == null) return;
+
+        TradeShard.Timer preVerifyTask = shard.schedule(
+            () -> runOnWorldThread(session, () -> preVerifyCountdown(session, deadline)),
+            preVerifyDelay);
+        session.setCountdownTask(preVerifyTask);
+    }
+
+    private void preVerifyCountdown(TradeSession session, long deadline) {
+        if (!isCountdownCurrent(session, deadline)) return;
+
+        Ref<EntityStore> initiatorRef = session.getInitiator().getReference();
+        Ref<EntityStore> targetRef = session.getTarget().getReference();
+        World initiatorWorld = getWorld(initiatorRef);
+        World targetWorld = getWorld(targetRef);
+        if (initiatorWorld == null || targetWorld == null) {
+            return;
+        }
+
+        // Across worlds the target's inventory can't be read from here; the prepare phase checks it instead
+        if (initiatorWorld == targetWorld) {
+            TradeSession.TradeResult check = session.preVerify(initiatorRef.getStore(), initiatorRef,
+                targetRef.getStore(), targetRef);
+            if (!check.success) {
+                returnEscrow(session);
+                pushTradeResult(session, check);
+                return;
+            }
+        }
+
+        TradeShard shard = getShard(session);
+        if (shard == null) return;
+
+        // +1ms so the commit never lands just before the deadline
+        long commitDelay = session.getRemainingCountdownMs() + 1;
+        TradeShard.Timer commitTask = shard.schedule(
+            () -> runOnWorldThread(session, () -> autoExecute(session, deadline, 0)),
+            commitDelay);
+        session.setCountdownTask(commitTask);
+    }
+
+    /**
+     * Execute a trade whose countdown just completed.
+     * If admission control refuses it, the players are told once and the execution is tried again
+     * with a growing delay, since nobody is going to press Confirm.
+     * @param attempt Number of earlier tries refused by admission control
+     */
+    private void autoExecute(TradeSession session, long deadline, int attempt) {
+        if (!isCountdownCurrent(session, deadline) || !session.isCountdownComplete()) return;
+
+        Ref<EntityStore> initiatorRef = session.getInitiator().getReference();
+        Ref<EntityStore> targetRef = session.getTarget().getReference();
+        if (initiatorRef == null || targetRef == null || !initiatorRef.isValid() || !targetRef.isValid()) {
+            return;
+        }
+
+        // Same single-flight path as a manual confirm, keyed by the countdown deadline
+        confirmSession(session, deadline, initiatorRef, targetRef, false).thenAccept(result -> {
+            if (result.cause != TradeSession.TradeResult.FailureCause.NOT_ADMITTED || admission.isClosed()) {
+                return;
+            }
+            if (attempt == 0) {
+                notifyAutoExecuteDelayed(session);
+            }
+            TradeShard shard = getShard(session);
+            if (shard == null) return;
+            long delay = Math.min(TradeConstants.AUTO_EXECUTE_RETRY_MS << Math.min(attempt, 16),
+                TradeConstants.AUTO_EXECUTE_RETRY_MAX_MS);
+            // Kept as the countdown task, so revoking or cancelling the trade stops the retries
+            session.setCountdownTask(shard.schedule(
+                () -> runOnWorldThread(session, () -> autoExecute(session, deadline, attempt + 1)), delay));
+        });
+    }
+
+    private void notifyAutoExecuteDelayed(TradeSession session) {
+        PlayerRef initiator = session.getInitiator();
+        sendStatus(initiator.getUuid(), TradeMessages.forPlayer(initiator).admissionAutoExecuteDelayed().getAnsiMessage(),
+            TradeConstants.COLOR_WARNING);
+        if (!session.isTestMode()) {
+            PlayerRef target = session.getTarget();
+            sendStatus(target.getUuid(), TradeMessages.forPlayer(target).admissionAutoExecuteDelayed().getAnsiMessage(),
+                TradeConstants.COLOR_WARNING);
+        }
+    }
+
+    /**
+     * Check that the session is still active and running the countdown with the given deadline.
+     */
+    private boolean isCountdownCurrent(TradeSession session, long deadline) {
+        return getShard(session) != null
+            && session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN
+            && session.getView().getCountdownDeadline() == deadline;
+    }
+
+    /**
+     * Run a task on the initiator's world thread (trade inventories must only be touched there).
+     * Runs inline when the shard timer already fired on that thread.
+     */
+    private void runOnWorldThread(TradeSession session, Runnable task) {
+        World world = getWorld(session.getInitiator().getReference());
+        if (world == null) {
+            Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Initiator of session {} is no longer in a world", session.getSessionId());
+            return;
+        }
+        if (world.isInThread()) {
+            task.run();
+            return;
+        }
+        world.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error in countdown task of session " + session.getSessionId());
+            }
+        });
+    }
+
+    /**
+     * Run a task on the world thread that owns the player's entity.
+     * Runs inline when already on that thread, or when the player is no longer in a world.
+     */
+    private void runOnPlayerWorld(PlayerRef player, Runnable task) {
+        World world = getWorld(player.getReference());
+        if (world == null || world.isInThread()) {
+            task.run();
+            return;
+        }
+        world.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error in world task for " + player.getUsername());
+            }
+        });
+    }
+
+    /**
+     * Get the world that owns an entity, or null if the entity is gone.
+     */
+    private static World getWorld(Ref<EntityStore> ref) {
+        if (ref == null || !ref.isValid()) {
+            return null;
+        }
+        return ref.getStore().getExternalData().getWorld();
+    }
+
+    /**
+     * Push a failed trade result to both trading pages, one update per page
+     * (UI refresh and status message together). Players without an open page get a chat message.
+     */
+    private void pushTradeResult(TradeSession session, TradeSession.TradeResult result) {
+        pushTradeResult(session.getInitiator(), result.messageFor(true));
+        if (!session.isTestMode()) {
+            pushTradeResult(session.getTarget(), result.messageFor(false));
+        }
+    }
+
+    private void pushTradeResult(PlayerRef player, String message) {
+        runOnPlayerWorld(player, () -> {
+            org.toskan4134.easytrade.ui.TradingPage page = tradingPageInstances.get(player.getUuid());
+            if (page != null) {
+                try {
+                    page.refreshWithStatus(message, TradeConstants.COLOR_ERROR);
+                    return;
+                } catch (Exception e) {
+                    LOGGER.atWarning().withCause(e).log("Error pushing trade result to " + player.getUsername());
+                }
+            }
+            if (message != null) {
+                player.sendMessage(TradeMessages.forPlayer(player).statusFailed(message));
+            }
+        });
+    }
+
+    /**
+     * Execute the trade (called when player clicks confirm after countdown).
+     * Confirms are single-flight per session: concurrent or retried confirms join the same result.
+     *
+     * @param store The confirming player's entity store
+     * @param token Idempotency token, the countdown deadline of the session view the player confirmed
+     */
+    public CompletableFuture<TradeSession.TradeResult> confirmTrade(PlayerRef player,
+                                                                   Store<EntityStore> store,
+                                                                   Ref<EntityStore> playerEntityRef,
+                                                                   long token) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            return CompletableFuture.completedFuture(new TradeSession.TradeResult(false, "No active trade session"));
+        }
+
+        TradeSession session = optSession.get();
+
+        // The other player may be in another world: use their own entity ref (and through it, their own store)
+        PlayerRef otherPlayer = session.getOtherPlayer(player);
+        Ref<EntityStore> otherEntityRef = getPlayerEntityRef(otherPlayer);
+        if (otherEntityRef == null || !otherEntityRef.isValid()) {
+            otherEntityRef = otherPlayer != null ? otherPlayer.getReference() : null;
+        }
+
+        if (otherEntityRef == null || !otherEntityRef.isValid()) {
+            return CompletableFuture.completedFuture(new TradeSession.TradeResult(false, "Other player not available"));
+        }
+
+        // Determine which ref is initiator and which is target
+        Ref<EntityStore> initiatorRef, targetRef;
+        if (player.getUuid().equals(session.getInitiator().getUuid())) {
+            initiatorRef = playerEntityRef;
+            targetRef = otherEntityRef;
+        } else {
+            initiatorRef = otherEntityRef;
+            targetRef = playerEntityRef;
+        }
+
+        return confirmSession(session, token, initiatorRef, targetRef, true);
+    }
+
+    /**
+     * Run the single-flight execution of a session.
+     * The first confirm for a token executes; concurrent confirms, and retries of an already
+     * executed token, get the same future back. A failure is pushed to both pages once, here.
+     * @param notifyRefusal Whether to push an admission refusal to both pages; the result of a
+     *                      refused confirm has the {@code NOT_ADMITTED} cause either way
+     */
+    private CompletableFuture<TradeSession.TradeResult> confirmSession(TradeSession session, long token,
+                                                                      Ref<EntityStore> initiatorRef,
+                                                                      Ref<EntityStore> targetRef,
+                                                                      boolean notifyRefusal) {
+        World initiatorWorld = getWorld(initiatorRef);
+        World targetWorld = getWorld(targetRef);
+        if (initiatorWorld == null || targetWorld == null) {
+            return CompletableFuture.completedFuture(new TradeSession.TradeResult(false,
+                TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage()));
+        }
+
+        // Refused confirms don't claim the execution, so the same countdown can be confirmed again later
+        TradeShard executionShard = getShard(initiatorWorld);
+        AdmissionControl.Admission admitted = admission.admitExecution(executionShard.getExecutionQueue().getDepth());
+        if (!admitted.isAdmitted()) {
+            Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Execution of session {} not admitted: {}",
+                session.getSessionId(), admitted);
+            if (notifyRefusal) {
+                pushTradeResult(session.getInitiator(),
+                    admitted.getDenialMessage(TradeMessages.forPlayer(session.getInitiator())).getAnsiMessage());
+                if (!session.isTestMode()) {
+                    pushTradeResult(session.getTarget(),
+                        admitted.getDenialMessage(TradeMessages.forPlayer(session.getTarget())).getAnsiMessage());
+                }
+            }
+            return CompletableFuture.completedFuture(new TradeSession.TradeResult(false,
+                admitted.getDenialMessage(TradeMessages.defaults()).getAnsiMessage(), null,
+                TradeSession.TradeResult.FailureCause.NOT_ADMITTED));
+        }
+
+        CompletableFuture<TradeSession.TradeResult> execution = new CompletableFuture<>();
+        CompletableFuture<TradeSession.TradeResult> inFlight = session.claimExecution(token, execution);
+        if (inFlight != null) {
+            Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Confirm of session {} not executed (joined or not ready)",
+                session.getSessionId());
+            return inFlight;
+        }
+
+        // Execute on the initiator world's queue, within its per-tick budget
+        executionShard.getExecutionQueue().submit(() -> {
+            CompletableFuture<TradeSession.TradeResult> outcome;
+            if (initiatorWorld == targetWorld) {
+                outcome = CompletableFuture.completedFuture(session.execute(
+                    initiatorRef.getStore(), initiatorRef, targetRef.getStore(), targetRef));
+            } else {
+                outcome = executeCrossWorld(session, initiatorRef, initiatorWorld, targetRef, targetWorld);
+            }
+            outcome.whenComplete((result, error) -> finishExecution(session, execution, result, error));
+        }, execution);
+        return execution;
+    }
+
+    /**
+     * Clean up after an execution and complete its future.
+     * On success the session ends (closing both UIs); on failure escrowed items go back
+     * and the result is pushed to both pages, unless a cancel came in during the execution:
+     * then the session is cancelled now.
+     */
+    private void finishExecution(TradeSession session, CompletableFuture<TradeSession.TradeResult> execution,
+                                 TradeSession.TradeResult result, Throwable error) {
+        if (error != null) {
+            LOGGER.atWarning().withCause(error).log("Error executing session " + session.getSessionId());
+            result = new TradeSession.TradeResult(false, TradeMessages.defaults().errorSystemError(error.getMessage()).getAnsiMessage());
+        }
+
+        try {
+            if (result.success) {
+                // Clean up session (closes both UIs)
+                endSession(session);
+                // Notify both players via chat
+                PlayerRef initiator = session.getInitiator();
+                initiator.sendMessage(TradeMessages.forPlayer(initiator).statusCompleted());
+                if (!session.isTestMode()) {
+                    PlayerRef target = session.getTarget();
+                    target.sendMessage(TradeMessages.forPlayer(target).statusCompleted());
+                }
+            } else {
+                Runnable pendingCancel = session.takePendingCancel();
+                if (pendingCancel != null) {
+                    pendingCancel.run();
+                } else {
+                    // Trade failed - acceptances were revoked, so escrowed items go back
+                    returnEscrow(session);
+                    pushTradeResult(session, result);
+                }
+            }
+        } finally {
+            execution.complete(result);
+        }
+    }
+
+    // ===== CROSS-WORLD EXECUTION =====
+
+    /**
+     * Execute a trade between players in different worlds with a two-phase commit.
+     * Each phase runs on the world thread owning that side's inventory; the hand-offs between worlds
+     * are asynchronous, so neither world thread waits for the other. Between phases, and for the
+     * session updates at the end, control returns to the initiator's world, which owns the session.
+     *
+     * 1. Prepare (both worlds in parallel): check space, take the offered items into escrow.
+     * 2. Commit (both worlds in parallel): deposit the other side's escrow.
+     * If any side fails, committed sides are undone and every side gets its own items back.
+     */
+    private CompletableFuture<TradeSession.TradeResult> executeCrossWorld(TradeSession session,
+                                                                         Ref<EntityStore> initiatorRef, World initiatorWorld,
+                                                                         Ref<EntityStore> targetRef, World targetWorld) {
+        if (!session.beginTwoPhaseExecution()) {
+            return CompletableFuture.completedFuture(new TradeSession.TradeResult(false,
+                TradeMessages.defaults().errorNotReady().getAnsiMessage()));
+        }
+        Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Trade session {} - executing across worlds {} and {}",
+            session.getSessionId(), initiatorWorld.getName(), targetWorld.getName());
+
+        // === PREPARE PHASE ===
+        CompletableFuture<TradeSession.TradeResult> prepareInitiator = CompletableFuture.supplyAsync(
+            () -> session.prepareSide(true, getInventory(initiatorRef)), initiatorWorld);
+        CompletableFuture<TradeSession.TradeResult> prepareTarget = CompletableFuture.supplyAsync(
+            () -> session.prepareSide(false, getInventory(targetRef)), targetWorld);
+
+        return prepareInitiator.thenCombineAsync(prepareTarget, (i, t) -> i != null ? i : t, initiatorWorld)
+            .thenCompose(prepareFailure -> {
+                if (prepareFailure != null) {
+                    return abortCrossWorld(session, initiatorRef, initiatorWorld, targetRef, targetWorld, false, false)
+                        .thenApply(v -> prepareFailure);
+                }
+
+                // === COMMIT PHASE ===
+                CompletableFuture<TradeSession.TradeResult> commitInitiator = CompletableFuture.supplyAsync(
+                    () -> session.commitSide(true, getInventory(initiatorRef)), initiatorWorld);
+                CompletableFuture<TradeSession.TradeResult> commitTarget = CompletableFuture.supplyAsync(
+                    () -> session.commitSide(false, getInventory(targetRef)), targetWorld);
+
+                return commitInitiator.thenCombineAsync(commitTarget, (i, t) -> new TradeSession.TradeResult[] {i, t}, initiatorWorld)
+                    .thenCompose(commits -> {
+                        if (commits[0] == null && commits[1] == null) {
+                            session.completeExecution();
+                            return CompletableFuture.completedFuture(new TradeSession.TradeResult(true,
+                                TradeMessages.defaults().statusCompleted().getAnsiMessage()));
+                        }
+                        TradeSession.TradeResult commitFailure = commits[0] != null ? commits[0] : commits[1];
+                        return abortCrossWorld(session, initiatorRef, initiatorWorld, targetRef, targetWorld,
+                            commits[0] == null, commits[1] == null)
+                            .thenApply(v -> commitFailure);
+                    });
+            });
+    }
+
+    /**
+     * Abort a cross-world execution on both worlds.
+     * Committed sides first give back what they received; only then does each side get its own items
+     * back, so the undo never races with the other side's return. A side whose partner could not give
+     * back what it received from it doesn't get its items back: they are held in the escrow ledger
+     * for an admin, so the items never exist twice.
+     */
+    private CompletableFuture<Void> abortCrossWorld(TradeSession session,
+                                                    Ref<EntityStore> initiatorRef, World initiatorWorld,
+                                                    Ref<EntityStore> targetRef, World targetWorld,
+                                                    boolean initiatorCommitted, boolean targetCommitted) {
+        CompletableFuture<Boolean> undoInitiator = CompletableFuture.supplyAsync(
+            () -> undoCommit(session, true, initiatorCommitted, getInventory(initiatorRef)), initiatorWorld);
+        CompletableFuture<Boolean> undoTarget = CompletableFuture.supplyAsync(
+            () -> undoCommit(session, false, targetCommitted, getInventory(targetRef)), targetWorld);
+
+        return undoInitiator.thenCombine(undoTarget, (initiatorUndone, targetUndone) -> new boolean[] {initiatorUndone, targetUndone})
+            .thenCompose(undone -> CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> abortSide(session, true, undone[1], getInventory(initiatorRef)), initiatorWorld),
+                CompletableFuture.runAsync(() -> abortSide(session, false, undone[0], getInventory(targetRef)), targetWorld))
+                .thenRunAsync(() -> {
+                    session.abortExecution();
+                    // Items are back in the inventories, reserve them again
+                    if (undone[1]) {
+                        reservations.reserve(session.getInitiator().getUuid(), session.getView().getInitiatorItems());
+                    }
+                    if (undone[0]) {
+                        reservations.reserve(session.getTarget().getUuid(), session.getView().getTargetItems());
+                    }
+                }, initiatorWorld));
+    }
+
+    /**
+     * Take back what a committed side received.
+     * @return true if nothing received is left with that side
+     */
+    private boolean undoCommit(TradeSession session, boolean initiatorSide, boolean committed, Inventory inventory) {
+        if (committed && !session.undoCommitSide(initiatorSide, inventory)) {
+            PlayerRef owner = initiatorSide ? session.getInitiator() : session.getTarget();
+            LOGGER.atSevere().log("Could not take back received items from " + owner.getUsername() +
+                " (session " + session.getSessionId() + ")");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Give a side its own items back, or hold them for an admin if its partner kept them.
+     * @param partnerUndone Whether the partner gave back what it received from this side
+     */
+    private void abortSide(TradeSession session, boolean initiatorSide, boolean partnerUndone, Inventory inventory) {
+        PlayerRef owner = initiatorSide ? session.getInitiator() : session.getTarget();
+        if (!partnerUndone) {
+            List<ItemStack> held = session.holdEscrow(initiatorSide);
+            if (!held.isEmpty()) {
+                LOGGER.atSevere().log("Trade session " + session.getSessionId() + " could not be undone: held the items of " +
+                    owner.getUsername() + " for admin recovery in escrow.json: " + held);
+                owner.sendMessage(TradeMessages.forPlayer(owner).escrowHeld());
+            }
+            return;
+        }
+        if (!session.returnEscrow(initiatorSide, inventory)) {
+            LOGGER.atSevere().log("Could not return prepared items to " + owner.getUsername() +
+                " (session " + session.getSessionId() + "): " + session.getEscrow(initiatorSide));
+        }
+    }
+
+    /**
+     * Cancel an active trade. A trade that is executing is cancelled once the execution is over,
+     * if it fails.
+     */
+    public boolean cancelTrade(PlayerRef player) {
+        Optional<TradeSession> optSession = getSession(player);
+        if (optSession.isEmpty()) {
+            // Withdraw the player's own requests, and drop any sent to them
+            boolean cancelled = false;
+            for (TradeSession pending : withdrawOutgoingRequests(player.getUuid())) {
+                pending.cancel(player);
+                cancelled = true;
+            }
+            for (TradeSession pending : dropIncomingRequests(player.getUuid())) {
+                pending.cancel(player);
+                cancelled = true;
+            }
+            return cancelled;
+        }
+
+        TradeSession session = optSession.get();
+        if (!session.cancel(player, () -> cancelTrade(player))) {
+            return true;
+        }
+        endSession(session);
+
+        // Notify partner via chat (UI is already closed by endSession)
         if (!session.isTestMode()) {
             PlayerRef partner = session.getOtherPlayer(player);
             if (partner != null) {
-                partner.sendMessage(TradeMessages.cancelledByPartner());
+                partner.sendMessage(TradeMessages.forPlayer(partner).cancelledByPartner());
             }
         }
 
         return true;
     }
 
+    /**
+     * Handle a player that finished joining: give back escrowed items of trades that are over but
+     * could not return them (inventory full, player offline, server stopped). Items that still
+     * don't fit stay in the escrow ledger for the next join.
+     */
+    public void onPlayerReady(PlayerRef player) {
+        runOnPlayerWorld(player, () -> returnLedgerEscrow(player));
+    }
+
+    private void returnLedgerEscrow(PlayerRef player) {
+        EscrowStorage ledger = plugin.getEscrowStorage();
+        List<EscrowStorage.Entry> returns = ledger.getReturns(player.getUuid());
+        Inventory inventory = getLiveInventory(player);
+        if (returns.isEmpty() || inventory == null) {
+            return;
+        }
+
+        // The escrow of a running session is returned by the session itself
+        UUID activeSessionId = getSession(player).map(TradeSession::getSessionId).orElse(null);
+        int returned = 0;
+        boolean kept = false;
+        for (EscrowStorage.Entry entry : returns) {
+            if (entry.getSessionId().equals(activeSessionId)) {
+                continue;
+            }
+            List<ItemStack> left = TradeSession.depositReturnedItems(inventory, entry.getItems());
+            ledger.record(entry.getSessionId(), entry.isInitiatorSide(), entry.getOwner(), entry.getOwnerName(), left);
+            returned += entry.getItems().size() - left.size();
+            kept |= !left.isEmpty();
+        }
+        if (returned > 0) {
+            player.sendMessage(TradeMessages.forPlayer(player).escrowReturned(returned));
+            LOGGER.atInfo().log("Returned " + returned + " escrowed item stacks to " + player.getUsername() + " from the escrow ledger");
+        }
+        if (kept) {
+            player.sendMessage(TradeMessages.forPlayer(player).escrowReturnPending());
+        }
+    }
+
+    /**
+     * Handle player connect: publish the player in the trade directory.
+     */
+    public void onPlayerConnect(PlayerRef player) {
+        playerNames.add(player);
+        directory.playerOnline(player.getUuid(), player.getUsername());
+    }
+
+    /**
+     * Find an online player by name: an exact match (case-insensitive), or else the only
+     * player whose name starts with it.
+     * @return the player, or null if nobody or several players match
+     */
+    public PlayerRef findPlayer(String name) {
+        return playerNames.resolve(name);
+    }
+
+    /**
+     * Get the names of online players starting with a prefix (case-insensitive).
+     */
+    public List<String> completePlayerName(String prefix, int limit) {
+        return playerNames.complete(prefix, limit);
+    }
+
+    /**
+     * Find the players in the same world within the nearby radius of a player, closest first.
+     * Positions are as of the last tick.
+     */
+    public List<PlayerSpatialIndex.Nearby> findNearbyPlayers(PlayerRef player, int limit) {
+        return playerPositions.findNearby(player, Common.getNearbyRadius(), limit);
+    }
+
+    /**
+     * Find the closest player in the same world within the nearby radius of a player.
+     * @return the closest player, or null if nobody is in range
+     */
+    public PlayerSpatialIndex.Nearby findNearestPlayer(PlayerRef player) {
+        return playerPositions.findNearest(player, Common.getNearbyRadius());
+    }
+
     /**
      * Handle player disconnect.
      * Closes the partner's trading UI and warns them via chat.
@@ -597,60 +1838,134 @@ public class TradeManager {
         // Clean up disconnected player's trading page registrations first
         // (onDismiss won't fire for a disconnected player)
         unregisterTradingPage(player);
+        playerNames.remove(player);
+        directory.playerOffline(player.getUuid());
+        pageModels.remove(player.getUuid());
+        reservations.release(player.getUuid());
+        rateLimiter.remove(player.getUuid());
 
-        // Cancel any active trade
+        // Cancel any active trade (once its execution is over, if it is executing)
         Optional<TradeSession> optSession = getSession(player);
         if (optSession.isPresent()) {
             TradeSession session = optSession.get();
-
-            // Get the other player before ending the session
-            PlayerRef other = session.isTestMode() ? null : session.getOtherPlayer(player);
-
-            session.cancel(null);
-            endSession(session);
-
-            // For the remaining player: Mark their UI to close and send notification
-            // The UI will close automatically on the next update (when they interact or inventory changes)
-            // because it will detect the session no longer exists
-            if (other != null) {
-                UUID otherId = other.getUuid();
-                org.toskan4134.easytrade.ui.TradingPage otherPage = tradingPageInstances.get(otherId);
-                if (otherPage != null) {
-                    // Mark this page to close on next update (deferred close on WorldThread)
-                    otherPage.requestClose();
-                    Common.logDebug(LOGGER, "Marked " + other.getUsername() + "'s UI for deferred close");
-                }
-
-                // Send chat notification
-                other.sendMessage(TradeMessages.disconnectCancelled());
+            if (session.cancel(null, () -> cancelForDisconnect(session, player))) {
+                endForDisconnect(session, player);
             }
         }
 
         // Cancel any pending requests where this player is involved
-        pendingRequests.entrySet().removeIf(entry -> {
-            TradeSession session = entry.getValue();
-            if (session.isParticipant(player)) {
-                PlayerRef other = session.getOtherPlayer(player);
-                if (other != null) {
-                    other.sendMessage(TradeMessages.disconnectRequestCancelled());
-                }
-                return true;
+        List<TradeSession> cancelledRequests = new ArrayList<>(withdrawOutgoingRequests(player.getUuid()));
+        cancelledRequests.addAll(dropIncomingRequests(player.getUuid()));
+        requestDirectory.remove(player.getUuid());
+        for (TradeSession session : cancelledRequests) {
+            PlayerRef other = session.getOtherPlayer(player);
+            if (other != null) {
+                other.sendMessage(TradeMessages.forPlayer(other).disconnectRequestCancelled());
             }
-            return false;
-        });
+        }
     }
 
     /**
      * Clean up a completed/cancelled session.
      */
     private void endSession(TradeSession session) {
+        // Give back anything still held in escrow (cancelled or failed sessions); what can't be
+        // given back now stays in the escrow ledger
+        returnEscrow(session);
+
         // Close both players' trading UIs
         closeBothTradingPages(session);
 
-        activeSessions.remove(session.getSessionId());
-        playerToSession.remove(session.getInitiator().getUuid());
-        playerToSession.remove(session.getTarget().getUuid());
-        Common.logDebug(LOGGER, "Trade session " + session.getSessionId() + " ended");
+        TradeShard shard = getShard(session);
+        if (shard != null) {
+            shard.removeSession(session);
+            sessionDirectory.remove(session.getInitiator().getUuid(), shard);
+            sessionDirectory.remove(session.getTarget().getUuid(), shard);
+        }
+        distances.remove(session);
+        pageModels.remove(session.getInitiator().getUuid());
+        pageModels.remove(session.getTarget().getUuid());
+        reservations.release(session.getInitiator().getUuid());
+        reservations.release(session.getTarget().getUuid());
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} ended", session.getSessionId());
+    }
+
+    // ===== ESCROW =====
+
+    /**
+     * Move the offers of every side this player has accepted into the session escrow.
+     * Escrowed items are physically held, so the player's reservations are released.
+     */
+    private boolean escrowAcceptedOffers(TradeSession session, PlayerRef player) {
+        Inventory inventory = getLiveInventory(player);
+        SessionView view = session.getView();
+        // Released before withdrawing: the inventory change events of the withdrawal must not
+        // find the reservations unbacked and shrink the offer being escrowed
+        reservations.release(player.getUuid());
+        for (boolean initiatorSide : new boolean[] {true, false}) {
+            PlayerRef owner = initiatorSide ? session.getInitiator() : session.getTarget();
+            if (!owner.getUuid().equals(player.getUuid()) || !view.isAccepted(initiatorSide)) {
+                continue;
+            }
+            if (!session.escrowOffer(initiatorSide, inventory)) {
+                // Nothing was withdrawn for this side, its items are still in the inventory
+                reservations.reserve(player.getUuid(), view.getItems(initiatorSide));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return escrowed items for every side that is no longer accepted,
+     * or for all sides once the session is over.
+     */
+    private void returnEscrow(TradeSession session) {
+        TradeState state = session.getState();
+        boolean over = state == TradeState.CANCELLED || state == TradeState.FAILED || state == TradeState.COMPLETED;
+        SessionView view = session.getView();
+
+        for (boolean initiatorSide : new boolean[] {true, false}) {
+            if (!session.hasEscrow(initiatorSide) || (!over && view.isAccepted(initiatorSide))) {
+                continue;
+            }
+            // Inventories may only be touched on the owner's world thread
+            PlayerRef owner = initiatorSide ? session.getInitiator() : session.getTarget();
+            runOnPlayerWorld(owner, () -> {
+                if (session.returnEscrow(initiatorSide, getLiveInventory(owner))) {
+                    Common.logDebug(LOGGER, DebugCategory.INVENTORY, "Returned escrowed items to {}", owner.getUsername());
+                    if (!over) {
+                        reservations.reserve(owner.getUuid(), view.getItems(session.isInitiator(owner)));
+                    }
+                } else if (over) {
+                    // The leftovers stay in the escrow ledger and are returned on the owner's next join
+                    LOGGER.atWarning().log("Could not return escrowed items to " + owner.getUsername() +
+                        " (session " + session.getSessionId() + "), kept for their next join: " + session.getEscrow(initiatorSide));
+                    owner.sendMessage(TradeMessages.forPlayer(owner).escrowReturnPending());
+                } else {
+                    LOGGER.atSevere().log("Could not return escrowed items to " + owner.getUsername() +
+                        " (session " + session.getSessionId() + "): " + session.getEscrow(initiatorSide));
+                }
+            });
+        }
+    }
+
+    /**
+     * Get a player's inventory through their live entity reference.
+     */
+    private Inventory getLiveInventory(PlayerRef player) {
+        return getInventory(player.getReference());
+    }
+
+    /**
+     * Get the inventory of a player entity from the store that owns it.
+     */
+    private static Inventory getInventory(Ref<EntityStore> ref) {
+        if (ref == null || !ref.isValid()) {
+            return null;
+        }
+        Player entity = ref.getStore().getComponent(ref, Player.getComponentType());
+        return entity != null ? entity.getInventory() : null;
     }
 
     /**
@@ -672,25 +1987,236 @@ public class TradeManager {
     }
 
     /**
-     * Shutdown the manager.
+     * Shut down the manager within the configured shutdown timeout.
+     *
+     * 1. New requests, sessions and confirms are refused.
+     * 2. Trades already executing get to commit or roll back.
+     * 3. Executions that never started are dropped, cross-world executions still running are aborted
+     *    (see {@link TradeSession#abortForShutdown()}) and the sessions are cancelled on their
+     *    world threads, returning escrowed items and telling both players.
+     * 4. Trading pages still open are closed on their world threads.
+     * 5. The ticker and the page schedulers are stopped and joined.
+     * Every step waits until the same deadline at most; whatever is left then is logged and dropped.
+     * Escrow that could not be returned by then stays in the escrow ledger for the owners' next join.
      */
     public void shutdown() {
+        long timeoutMs = Common.getShutdownTimeoutMs();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        admission.close();
+
+        // Let executing trades finish
+        List<CompletableFuture<?>> executions = new ArrayList<>();
+        for (TradeShard shard : shards.values()) {
+            for (TradeSession session : shard.getSessions()) {
+                CompletableFuture<TradeSession.TradeResult> execution = session.getPendingExecution();
+                if (execution != null) {
+                    executions.add(execution);
+                }
+            }
+        }
+        if (!awaitAll(executions, deadline)) {
+            LOGGER.atWarning().log("Trade executions still running after the shutdown timeout of " + timeoutMs + "ms");
+        }
+
+        // Drop executions that never started, so none starts after its session is cancelled;
+        // whoever waits for one is told the server is shutting down
+        TradeSession.TradeResult shuttingDown = new TradeSession.TradeResult(false,
+            TradeMessages.defaults().admissionShuttingDown().getAnsiMessage());
+        for (TradeShard shard : shards.values()) {
+            int dropped = shard.getExecutionQueue().clear(shuttingDown);
+            if (dropped > 0) {
+                LOGGER.atWarning().log("Dropped " + dropped + " queued trades of world " + shard.getWorldName() + " on shutdown");
+            }
+        }
+
+        // Abort executions still running, then cancel the remaining sessions on their world threads
+        List<CompletableFuture<?>> cancellations = new ArrayList<>();
+        for (TradeShard shard : shards.values()) {
+            for (TradeSession session : new ArrayList<>(shard.getSessions())) {
+                if (session.getState() == TradeState.EXECUTING) {
+                    if (!session.abortForShutdown()) {
+                        // A same-world execution runs in one world task and is never half done
+                        LOGGER.atWarning().log("Trade session " + session.getSessionId() +
+                            " still executing on its world thread on shutdown, escrow kept in escrow.json");
+                        continue;
+                    }
+                    CompletableFuture<TradeSession.TradeResult> execution = session.getPendingExecution();
+                    if (execution != null) {
+                        execution.complete(shuttingDown);
+                    }
+                }
+                cancellations.add(runOnPlayerWorldAsync(session.getInitiator(), () -> cancelForShutdown(session)));
+            }
+        }
+        if (!awaitAll(cancellations, deadline)) {
+            LOGGER.atWarning().log("Trade sessions still being cancelled after the shutdown timeout of " + timeoutMs + "ms");
+        }
+
+        // Close the pages still open (ending a session closes its pages, this catches the rest)
+        List<CompletableFuture<?>> closes = new ArrayList<>();
+        for (Map.Entry<UUID, TradingPage> entry : tradingPageInstances.entrySet()) {
+            PlayerRef player = tradingPagePlayers.get(entry.getKey());
+            TradingPage page = entry.getValue();
+            page.requestClose();
+            if (player != null) {
+                closes.add(runOnPlayerWorldAsync(player, page::closeUI));
+            }
+        }
+        if (!awaitAll(closes, deadline)) {
+            LOGGER.atWarning().log("Trading pages still open after the shutdown timeout of " + timeoutMs + "ms");
+        }
+
+        // Stop and join the ticker and the page schedulers
         scheduler.shutdown();
         try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            if (!scheduler.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
                 scheduler.shutdownNow();
             }
         } catch (InterruptedException e) {
             scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        int running = pageLeaks.shutdown(deadline);
+        if (running > 0) {
+            LOGGER.atWarning().log(running + " trading page schedulers still running after the shutdown timeout");
         }
 
-        // Cancel all active sessions
-        for (TradeSession session : activeSessions.values()) {
-            session.cancel(null);
+        for (TradeShard shard : shards.values()) {
+            shard.clear();
         }
-        activeSessions.clear();
-        playerToSession.clear();
-        pendingRequests.clear();
+        shards.clear();
+        sessionDirectory.clear();
+        requestDirectory.clear();
+        outbox.clear();
+        playerNames.clear();
+        playerPositions.clear();
+        distances.clear();
+        directory.close();
+        pageModels.clear();
+        reservations.clear();
+        rateLimiter.clear();
+        idleReaper.clear();
+    }
+
+    /**
+     * Cancel a session whose player disconnected while it was executing. Runs once the execution failed.
+     */
+    private void cancelForDisconnect(TradeSession session, PlayerRef player) {
+        if (getShard(session) == null || !session.cancel(null)) return;
+        endForDisconnect(session, player);
+    }
+
+    /**
+     * End a session cancelled because one of its players disconnected.
+     * Closes the partner's trading UI and warns them via chat.
+     */
+    private void endForDisconnect(TradeSession session, PlayerRef player) {
+        // Get the other player before ending the session
+        PlayerRef other = session.isTestMode() ? null : session.getOtherPlayer(player);
+
+        endSession(session);
+
+        // For the remaining player: Mark their UI to close and send notification
+        // The UI will close automatically on the next update (when they interact or inventory changes)
+        // because it will detect the session no longer exists
+        if (other != null) {
+            UUID otherId = other.getUuid();
+            org.toskan4134.easytrade.ui.TradingPage otherPage = tradingPageInstances.get(otherId);
+            if (otherPage != null) {
+                // Mark this page to close on next update (deferred close on WorldThread)
+                otherPage.requestClose();
+                Common.logDebug(LOGGER, DebugCategory.UI, "Marked {}'s UI for deferred close", other.getUsername());
+            }
+
+            // Send chat notification
+            other.sendMessage(TradeMessages.forPlayer(other).disconnectCancelled());
+        }
+    }
+
+    /**
+     * Cancel a session because the server is shutting down. Runs on the initiator's world thread.
+     */
+    private void cancelForShutdown(TradeSession session) {
+        if (getShard(session) == null || !session.cancel(null)) return;
+
+        endSession(session);
+        PlayerRef initiator = session.getInitiator();
+        initiator.sendMessage(TradeMessages.forPlayer(initiator).shutdownCancelled());
+        if (!session.isTestMode()) {
+            PlayerRef target = session.getTarget();
+            target.sendMessage(TradeMessages.forPlayer(target).shutdownCancelled());
+        }
+    }
+
+    /**
+     * Like {@link #runOnPlayerWorld(PlayerRef, Runnable)}, completing the returned future once the task ran.
+     * If the world no longer accepts tasks, the task runs inline.
+     */
+    private CompletableFuture<Void> runOnPlayerWorldAsync(PlayerRef player, Runnable task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable tracked = () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error in world task for " + player.getUsername());
+            } finally {
+                done.complete(null);
+            }
+        };
+        try {
+            runOnPlayerWorld(player, tracked);
+        } catch (RejectedExecutionException e) {
+            tracked.run();
+        }
+        return done;
+    }
+
+    /**
+     * Wait for futures to complete until a deadline.
+     * @param deadline {@link System#nanoTime()} after which to stop waiting
+     * @return false if some were still running at the deadline
+     */
+    private static boolean awaitAll(List<CompletableFuture<?>> futures, long deadline) {
+        if (futures.isEmpty()) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Failed futures are done too; their errors are logged where they happen
+            return true;
+        }
+    }
+
+    // ===== NODE DIRECTORY =====
+
+    /**
+     * Replace the trade directory (e.g. with a broker-backed one on multi-node servers).
+     */
+    public void setDirectory(TradeDirectory directory) {
+        if (this.directory != null) {
+            this.directory.close();
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Check whether a player not found on this node is online on another one.
+     */
+    public boolean isOnOtherNode(String username) {
+        String node = directory.locate(username);
+        return node != null && !node.equals(directory.getNodeId());
+    }
+
+    public TradeDirectory getDirectory() {
+        return directory;
     }
 
     // ===== RESULT CLASSES =====
@@ -699,18 +2225,36 @@ public class TradeManager {
         public final boolean success;
         public final String message;
         public final TradeSession session;
+        // Message to show the player when the request was refused by a policy (e.g. a trade zone)
+        public final Message reason;
 
         public TradeRequestResult(boolean success, String message) {
             this(success, message, null);
         }
 
         public TradeRequestResult(boolean success, String message, TradeSession session) {
+            this(success, message, session, null);
+        }
+
+        public TradeRequestResult(boolean success, String message, TradeSession session, Message reason) {
             this.success = success;
             this.message = message;
             this.session = session;
+            this.reason = reason;
         }
     }
 
+    /**
+     * Open the trading UI for a player on their own world thread, with their own entity store.
+     * Used when the player is not the one running the command (they may be in another world).
+     */
+    public void openTradeUI(PlayerRef playerRef) {
+        Ref<EntityStore> ref = playerRef.getReference();
+        World world = getWorld(ref);
+        if (world == null) return;
+        world.execute(() -> openTradeUI(playerRef, ref.getStore(), ref));
+    }
+
     public void openTradeUI(PlayerRef playerRef,
                              Store<EntityStore> store,
                              Ref<EntityStore> playerEntityRef) {
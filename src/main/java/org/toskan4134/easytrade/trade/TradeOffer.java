@@ -15,6 +15,8 @@ public class TradeOffer {
 
     private final List<ItemStack> items;
     private boolean locked;
+    // Incremented on every change to the items (used to detect stale session views)
+    private long revision;
 
     public TradeOffer() {
         this.items = new ArrayList<>();
@@ -31,6 +33,7 @@ public class TradeOffer {
             return false;
         }
         items.add(InventoryHelper.copyItemStack(item));
+        revision++;
         return true;
     }
 
@@ -43,6 +46,7 @@ public class TradeOffer {
         if (locked || index < 0 || index >= items.size()) {
             return null;
         }
+        revision++;
         return items.remove(index);
     }
 
@@ -72,6 +76,7 @@ public class TradeOffer {
             String itemId = item.getItem().getId();
             items.set(index, new ItemStack(itemId, currentQuantity - amount));
         }
+        revision++;
         return true;
     }
 
@@ -93,6 +98,7 @@ public class TradeOffer {
 
         String itemId = item.getItem().getId();
         items.set(index, new ItemStack(itemId, newQuantity));
+        revision++;
         return true;
     }
 
@@ -132,6 +138,14 @@ public class TradeOffer {
         return items.isEmpty();
     }
 
+    /**
+     * Get the revision counter, incremented on every item change.
+     * @return Current revision
+     */
+    public long getRevision() {
+        return revision;
+    }
+
     /**
      * Lock the offer to prevent modifications.
      * Called when player accepts the trade.
@@ -162,6 +176,7 @@ public class TradeOffer {
     public void clear() {
         if (!locked) {
             items.clear();
+            revision++;
         }
     }
 
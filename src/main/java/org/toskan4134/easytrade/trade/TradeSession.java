@@ -11,13 +11,16 @@ import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.TradingPlugin;
+import org.toskan4134.easytrade.config.TradeConfigSnapshot;
 import org.toskan4134.easytrade.messages.TradeMessages;
 import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
 import org.toskan4134.easytrade.util.InventoryHelper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents an active trade session between two players.
@@ -35,12 +38,38 @@ public class TradeSession {
     private final TradeOffer targetOffer;
     private final long createdAt;
     private final boolean testMode;
+    // Config this session started with; reloads only apply to new sessions
+    private final TradeConfigSnapshot config;
 
-    private TradeState state;
+    // Written only under this session's monitor, read without it by the ticker and other worlds
+    private volatile TradeState state;
     private boolean initiatorAccepted;
     private boolean targetAccepted;
     private long countdownStartTime;
-    private ScheduledFuture<?> countdownTask;
+    private TradeShard.Timer countdownTask;
+
+    // Incremented on every state/acceptance change; together with the offer revisions
+    // it tells whether the cached view is stale
+    private long stateVersion;
+    private SessionView view;
+    // Time of the last state change or offer edit, used by the idle timeouts
+    private volatile long lastActivityAt;
+
+    // Items taken out of each side's inventory on accept (escrow mode) or in the prepare phase of a
+    // cross-world execution, null when not held. Each side is only written from its own world thread,
+    // through setEscrow so the escrow ledger always matches.
+    private volatile List<ItemStack> initiatorEscrow;
+    private volatile List<ItemStack> targetEscrow;
+
+    // Single-flight execution: the latest execution and the idempotency token it was started with
+    private CompletableFuture<TradeResult> execution;
+    private long executionToken;
+    // Cancellation requested while executing, run once the execution is over
+    private Runnable pendingCancel;
+    // Two-phase (cross-world) execution in flight, and which sides have received their partner's items
+    private boolean twoPhase;
+    private boolean initiatorCommitted;
+    private boolean targetCommitted;
 
     public TradeSession(TradingPlugin plugin, PlayerRef initiator, PlayerRef target) {
         this(plugin, initiator, target, false);
@@ -56,6 +85,8 @@ public class TradeSession {
         this.targetOffer = new TradeOffer();
         this.state = TradeState.PENDING_REQUEST;
         this.createdAt = System.currentTimeMillis();
+        this.lastActivityAt = createdAt;
+        this.config = Common.getConfigSnapshot();
         this.initiatorAccepted = false;
         this.targetAccepted = false;
     }
@@ -69,6 +100,13 @@ public class TradeSession {
 
     // ===== GETTERS =====
 
+    /**
+     * Get the config this session started with.
+     */
+    public TradeConfigSnapshot getConfig() {
+        return config;
+    }
+
     public UUID getSessionId() {
         return sessionId;
     }
@@ -109,12 +147,61 @@ public class TradeSession {
         return countdownStartTime;
     }
 
+    /**
+     * Get the time of the last state change or offer edit.
+     */
+    public long getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    /**
+     * Get how long this session may stay without activity in its current state before it is
+     * cancelled, from the config it started with.
+     * @return Idle timeout in ms, or 0 if the current state never times out
+     */
+    public long getIdleTimeoutMs() {
+        switch (state) {
+            case NEGOTIATING:
+            case ONE_ACCEPTED:
+                return config.getNegotiationTimeoutMs();
+            case BOTH_ACCEPTED_COUNTDOWN:
+                return config.getConfirmTimeoutMs();
+            default:
+                // Requests expire on their own timer, executions must finish or roll back
+                return 0;
+        }
+    }
+
+    private void stateChanged() {
+        stateVersion++;
+        lastActivityAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the shared, immutable view of this session.
+     * The view is rebuilt at most once per change and reused by both trading pages.
+     */
+    public synchronized SessionView getView() {
+        long initiatorRevision = initiatorOffer.getRevision();
+        long targetRevision = targetOffer.getRevision();
+        SessionView current = view;
+        if (current == null || !current.isCurrent(stateVersion, initiatorRevision, targetRevision)) {
+            long deadline = state == TradeState.BOTH_ACCEPTED_COUNTDOWN
+                ? countdownStartTime + config.getCountdownDurationMs()
+                : 0;
+            current = new SessionView(stateVersion, initiatorRevision, targetRevision, state,
+                initiatorOffer, targetOffer, initiatorAccepted, targetAccepted, deadline);
+            view = current;
+        }
+        return current;
+    }
+
     public long getRemainingCountdownMs() {
         if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
             return 0;
         }
         long elapsed = System.currentTimeMillis() - countdownStartTime;
-        return Math.max(0, Common.getCountdownDurationMs() - elapsed);
+        return Math.max(0, config.getCountdownDurationMs() - elapsed);
     }
 
     // ===== STATE MANAGEMENT =====
@@ -132,7 +219,7 @@ public class TradeSession {
     /**
      * Check if the player matches the initiator (by UUID).
      */
-    private boolean isInitiator(PlayerRef player) {
+    public boolean isInitiator(PlayerRef player) {
         return player != null && player.getUuid().equals(initiator.getUuid());
     }
 
@@ -182,12 +269,13 @@ public class TradeSession {
     /**
      * Target accepts the trade request, moving to NEGOTIATING state.
      */
-    public boolean acceptRequest() {
+    public synchronized boolean acceptRequest() {
         if (state != TradeState.PENDING_REQUEST) {
             return false;
         }
         state = TradeState.NEGOTIATING;
-        Common.logDebug(LOGGER, "Trade session " + sessionId + " moved to NEGOTIATING");
+        stateChanged();
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} moved to NEGOTIATING", sessionId);
         return true;
     }
 
@@ -195,7 +283,7 @@ public class TradeSession {
      * Player accepts the current trade offers.
      * In test mode, accepting sets both parties as accepted.
      */
-    public boolean accept(PlayerRef player) {
+    public synchronized boolean accept(PlayerRef player) {
         if (state != TradeState.NEGOTIATING && state != TradeState.ONE_ACCEPTED) {
             return false;
         }
@@ -208,7 +296,8 @@ public class TradeSession {
             targetOffer.lock();
             state = TradeState.BOTH_ACCEPTED_COUNTDOWN;
             countdownStartTime = System.currentTimeMillis();
-            Common.logDebug(LOGGER, "Trade session " + sessionId + " [TEST] - both accepted, starting countdown");
+            stateChanged();
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} [TEST] - both accepted, starting countdown", sessionId);
             return true;
         }
 
@@ -226,11 +315,12 @@ public class TradeSession {
         if (initiatorAccepted && targetAccepted) {
             state = TradeState.BOTH_ACCEPTED_COUNTDOWN;
             countdownStartTime = System.currentTimeMillis();
-            Common.logDebug(LOGGER, "Trade session " + sessionId + " - both accepted, starting countdown");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - both accepted, starting countdown", sessionId);
         } else {
             state = TradeState.ONE_ACCEPTED;
-            Common.logDebug(LOGGER, "Trade session " + sessionId + " - one player accepted");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - one player accepted", sessionId);
         }
+        stateChanged();
 
         return true;
     }
@@ -238,56 +328,84 @@ public class TradeSession {
     /**
      * Player revokes their acceptance (only works during countdown or one_accepted).
      */
-    public boolean revokeAccept(PlayerRef player) {
+    public synchronized boolean revokeAccept(PlayerRef player) {
         if (state != TradeState.ONE_ACCEPTED && state != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-            Common.logDebug(LOGGER, "Cannot revoke - wrong state: " + state);
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Cannot revoke - wrong state: {}", state);
             return false;
         }
 
         if (isInitiator(player)) {
             initiatorAccepted = false;
             initiatorOffer.unlock();
-            Common.logDebug(LOGGER, "Initiator revoked acceptance");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Initiator revoked acceptance");
         } else if (isTarget(player)) {
             targetAccepted = false;
             targetOffer.unlock();
-            Common.logDebug(LOGGER, "Target revoked acceptance");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Target revoked acceptance");
         } else {
-            Common.logDebug(LOGGER, "Player not recognized as initiator or target");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Player not recognized as initiator or target");
             return false;
         }
 
         // Reset to negotiating state
         state = TradeState.NEGOTIATING;
         cancelCountdown();
+        stateChanged();
 
-        Common.logDebug(LOGGER, "Trade session " + sessionId + " - acceptance revoked, back to NEGOTIATING");
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - acceptance revoked, back to NEGOTIATING", sessionId);
         return true;
     }
 
     /**
      * Called when offer changes - resets accept states.
      */
-    public void onOfferChanged(PlayerRef player) {
+    public synchronized void onOfferChanged(PlayerRef player) {
+        lastActivityAt = System.currentTimeMillis();
         if (state == TradeState.ONE_ACCEPTED || state == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
             // Reset acceptances when offers change
             revokeAllAcceptances();
-            Common.logDebug(LOGGER, "Trade session " + sessionId + " - offer changed, reset to NEGOTIATING");
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - offer changed, reset to NEGOTIATING", sessionId);
         }
     }
 
     /**
      * Revoke all acceptances and return to NEGOTIATING state.
-     * Used when either player modifies their offer while accepted.
+     * Used when either player modifies their offer while accepted. Does nothing once the session
+     * is executing or over; a failed execution goes back through {@link #abortExecution()}.
+     * @return false if the session was not negotiating
+     */
+    public synchronized boolean revokeAllAcceptances() {
+        if (state != TradeState.NEGOTIATING && state != TradeState.ONE_ACCEPTED
+                && state != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Cannot revoke acceptances - wrong state: {}", state);
+            return false;
+        }
+        resetAcceptances();
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - all acceptances revoked", sessionId);
+        return true;
+    }
+
+    /**
+     * Return a failed execution to NEGOTIATING, with all acceptances revoked.
+     * @return false if the session was not executing
      */
-    public void revokeAllAcceptances() {
+    public synchronized boolean abortExecution() {
+        if (state != TradeState.EXECUTING) {
+            return false;
+        }
+        resetAcceptances();
+        Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Trade session {} - execution aborted, back to NEGOTIATING", sessionId);
+        return true;
+    }
+
+    private void resetAcceptances() {
         initiatorAccepted = false;
         targetAccepted = false;
         initiatorOffer.unlock();
         targetOffer.unlock();
         state = TradeState.NEGOTIATING;
         cancelCountdown();
-        Common.logDebug(LOGGER, "Trade session " + sessionId + " - all acceptances revoked");
+        stateChanged();
     }
 
     /**
@@ -305,32 +423,31 @@ public class TradeSession {
      * This is the critical section that must succeed or rollback completely.
      * On verification failures, revokes acceptances and returns to NEGOTIATING.
      */
-    public TradeResult execute(Store<EntityStore> store,
+    public TradeResult execute(Store<EntityStore> initiatorStore,
                                 Ref<EntityStore> initiatorEntityRef,
+                                Store<EntityStore> targetStore,
                                 Ref<EntityStore> targetEntityRef) {
-        if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN || !isCountdownComplete()) {
-            return new TradeResult(false, TradeMessages.errorNotReady().getAnsiMessage());
+        if (!beginExecution()) {
+            return new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage());
         }
-
-        state = TradeState.EXECUTING;
-        Common.logDebug(LOGGER, "Trade session " + sessionId + " - executing atomic trade");
+        Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Trade session {} - executing atomic trade", sessionId);
 
         try {
-            // Get player components
-            Player initiatorPlayer = store.getComponent(initiatorEntityRef, Player.getComponentType());
-            Player targetPlayer = store.getComponent(targetEntityRef, Player.getComponentType());
+            // Get player components (each from the store that owns the entity)
+            Player initiatorPlayer = initiatorStore.getComponent(initiatorEntityRef, Player.getComponentType());
+            Player targetPlayer = targetStore.getComponent(targetEntityRef, Player.getComponentType());
 
             if (initiatorPlayer == null || targetPlayer == null) {
-                revokeAllAcceptances();
-                return new TradeResult(false, TradeMessages.errorPlayerUnavailable().getAnsiMessage());
+                abortExecution();
+                return new TradeResult(false, TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage());
             }
 
             Inventory initiatorInventory = initiatorPlayer.getInventory();
             Inventory targetInventory = targetPlayer.getInventory();
 
             if (initiatorInventory == null || targetInventory == null) {
-                revokeAllAcceptances();
-                return new TradeResult(false, TradeMessages.errorPlayerUnavailable().getAnsiMessage());
+                abortExecution();
+                return new TradeResult(false, TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage());
             }
 
             // Get ALL containers for each player (hotbar + backpack + storage)
@@ -341,50 +458,33 @@ public class TradeSession {
             List<ItemContainer> initiatorDepositContainers = getContainersForDeposit(initiatorInventory);
             List<ItemContainer> targetDepositContainers = getContainersForDeposit(targetInventory);
 
-            // === VERIFICATION PHASE ===
-            // Verify initiator has all offered items (check across ALL containers)
-            if (!verifyPlayerHasItems(initiatorContainers, initiatorOffer.getItems())) {
-                revokeAllAcceptances();
-                return TradeResult.initiatorFailure(
-                    TradeMessages.errorItemsNotFound().getAnsiMessage(),
-                    TradeMessages.errorPartnerItemsNotFound(initiator.getUsername()).getAnsiMessage()
-                );
-            }
-
-            // Verify target has all offered items (check across ALL containers)
-            if (!verifyPlayerHasItems(targetContainers, targetOffer.getItems())) {
-                revokeAllAcceptances();
-                return TradeResult.targetFailure(
-                    TradeMessages.errorItemsNotFound().getAnsiMessage(),
-                    TradeMessages.errorPartnerItemsNotFound(target.getUsername()).getAnsiMessage()
-                );
+            // === ESCROW MODE ===
+            // Offered items already left both inventories on accept: only deposit them
+            if (initiatorEscrow != null && targetEscrow != null) {
+                return depositEscrow(initiatorContainers, targetContainers,
+                    initiatorDepositContainers, targetDepositContainers);
             }
-
-            // Verify both players have space for received items (smart check with stack merging)
-            if (!canReceiveItems(initiatorContainers, targetOffer.getItems())) {
-                revokeAllAcceptances();
-                return TradeResult.initiatorFailure(
-                    TradeMessages.errorNoSpace().getAnsiMessage(),
-                    TradeMessages.errorPartnerNoSpace(initiator.getUsername()).getAnsiMessage()
-                );
+            if (initiatorEscrow != null || targetEscrow != null) {
+                // Only one side escrowed (e.g. escrow mode toggled mid-trade) - the escrow is returned on revoke
+                abortExecution();
+                return new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage());
             }
 
-            if (!canReceiveItems(targetContainers, initiatorOffer.getItems())) {
-                revokeAllAcceptances();
-                return TradeResult.targetFailure(
-                    TradeMessages.errorNoSpace().getAnsiMessage(),
-                    TradeMessages.errorPartnerNoSpace(target.getUsername()).getAnsiMessage()
-                );
+            // === VERIFICATION PHASE ===
+            TradeResult verifyFailure = verifyOffers(initiatorContainers, targetContainers);
+            if (verifyFailure != null) {
+                abortExecution();
+                return verifyFailure;
             }
 
             // === WITHDRAWAL PHASE ===
             // Remove items from initiator (from any container)
             List<ItemStack> initiatorWithdrawn = withdrawItems(initiatorContainers, initiatorOffer.getItems());
             if (initiatorWithdrawn == null) {
-                revokeAllAcceptances();
+                abortExecution();
                 return TradeResult.initiatorFailure(
-                    TradeMessages.errorWithdrawFailed().getAnsiMessage(),
-                    TradeMessages.errorPartnerWithdrawFailed(initiator.getUsername()).getAnsiMessage()
+                    TradeMessages.defaults().errorWithdrawFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerWithdrawFailed(initiator.getUsername()).getAnsiMessage()
                 );
             }
 
@@ -393,10 +493,10 @@ public class TradeSession {
             if (targetWithdrawn == null) {
                 // ROLLBACK: Return items to initiator
                 depositItemsSmart(initiatorDepositContainers, initiatorWithdrawn);
-                revokeAllAcceptances();
+                abortExecution();
                 return TradeResult.targetFailure(
-                    TradeMessages.errorWithdrawFailed().getAnsiMessage(),
-                    TradeMessages.errorPartnerWithdrawFailed(target.getUsername()).getAnsiMessage()
+                    TradeMessages.defaults().errorWithdrawFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerWithdrawFailed(target.getUsername()).getAnsiMessage()
                 );
             }
 
@@ -406,10 +506,10 @@ public class TradeSession {
                 // ROLLBACK: Return all items
                 depositItemsSmart(initiatorDepositContainers, initiatorWithdrawn);
                 depositItemsSmart(targetDepositContainers, targetWithdrawn);
-                revokeAllAcceptances();
+                abortExecution();
                 return TradeResult.initiatorFailure(
-                    TradeMessages.errorDepositFailed().getAnsiMessage(),
-                    TradeMessages.errorPartnerDepositFailed(initiator.getUsername()).getAnsiMessage()
+                    TradeMessages.defaults().errorDepositFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerDepositFailed(initiator.getUsername()).getAnsiMessage()
                 );
             }
 
@@ -419,34 +519,565 @@ public class TradeSession {
                 withdrawItems(initiatorContainers, targetWithdrawn);
                 depositItemsSmart(initiatorDepositContainers, initiatorWithdrawn);
                 depositItemsSmart(targetDepositContainers, targetWithdrawn);
-                revokeAllAcceptances();
+                abortExecution();
                 return TradeResult.targetFailure(
-                    TradeMessages.errorDepositFailed().getAnsiMessage(),
-                    TradeMessages.errorPartnerDepositFailed(target.getUsername()).getAnsiMessage()
+                    TradeMessages.defaults().errorDepositFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerDepositFailed(target.getUsername()).getAnsiMessage()
                 );
             }
 
             // === SUCCESS ===
-            state = TradeState.COMPLETED;
+            markCompleted();
             LOGGER.atInfo().log("Trade session " + sessionId + " - completed successfully!");
 
-            return new TradeResult(true, TradeMessages.statusCompleted().getAnsiMessage());
+            return new TradeResult(true, TradeMessages.defaults().statusCompleted().getAnsiMessage());
 
         } catch (Exception e) {
             LOGGER.atSevere().withCause(e).log("Trade session " + sessionId + " - execution failed with exception");
+            abortExecution();
+            return new TradeResult(false, TradeMessages.defaults().errorSystemError(e.getMessage()).getAnsiMessage());
+        }
+    }
+
+    /**
+     * Atomically move from a completed countdown to EXECUTING.
+     * @return false if the session is not ready or another thread already started executing
+     */
+    public synchronized boolean beginExecution() {
+        if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN || !isCountdownComplete()) {
+            return false;
+        }
+        state = TradeState.EXECUTING;
+        twoPhase = false;
+        initiatorCommitted = false;
+        targetCommitted = false;
+        stateChanged();
+        return true;
+    }
+
+    /**
+     * Like {@link #beginExecution()}, for a two-phase execution driven by the TradeManager.
+     */
+    public synchronized boolean beginTwoPhaseExecution() {
+        if (!beginExecution()) {
+            return false;
+        }
+        twoPhase = true;
+        return true;
+    }
+
+    /**
+     * Get the execution of this session if one is still in flight.
+     * @return the execution's future, or null if none is running
+     */
+    public synchronized CompletableFuture<TradeResult> getPendingExecution() {
+        return execution != null && !execution.isDone() ? execution : null;
+    }
+
+    /**
+     * Claim the right to execute this session for the given idempotency token.
+     * A confirm with the token of an earlier execution, or any confirm while an execution is
+     * still in flight, gets that execution back instead and must not execute again.
+     * A confirm before the countdown is complete gets an immediate failure.
+     *
+     * @param token Idempotency token of the confirm (the countdown deadline it confirms)
+     * @param execution The future the caller will complete if the claim succeeds
+     * @return null if the caller must execute, otherwise the result to use
+     */
+    public synchronized CompletableFuture<TradeResult> claimExecution(long token, CompletableFuture<TradeResult> execution) {
+        if (this.execution != null && (this.executionToken == token || !this.execution.isDone())) {
+            return this.execution;
+        }
+        if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN || !isCountdownComplete()) {
+            // Not ready yet - nothing to join and nothing to remember for this token
+            return CompletableFuture.completedFuture(
+                new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage()));
+        }
+        this.execution = execution;
+        this.executionToken = token;
+        return null;
+    }
+
+    /**
+     * Run the read-only checks of execute ahead of time, while the countdown is still running.
+     * Nothing is moved. On failure, acceptances are revoked just like a failed execution.
+     * @return a successful result if the trade can be executed as it stands
+     */
+    public TradeResult preVerify(Store<EntityStore> initiatorStore,
+                                 Ref<EntityStore> initiatorEntityRef,
+                                 Store<EntityStore> targetStore,
+                                 Ref<EntityStore> targetEntityRef) {
+        if (state != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
+            return new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage());
+        }
+
+        try {
+            Player initiatorPlayer = initiatorStore.getComponent(initiatorEntityRef, Player.getComponentType());
+            Player targetPlayer = targetStore.getComponent(targetEntityRef, Player.getComponentType());
+            Inventory initiatorInventory = initiatorPlayer != null ? initiatorPlayer.getInventory() : null;
+            Inventory targetInventory = targetPlayer != null ? targetPlayer.getInventory() : null;
+
+            if (initiatorInventory == null || targetInventory == null) {
+                revokeAllAcceptances();
+                return new TradeResult(false, TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage());
+            }
+
+            List<ItemContainer> initiatorContainers = getAllContainers(initiatorInventory);
+            List<ItemContainer> targetContainers = getAllContainers(targetInventory);
+
+            TradeResult failure;
+            if (initiatorEscrow != null && targetEscrow != null) {
+                failure = verifyEscrowSpace(initiatorContainers, targetContainers);
+            } else {
+                failure = verifyOffers(initiatorContainers, targetContainers);
+            }
+            if (failure != null) {
+                revokeAllAcceptances();
+                return failure;
+            }
+
+            Common.logDebug(LOGGER, DebugCategory.EXECUTION, "Trade session {} - pre-verification passed", sessionId);
+            return new TradeResult(true, null);
+
+        } catch (Exception e) {
+            LOGGER.atSevere().withCause(e).log("Trade session " + sessionId + " - pre-verification failed with exception");
             revokeAllAcceptances();
-            return new TradeResult(false, TradeMessages.errorSystemError(e.getMessage()).getAnsiMessage());
+            return new TradeResult(false, TradeMessages.defaults().errorSystemError(e.getMessage()).getAnsiMessage());
+        }
+    }
+
+    /**
+     * Verify both players still hold their offered items and have space for what they receive.
+     * @return the failure result, or null if both sides pass
+     */
+    private TradeResult verifyOffers(List<ItemContainer> initiatorContainers, List<ItemContainer> targetContainers) {
+        // Verify initiator has all offered items (check across ALL containers)
+        if (!verifyPlayerHasItems(initiatorContainers, initiatorOffer.getItems())) {
+            return TradeResult.initiatorFailure(
+                TradeMessages.defaults().errorItemsNotFound().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerItemsNotFound(initiator.getUsername()).getAnsiMessage()
+            );
+        }
+
+        // Verify target has all offered items (check across ALL containers)
+        if (!verifyPlayerHasItems(targetContainers, targetOffer.getItems())) {
+            return TradeResult.targetFailure(
+                TradeMessages.defaults().errorItemsNotFound().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerItemsNotFound(target.getUsername()).getAnsiMessage()
+            );
+        }
+
+        // Verify both players have space for received items (smart check with stack merging)
+        if (!canReceiveItems(initiatorContainers, targetOffer.getItems())) {
+            return TradeResult.initiatorFailure(
+                TradeMessages.defaults().errorNoSpace().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerNoSpace(initiator.getUsername()).getAnsiMessage()
+            );
+        }
+
+        if (!canReceiveItems(targetContainers, initiatorOffer.getItems())) {
+            return TradeResult.targetFailure(
+                TradeMessages.defaults().errorNoSpace().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerNoSpace(target.getUsername()).getAnsiMessage()
+            );
         }
+        return null;
+    }
+
+    /**
+     * Verify both players have space for the other side's escrow.
+     * @return the failure result, or null if both sides pass
+     */
+    private TradeResult verifyEscrowSpace(List<ItemContainer> initiatorContainers, List<ItemContainer> targetContainers) {
+        if (!canReceiveItems(initiatorContainers, targetEscrow)) {
+            return TradeResult.initiatorFailure(
+                TradeMessages.defaults().errorNoSpace().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerNoSpace(initiator.getUsername()).getAnsiMessage()
+            );
+        }
+
+        if (!canReceiveItems(targetContainers, initiatorEscrow)) {
+            return TradeResult.targetFailure(
+                TradeMessages.defaults().errorNoSpace().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerNoSpace(target.getUsername()).getAnsiMessage()
+            );
+        }
+        return null;
+    }
+
+    /**
+     * Deposit both escrows to the counterparties.
+     * Each inventory is snapshotted before its deposit so a failure restores it exactly.
+     */
+    private TradeResult depositEscrow(List<ItemContainer> initiatorContainers,
+                                      List<ItemContainer> targetContainers,
+                                      List<ItemContainer> initiatorDepositContainers,
+                                      List<ItemContainer> targetDepositContainers) {
+        TradeResult spaceFailure = verifyEscrowSpace(initiatorContainers, targetContainers);
+        if (spaceFailure != null) {
+            abortExecution();
+            return spaceFailure;
+        }
+
+        List<ItemStack[]> initiatorSnapshot = snapshotContainers(initiatorDepositContainers);
+        if (!depositItemsSmart(initiatorDepositContainers, targetEscrow)) {
+            restoreContainers(initiatorDepositContainers, initiatorSnapshot);
+            abortExecution();
+            return TradeResult.initiatorFailure(
+                TradeMessages.defaults().errorDepositFailed().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerDepositFailed(initiator.getUsername()).getAnsiMessage()
+            );
+        }
+
+        List<ItemStack[]> targetSnapshot = snapshotContainers(targetDepositContainers);
+        if (!depositItemsSmart(targetDepositContainers, initiatorEscrow)) {
+            restoreContainers(targetDepositContainers, targetSnapshot);
+            restoreContainers(initiatorDepositContainers, initiatorSnapshot);
+            abortExecution();
+            return TradeResult.targetFailure(
+                TradeMessages.defaults().errorDepositFailed().getAnsiMessage(),
+                TradeMessages.defaults().errorPartnerDepositFailed(target.getUsername()).getAnsiMessage()
+            );
+        }
+
+        // === SUCCESS ===
+        setEscrow(true, null);
+        setEscrow(false, null);
+        markCompleted();
+        LOGGER.atInfo().log("Trade session " + sessionId + " - completed successfully from escrow!");
+
+        return new TradeResult(true, TradeMessages.defaults().statusCompleted().getAnsiMessage());
+    }
+
+    // ===== CROSS-WORLD TWO-PHASE COMMIT =====
+    // Each phase touches one side's inventory only and runs on that side's world thread.
+    // The TradeManager calls beginExecution first and hands off between the worlds asynchronously.
+
+    /**
+     * Prepare phase for one side: check this inventory can receive the other side's items,
+     * then take this side's offered items out into escrow (skipped if already escrowed on accept).
+     * Fails without touching the inventory once the session is no longer executing.
+     * @return the failure result, or null if this side is prepared
+     */
+    public TradeResult prepareSide(boolean initiatorSide, Inventory inventory) {
+        if (state != TradeState.EXECUTING) {
+            return new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage());
+        }
+        if (inventory == null) {
+            return new TradeResult(false, TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage());
+        }
+        try {
+            List<ItemContainer> containers = getAllContainers(inventory);
+            List<ItemStack> incoming = (initiatorSide ? targetOffer : initiatorOffer).getItems();
+            if (!canReceiveItems(containers, incoming)) {
+                return sideFailure(initiatorSide,
+                    TradeMessages.defaults().errorNoSpace().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerNoSpace(getSidePlayer(initiatorSide).getUsername()).getAnsiMessage());
+            }
+
+            if (hasEscrow(initiatorSide)) {
+                return null;
+            }
+
+            List<ItemStack> offered = (initiatorSide ? initiatorOffer : targetOffer).getItems();
+            if (!verifyPlayerHasItems(containers, offered)) {
+                return sideFailure(initiatorSide,
+                    TradeMessages.defaults().errorItemsNotFound().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerItemsNotFound(getSidePlayer(initiatorSide).getUsername()).getAnsiMessage());
+            }
+
+            List<ItemStack> withdrawn = withdrawItems(containers, offered);
+            if (withdrawn == null) {
+                return sideFailure(initiatorSide,
+                    TradeMessages.defaults().errorWithdrawFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerWithdrawFailed(getSidePlayer(initiatorSide).getUsername()).getAnsiMessage());
+            }
+            setEscrow(initiatorSide, withdrawn);
+            return null;
+
+        } catch (Exception e) {
+            LOGGER.atSevere().withCause(e).log("Trade session " + sessionId + " - prepare failed with exception");
+            return new TradeResult(false, TradeMessages.defaults().errorSystemError(e.getMessage()).getAnsiMessage());
+        }
+    }
+
+    /**
+     * Commit phase for one side: deposit the other side's prepared items into this inventory.
+     * The inventory is restored exactly if the deposit fails, and left untouched once the session
+     * is no longer executing.
+     * @return the failure result, or null if this side is committed
+     */
+    public synchronized TradeResult commitSide(boolean initiatorSide, Inventory inventory) {
+        if (state != TradeState.EXECUTING) {
+            return new TradeResult(false, TradeMessages.defaults().errorNotReady().getAnsiMessage());
+        }
+        if (inventory == null) {
+            return new TradeResult(false, TradeMessages.defaults().errorPlayerUnavailable().getAnsiMessage());
+        }
+        List<ItemContainer> depositContainers = getContainersForDeposit(inventory);
+        List<ItemStack[]> snapshot = snapshotContainers(depositContainers);
+        try {
+            List<ItemStack> incoming = initiatorSide ? targetEscrow : initiatorEscrow;
+            if (incoming != null && !depositItemsSmart(depositContainers, incoming)) {
+                restoreContainers(depositContainers, snapshot);
+                return sideFailure(initiatorSide,
+                    TradeMessages.defaults().errorDepositFailed().getAnsiMessage(),
+                    TradeMessages.defaults().errorPartnerDepositFailed(getSidePlayer(initiatorSide).getUsername()).getAnsiMessage());
+            }
+            if (initiatorSide) {
+                initiatorCommitted = true;
+            } else {
+                targetCommitted = true;
+            }
+            return null;
+
+        } catch (Exception e) {
+            LOGGER.atSevere().withCause(e).log("Trade session " + sessionId + " - commit failed with exception");
+            restoreContainers(depositContainers, snapshot);
+            return new TradeResult(false, TradeMessages.defaults().errorSystemError(e.getMessage()).getAnsiMessage());
+        }
+    }
+
+    /**
+     * Undo a committed side after the other side failed to commit:
+     * take the received items back out of this inventory. Does nothing once the session is no
+     * longer executing (see {@link #abortForShutdown()}).
+     * @return true if everything received was taken back
+     */
+    public synchronized boolean undoCommitSide(boolean initiatorSide, Inventory inventory) {
+        List<ItemStack> received = initiatorSide ? targetEscrow : initiatorEscrow;
+        if (state != TradeState.EXECUTING || received == null) {
+            return true;
+        }
+        if (inventory == null) {
+            return false;
+        }
+        if (withdrawItems(getAllContainers(inventory), received) == null) {
+            return false;
+        }
+        if (initiatorSide) {
+            initiatorCommitted = false;
+        } else {
+            targetCommitted = false;
+        }
+        return true;
+    }
+
+    /**
+     * Abort a two-phase execution still in flight when the server shuts down. The steps that haven't
+     * run yet find the session no longer executing and do nothing. If no side has committed, each
+     * escrow stays with its owner and is given back when the session ends. Once a side has committed,
+     * the trade is rolled forward instead: the escrow not delivered yet is recorded in the escrow
+     * ledger for its recipient, who gets it on their next join.
+     * @return false if the session is not in a two-phase execution
+     */
+    public synchronized boolean abortForShutdown() {
+        if (state != TradeState.EXECUTING || !twoPhase) {
+            return false;
+        }
+        if (initiatorCommitted || targetCommitted) {
+            for (boolean initiatorSide : new boolean[] {true, false}) {
+                boolean delivered = initiatorSide ? targetCommitted : initiatorCommitted;
+                PlayerRef recipient = getSidePlayer(!initiatorSide);
+                // Not through setEscrow: the entry now belongs to the recipient
+                plugin.getEscrowStorage().record(sessionId, initiatorSide, recipient.getUuid(), recipient.getUsername(),
+                    delivered ? null : (initiatorSide ? initiatorEscrow : targetEscrow));
+                if (initiatorSide) {
+                    initiatorEscrow = null;
+                } else {
+                    targetEscrow = null;
+                }
+            }
+        }
+        state = TradeState.FAILED;
+        stateChanged();
+        LOGGER.atWarning().log("Trade session " + sessionId + " - execution aborted on shutdown, " +
+            (initiatorCommitted || targetCommitted ? "rolled forward" : "rolled back"));
+        return true;
+    }
+
+    /**
+     * Mark a two-phase execution as committed on both sides.
+     */
+    public synchronized void completeExecution() {
+        setEscrow(true, null);
+        setEscrow(false, null);
+        markCompleted();
+        LOGGER.atInfo().log("Trade session " + sessionId + " - completed successfully across worlds!");
+    }
+
+    private PlayerRef getSidePlayer(boolean initiatorSide) {
+        return initiatorSide ? initiator : target;
+    }
+
+    private static TradeResult sideFailure(boolean initiatorSide, String sideMessage, String otherMessage) {
+        return initiatorSide
+            ? TradeResult.initiatorFailure(sideMessage, otherMessage)
+            : TradeResult.targetFailure(sideMessage, otherMessage);
+    }
+
+    // ===== ESCROW =====
+
+    /**
+     * Move a side's offered items out of the inventory into this session's escrow.
+     * @return true if the items are now escrowed (or already were)
+     */
+    public synchronized boolean escrowOffer(boolean initiatorSide, Inventory inventory) {
+        if (hasEscrow(initiatorSide)) {
+            return true;
+        }
+        if (inventory == null) {
+            return false;
+        }
+
+        TradeOffer offer = initiatorSide ? initiatorOffer : targetOffer;
+        List<ItemStack> withdrawn = withdrawItems(getAllContainers(inventory), offer.getItems());
+        if (withdrawn == null) {
+            return false;
+        }
+
+        setEscrow(initiatorSide, withdrawn);
+        Common.logDebug(LOGGER, DebugCategory.EXECUTION, () -> "Trade session " + sessionId + " - escrowed " + withdrawn.size() +
+            " stacks from " + (initiatorSide ? "initiator" : "target"));
+        return true;
+    }
+
+    /**
+     * Return a side's escrowed items to the inventory.
+     * Stacks that don't fit stay in escrow so a later return can retry them.
+     * @return true if nothing is left in escrow for that side
+     */
+    public synchronized boolean returnEscrow(boolean initiatorSide, Inventory inventory) {
+        List<ItemStack> escrow = initiatorSide ? initiatorEscrow : targetEscrow;
+        if (escrow == null) {
+            return true;
+        }
+        if (!plugin.getEscrowStorage().contains(sessionId, initiatorSide)) {
+            // Already given back from the ledger (the owner joined while this return was queued)
+            setEscrow(initiatorSide, null);
+            return true;
+        }
+        if (inventory == null) {
+            return false;
+        }
+
+        List<ItemStack> kept = depositReturnedItems(inventory, escrow);
+        List<ItemStack> remaining = kept.isEmpty() ? null : kept;
+        setEscrow(initiatorSide, remaining);
+        return remaining == null;
+    }
+
+    /**
+     * Deposit items given back to their owner, stack by stack. Must run on the owner's world thread.
+     * @return the stacks that didn't fit
+     */
+    public static List<ItemStack> depositReturnedItems(Inventory inventory, List<ItemStack> items) {
+        List<ItemContainer> containers = InventoryHelper.getAllContainers(inventory);
+        List<ItemContainer> depositContainers = InventoryHelper.getContainersForDeposit(inventory);
+        List<ItemStack> kept = new ArrayList<>();
+        for (ItemStack item : items) {
+            List<ItemStack> single = List.of(item);
+            if (!canReceiveItems(containers, single) || !depositItemsSmart(depositContainers, single)) {
+                kept.add(item);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Set a side's escrow and record it in the escrow ledger, so escrowed items outlive this
+     * session and the server: whatever is left when the session is discarded goes back to the
+     * owner on their next join.
+     */
+    private void setEscrow(boolean initiatorSide, List<ItemStack> items) {
+        if (initiatorSide) {
+            initiatorEscrow = items;
+        } else {
+            targetEscrow = items;
+        }
+        PlayerRef owner = getSidePlayer(initiatorSide);
+        plugin.getEscrowStorage().record(sessionId, initiatorSide, owner.getUuid(), owner.getUsername(), items);
+    }
+
+    /**
+     * Keep a side's escrow back for an admin instead of returning it, because its partner kept what
+     * it received from this side when a cross-world commit could not be undone. The items leave
+     * this session and stay in the escrow ledger as held.
+     * @return the held items
+     */
+    public synchronized List<ItemStack> holdEscrow(boolean initiatorSide) {
+        List<ItemStack> escrow = initiatorSide ? initiatorEscrow : targetEscrow;
+        if (escrow == null) {
+            return List.of();
+        }
+        plugin.getEscrowStorage().hold(sessionId, initiatorSide);
+        // Not through setEscrow: the ledger entry must stay
+        if (initiatorSide) {
+            initiatorEscrow = null;
+        } else {
+            targetEscrow = null;
+        }
+        return escrow;
+    }
+
+    /**
+     * Check if a side currently has items held in escrow.
+     */
+    public synchronized boolean hasEscrow(boolean initiatorSide) {
+        return (initiatorSide ? initiatorEscrow : targetEscrow) != null;
+    }
+
+    /**
+     * Get a side's escrowed items (for logging when they cannot be returned).
+     */
+    public synchronized List<ItemStack> getEscrow(boolean initiatorSide) {
+        List<ItemStack> escrow = initiatorSide ? initiatorEscrow : targetEscrow;
+        return escrow != null ? List.copyOf(escrow) : List.of();
     }
 
     /**
      * Cancel the trade session.
+     * @return false if the session is executing and was not cancelled
      */
-    public void cancel(PlayerRef cancelledBy) {
+    public boolean cancel(PlayerRef cancelledBy) {
+        return cancel(cancelledBy, null);
+    }
+
+    /**
+     * Cancel the trade session. Refused while executing, since the execution still owns the escrow;
+     * the given cancellation is then kept until the execution is over (see {@link #takePendingCancel()}).
+     * @param onRefused Cancellation to run once the execution is over, or null
+     * @return false if the session is executing and was not cancelled
+     */
+    public synchronized boolean cancel(PlayerRef cancelledBy, Runnable onRefused) {
+        if (state == TradeState.EXECUTING) {
+            if (onRefused != null) {
+                Runnable earlier = pendingCancel;
+                pendingCancel = earlier == null ? onRefused : () -> {
+                    earlier.run();
+                    onRefused.run();
+                };
+            }
+            Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - cancel deferred until execution is over",
+                sessionId);
+            return false;
+        }
         state = TradeState.CANCELLED;
         cancelCountdown();
-        Common.logDebug(LOGGER, "Trade session " + sessionId + " - cancelled by " +
-            (cancelledBy != null ? "player" : "system"));
+        stateChanged();
+        Common.logDebug(LOGGER, DebugCategory.SESSIONS, "Trade session {} - cancelled by {}",
+            sessionId, cancelledBy != null ? "player" : "system");
+        return true;
+    }
+
+    /**
+     * Take the cancellation requested while the session was executing.
+     * @return the cancellation to run, or null if none was requested
+     */
+    public synchronized Runnable takePendingCancel() {
+        Runnable cancel = pendingCancel;
+        pendingCancel = null;
+        return cancel;
     }
 
     // ===== HELPER METHODS =====
@@ -467,15 +1098,34 @@ public class TradeSession {
         return InventoryHelper.getContainersForDeposit(inventory);
     }
 
+    private List<ItemStack[]> snapshotContainers(List<ItemContainer> containers) {
+        List<ItemStack[]> snapshot = new ArrayList<>(containers.size());
+        for (ItemContainer container : containers) {
+            snapshot.add(InventoryHelper.createSnapshot(container));
+        }
+        return snapshot;
+    }
+
+    private void restoreContainers(List<ItemContainer> containers, List<ItemStack[]> snapshot) {
+        for (int i = 0; i < containers.size(); i++) {
+            InventoryHelper.restoreFromSnapshot(containers.get(i), snapshot.get(i));
+        }
+    }
+
+    private synchronized void markCompleted() {
+        state = TradeState.COMPLETED;
+        stateChanged();
+    }
+
     private void cancelCountdown() {
         if (countdownTask != null) {
-            countdownTask.cancel(false);
+            countdownTask.cancel();
             countdownTask = null;
         }
         countdownStartTime = 0;
     }
 
-    public void setCountdownTask(ScheduledFuture<?> task) {
+    public synchronized void setCountdownTask(TradeShard.Timer task) {
         this.countdownTask = task;
     }
 
@@ -586,7 +1236,7 @@ public class TradeSession {
      * Check if player can receive the given items, accounting for stack merging.
      * First counts space in existing non-full stacks, then counts empty slots.
      */
-    private boolean canReceiveItems(List<ItemContainer> containers, List<ItemStack> items) {
+    private static boolean canReceiveItems(List<ItemContainer> containers, List<ItemStack> items) {
         // Build a map of: itemId -> (currentTotal, maxStack, availableStackSpace)
         java.util.Map<String, int[]> stackInfo = new java.util.HashMap<>();
         int emptySlots = 0;
@@ -643,7 +1293,7 @@ public class TradeSession {
      * Smart deposit: first merge with existing non-full stacks, then use empty slots.
      * Containers are checked in order (storage → hotbar → backpack for deposits).
      */
-    private boolean depositItemsSmart(List<ItemContainer> containers, List<ItemStack> items) {
+    private static boolean depositItemsSmart(List<ItemContainer> containers, List<ItemStack> items) {
         for (ItemStack toDeposit : items) {
             if (toDeposit == null || toDeposit.isEmpty()) continue;
 
@@ -720,7 +1370,8 @@ public class TradeSession {
             NONE,           // No failure (success)
             INITIATOR,      // Initiator caused the issue
             TARGET,         // Target caused the issue
-            SYSTEM          // System error (both see same message)
+            SYSTEM,         // System error (both see same message)
+            NOT_ADMITTED    // Refused by admission control before executing (both see same message)
         }
 
         public TradeResult(boolean success, String message) {
@@ -747,5 +1398,18 @@ public class TradeSession {
         public static TradeResult targetFailure(String targetMsg, String initiatorMsg) {
             return new TradeResult(false, targetMsg, initiatorMsg, FailureCause.TARGET);
         }
+
+        /**
+         * Get the message meant for one side of the trade.
+         */
+        public String messageFor(boolean initiator) {
+            if (cause == FailureCause.INITIATOR) {
+                return initiator ? message : messageForOther;
+            } else if (cause == FailureCause.TARGET) {
+                return initiator ? messageForOther : message;
+            }
+            // System error - same message for both
+            return message;
+        }
     }
 }
@@ -0,0 +1,298 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.world.World;
+import org.toskan4134.easytrade.messages.TradeMessages;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trade state of one world: its sessions, pending requests, timers and execution queue.
+ *
+ * A player's pending requests live in the shard of the world they were in when the first one
+ * arrived, and a session stays in the shard that held its request. Timers run on the world
+ * thread: the manager pumps every shard once per server tick, and a shard only posts a tick to
+ * its world when a timer is due or executions are left over, so quiet worlds are never woken
+ * and busy worlds don't contend with each other.
+ */
+public class TradeShard {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private final String worldName;
+    private final World world;
+    // Given back the request and session slots of everything removed from this shard
+    private final AdmissionControl admission;
+
+    // Active sessions of this world (sessionId -> session)
+    private final Map<UUID, TradeSession> activeSessions = new ConcurrentHashMap<>();
+    // Player UUID -> session ID, for both participants
+    private final Map<UUID, UUID> playerToSession = new ConcurrentHashMap<>();
+    // Pending requests of targets routed to this world (target player UUID -> inbox)
+    private final Map<UUID, RequestInbox> inboxes = new ConcurrentHashMap<>();
+    // Total requests in all inboxes, kept alongside them so admission checks don't walk the inboxes
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+    // Confirmed trades executed on this world's thread
+    private final TradeExecutionQueue executionQueue;
+
+    // Timers scheduled from any thread, moved into the deadline heap on the next tick
+    private final ConcurrentLinkedQueue<Timer> newTimers = new ConcurrentLinkedQueue<>();
+    // Deadline-ordered timers, only touched on the world thread
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(Comparator.comparingLong(t -> t.dueAt));
+    // Earliest due time of any timer (0 forces a tick to pick up new timers)
+    private final AtomicLong nextDueAt = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicBoolean tickScheduled = new AtomicBoolean();
+
+    public TradeShard(World world, AdmissionControl admission) {
+        this.worldName = world.getName();
+        this.world = world;
+        this.admission = admission;
+        this.executionQueue = new TradeExecutionQueue(worldName, world);
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public TradeExecutionQueue getExecutionQueue() {
+        return executionQueue;
+    }
+
+    // ===== SESSIONS =====
+
+    void addSession(TradeSession session) {
+        activeSessions.put(session.getSessionId(), session);
+        playerToSession.put(session.getInitiator().getUuid(), session.getSessionId());
+        playerToSession.put(session.getTarget().getUuid(), session.getSessionId());
+    }
+
+    void removeSession(TradeSession session) {
+        if (activeSessions.remove(session.getSessionId()) != null) {
+            admission.releaseSessions(1);
+        }
+        playerToSession.remove(session.getInitiator().getUuid(), session.getSessionId());
+        playerToSession.remove(session.getTarget().getUuid(), session.getSessionId());
+    }
+
+    /**
+     * Get the active session a player takes part in, or null.
+     */
+    public TradeSession getSession(UUID playerId) {
+        UUID sessionId = playerToSession.get(playerId);
+        return sessionId != null ? activeSessions.get(sessionId) : null;
+    }
+
+    public TradeSession getSessionById(UUID sessionId) {
+        return activeSessions.get(sessionId);
+    }
+
+    public Collection<TradeSession> getSessions() {
+        return Collections.unmodifiableCollection(activeSessions.values());
+    }
+
+    public int getSessionCount() {
+        return activeSessions.size();
+    }
+
+    // ===== PENDING REQUESTS =====
+
+    /**
+     * Add a request to the target's inbox (created on demand).
+     * @return false if the initiator already has a request there or the inbox is full
+     */
+    boolean addRequest(UUID targetId, TradeSession session, int capacity) {
+        boolean[] added = new boolean[1];
+        inboxes.compute(targetId, (id, inbox) -> {
+            if (inbox == null) {
+                inbox = new RequestInbox();
+            }
+            added[0] = inbox.add(session, capacity);
+            return inbox.isEmpty() ? null : inbox;
+        });
+        if (added[0]) {
+            pendingRequests.incrementAndGet();
+        }
+        return added[0];
+    }
+
+    /**
+     * Get the inbox of a target, or null if they have no pending requests here.
+     */
+    RequestInbox getInbox(UUID targetId) {
+        return inboxes.get(targetId);
+    }
+
+    TradeSession removeRequest(UUID targetId, UUID initiatorId) {
+        TradeSession[] removed = new TradeSession[1];
+        inboxes.computeIfPresent(targetId, (id, inbox) -> {
+            removed[0] = inbox.remove(initiatorId);
+            return inbox.isEmpty() ? null : inbox;
+        });
+        if (removed[0] != null) {
+            pendingRequests.decrementAndGet();
+            admission.releaseRequests(1);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Remove a request only if it is still the given session (used by expiry).
+     */
+    boolean removeRequest(UUID targetId, TradeSession session) {
+        boolean[] removed = new boolean[1];
+        inboxes.computeIfPresent(targetId, (id, inbox) -> {
+            removed[0] = inbox.remove(session.getInitiator().getUuid(), session);
+            return inbox.isEmpty() ? null : inbox;
+        });
+        if (removed[0]) {
+            pendingRequests.decrementAndGet();
+            admission.releaseRequests(1);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Drop a target's whole inbox.
+     * @return the removed requests, oldest first
+     */
+    List<TradeSession> removeInbox(UUID targetId) {
+        RequestInbox inbox = inboxes.remove(targetId);
+        if (inbox == null) {
+            return Collections.emptyList();
+        }
+        List<TradeSession> removed = inbox.clear();
+        pendingRequests.addAndGet(-removed.size());
+        admission.releaseRequests(removed.size());
+        return removed;
+    }
+
+    public int getPendingRequestCount() {
+        return Math.max(0, pendingRequests.get());
+    }
+
+    // ===== TIMERS =====
+
+    /**
+     * Schedule a task to run on this world's thread once the delay has passed.
+     * Timers fire on the first shard tick at or after their due time.
+     */
+    public Timer schedule(Runnable task, long delayMs) {
+        Timer timer = new Timer(System.currentTimeMillis() + delayMs, task);
+        newTimers.add(timer);
+        nextDueAt.accumulateAndGet(timer.dueAt, Math::min);
+        return timer;
+    }
+
+    /**
+     * Post a tick to the world thread if a timer is due or executions are left over.
+     * Called by the manager's ticker once per server tick, from its own thread.
+     */
+    void pump(long now) {
+        if (now < nextDueAt.get() && executionQueue.getDepth() == 0) {
+            return;
+        }
+        if (!tickScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            world.execute(this::tick);
+        } catch (RejectedExecutionException e) {
+            tickScheduled.set(false);
+            LOGGER.atWarning().log("Could not schedule trade shard tick for world " + worldName);
+        }
+    }
+
+    /**
+     * Run due timers and leftover executions. Runs on the world thread.
+     */
+    private void tick() {
+        tickScheduled.set(false);
+
+        Timer timer;
+        while ((timer = newTimers.poll()) != null) {
+            timers.add(timer);
+        }
+
+        long now = System.currentTimeMillis();
+        while (!timers.isEmpty() && timers.peek().dueAt <= now) {
+            timer = timers.poll();
+            if (timer.cancelled) {
+                continue;
+            }
+            try {
+                timer.task.run();
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error in trade timer of world " + worldName);
+            }
+        }
+
+        if (executionQueue.getDepth() > 0) {
+            executionQueue.drain();
+        }
+
+        Timer next = timers.peek();
+        nextDueAt.set(next != null ? next.dueAt : Long.MAX_VALUE);
+        // Timers added since the heap was filled (including by the timers that just ran)
+        if (!newTimers.isEmpty()) {
+            nextDueAt.set(0);
+        }
+    }
+
+    /**
+     * Drop all state of this shard (used on shutdown).
+     * @return the number of queued executions dropped
+     */
+    int clear() {
+        admission.releaseSessions(activeSessions.size());
+        admission.releaseRequests(pendingRequests.get());
+        activeSessions.clear();
+        playerToSession.clear();
+        inboxes.clear();
+        pendingRequests.set(0);
+        newTimers.clear();
+        nextDueAt.set(Long.MAX_VALUE);
+        return executionQueue.clear(new TradeSession.TradeResult(false,
+            TradeMessages.defaults().admissionShuttingDown().getAnsiMessage()));
+    }
+
+    /**
+     * Handle of a scheduled shard task.
+     */
+    public static final class Timer {
+        private final long dueAt;
+        private final Runnable task;
+        private volatile boolean cancelled;
+
+        private Timer(long dueAt, Runnable task) {
+            this.dueAt = dueAt;
+            this.task = task;
+        }
+
+        /**
+         * Cancel the task. A cancelled timer is skipped when it comes due.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
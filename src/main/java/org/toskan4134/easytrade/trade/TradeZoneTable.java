@@ -0,0 +1,219 @@
+package org.toskan4134.easytrade.trade;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.Message;
+import org.toskan4134.easytrade.config.TradeZone;
+import org.toskan4134.easytrade.messages.TradeMessages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trade zones compiled into a per-world, chunk-keyed lookup table.
+ *
+ * Every bounded zone is registered in each chunk column it overlaps, with the zones of a chunk
+ * sorted by priority, so finding the zone at a position is one hash probe plus a bounds test
+ * against the (usually one or two) zones of that chunk. Zones too large to register chunk by chunk
+ * are kept in a short per-world list scanned after the chunk probe. Whole-world zones and the
+ * default policy are the fallback. The table is immutable; reloading builds a new one.
+ */
+public class TradeZoneTable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    /**
+     * Side length in blocks of the chunk columns zones are indexed by
+     */
+    private static final int CHUNK_SIZE = 32;
+
+    /**
+     * Zones spanning more chunks than this are not indexed per chunk but scanned linearly
+     */
+    private static final long LARGE_ZONE_CHUNKS = 16384;
+
+    private static final TradeZone[] NO_ZONES = new TradeZone[0];
+
+    private final TradeZone.Policy defaultPolicy;
+    // World name -> chunk key -> zones overlapping that chunk, highest priority first
+    private final Map<String, Map<Long, TradeZone[]>> chunks;
+    // World name -> zones too large to index per chunk, highest priority first
+    private final Map<String, TradeZone[]> largeZones;
+    // World name -> highest priority whole-world zone
+    private final Map<String, TradeZone> worldZones;
+
+    private TradeZoneTable(TradeZone.Policy defaultPolicy, Map<String, Map<Long, TradeZone[]>> chunks,
+                           Map<String, TradeZone[]> largeZones, Map<String, TradeZone> worldZones) {
+        this.defaultPolicy = defaultPolicy;
+        this.chunks = chunks;
+        this.largeZones = largeZones;
+        this.worldZones = worldZones;
+    }
+
+    /**
+     * A table with no zones, allowing trades everywhere.
+     */
+    public static TradeZoneTable empty() {
+        return new TradeZoneTable(TradeZone.Policy.ALLOW, Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap());
+    }
+
+    /**
+     * Compile zone definitions into a lookup table.
+     */
+    public static TradeZoneTable compile(TradeZone.Policy defaultPolicy, List<TradeZone> zones) {
+        Map<String, Map<Long, List<TradeZone>>> building = new HashMap<>();
+        Map<String, List<TradeZone>> buildingLarge = new HashMap<>();
+        Map<String, TradeZone> worldZones = new HashMap<>();
+
+        for (TradeZone zone : zones) {
+            if (!zone.isBounded()) {
+                worldZones.merge(zone.getWorld(), zone,
+                    (current, candidate) -> candidate.getPriority() > current.getPriority() ? candidate : current);
+                continue;
+            }
+
+            int minChunkX = chunkOf(zone.getMinX());
+            int maxChunkX = chunkOf(zone.getMaxX());
+            int minChunkZ = chunkOf(zone.getMinZ());
+            int maxChunkZ = chunkOf(zone.getMaxZ());
+            long chunkCount = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+            if (chunkCount > LARGE_ZONE_CHUNKS) {
+                LOGGER.atWarning().log("Trade zone " + zone.getName() + " spans " + chunkCount +
+                    " chunks; it is checked without the chunk index, consider a whole-world zone or splitting it");
+                buildingLarge.computeIfAbsent(zone.getWorld(), w -> new ArrayList<>()).add(zone);
+                continue;
+            }
+
+            Map<Long, List<TradeZone>> worldChunks = building.computeIfAbsent(zone.getWorld(), w -> new HashMap<>());
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    worldChunks.computeIfAbsent(chunkKey(chunkX, chunkZ), k -> new ArrayList<>(1)).add(zone);
+                }
+            }
+        }
+
+        Comparator<TradeZone> byPriority = Comparator.comparingInt(TradeZone::getPriority).reversed();
+        Map<String, Map<Long, TradeZone[]>> compiled = new HashMap<>(building.size() * 2);
+        for (Map.Entry<String, Map<Long, List<TradeZone>>> world : building.entrySet()) {
+            Map<Long, TradeZone[]> worldChunks = new HashMap<>(world.getValue().size() * 2);
+            for (Map.Entry<Long, List<TradeZone>> chunk : world.getValue().entrySet()) {
+                List<TradeZone> chunkZones = chunk.getValue();
+                chunkZones.sort(byPriority);
+                worldChunks.put(chunk.getKey(), chunkZones.toArray(NO_ZONES));
+            }
+            compiled.put(world.getKey(), worldChunks);
+        }
+        Map<String, TradeZone[]> large = new HashMap<>(buildingLarge.size() * 2);
+        for (Map.Entry<String, List<TradeZone>> world : buildingLarge.entrySet()) {
+            List<TradeZone> worldLarge = world.getValue();
+            worldLarge.sort(byPriority);
+            large.put(world.getKey(), worldLarge.toArray(NO_ZONES));
+        }
+        return new TradeZoneTable(defaultPolicy, compiled, large, worldZones);
+    }
+
+    /**
+     * Get the zone that applies at a position: the highest priority bounded zone containing it,
+     * else the world's whole-world zone.
+     * @return the zone, or null if the default policy applies
+     */
+    public TradeZone getZoneAt(String world, double x, double y, double z) {
+        TradeZone found = null;
+        Map<Long, TradeZone[]> worldChunks = chunks.get(world);
+        if (worldChunks != null) {
+            TradeZone[] candidates = worldChunks.get(chunkKey(chunkOf(x), chunkOf(z)));
+            if (candidates != null) {
+                for (TradeZone zone : candidates) {
+                    if (zone.contains(x, y, z)) {
+                        found = zone;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Large zones only win over the chunk hit with a higher priority
+        TradeZone[] large = largeZones.get(world);
+        if (large != null) {
+            for (TradeZone zone : large) {
+                if (found != null && zone.getPriority() <= found.getPriority()) {
+                    break;
+                }
+                if (zone.contains(x, y, z)) {
+                    return zone;
+                }
+            }
+        }
+        return found != null ? found : worldZones.get(world);
+    }
+
+    /**
+     * Check whether two players at the given zones may trade.
+     * @param first Zone of one player (null for the default policy)
+     * @param second Zone of the other player (null for the default policy)
+     */
+    public Check check(TradeZone first, TradeZone second) {
+        TradeZone.Policy firstPolicy = first != null ? first.getPolicy() : defaultPolicy;
+        TradeZone.Policy secondPolicy = second != null ? second.getPolicy() : defaultPolicy;
+
+        if (firstPolicy == TradeZone.Policy.DENY) {
+            return Check.denied(nameOf(first), false);
+        }
+        if (secondPolicy == TradeZone.Policy.DENY) {
+            return Check.denied(nameOf(second), false);
+        }
+        if (firstPolicy == TradeZone.Policy.SAME_ZONE && first != second) {
+            return Check.denied(nameOf(first), true);
+        }
+        if (secondPolicy == TradeZone.Policy.SAME_ZONE && first != second) {
+            return Check.denied(nameOf(second), true);
+        }
+        return Check.ALLOWED;
+    }
+
+    private static String nameOf(TradeZone zone) {
+        return zone != null ? zone.getName() : "";
+    }
+
+    private static int chunkOf(double coordinate) {
+        return (int) Math.floor(coordinate / CHUNK_SIZE);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Outcome of a zone check.
+     */
+    public static final class Check {
+        static final Check ALLOWED = new Check(true, null, false);
+
+        public final boolean allowed;
+        // Name of the zone that refused the trade
+        public final String zone;
+        // Whether the zone only allows trades with players inside it
+        public final boolean sameZoneRequired;
+
+        private Check(boolean allowed, String zone, boolean sameZoneRequired) {
+            this.allowed = allowed;
+            this.zone = zone;
+            this.sameZoneRequired = sameZoneRequired;
+        }
+
+        static Check denied(String zone, boolean sameZoneRequired) {
+            return new Check(false, zone, sameZoneRequired);
+        }
+
+        /**
+         * Get the message explaining why the trade was refused, in the recipient's language.
+         */
+        public Message getDenialMessage(TradeMessages messages) {
+            return sameZoneRequired ? messages.zoneSameZoneRequired(zone) : messages.zoneDenied(zone);
+        }
+    }
+}
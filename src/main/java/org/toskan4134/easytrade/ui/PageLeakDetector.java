@@ -0,0 +1,164 @@
+package org.toskan4134.easytrade.ui;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Finds trading pages that were never dismissed and releases what they hold.
+ *
+ * Cleanup of a page relies on onDismiss, which doesn't run when closing the page fails (e.g. it is
+ * closed from the wrong thread). Every page is tracked through a weak reference that holds its
+ * scheduler strongly, so the scheduler can still be shut down after the page itself is collected.
+ * A page still alive after its session has been over for a grace period is reported and closed.
+ */
+public class PageLeakDetector {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    /**
+     * Tracking handle of one page.
+     */
+    public static final class Tracked extends WeakReference<TradingPage> {
+        private final PlayerRef player;
+        private final UUID sessionId;
+        private final ExecutorService executor;
+        // When the session was first seen ended, 0 while it is active (only used by check)
+        private long orphanedSince;
+
+        private Tracked(TradingPage page, ReferenceQueue<TradingPage> queue, PlayerRef player,
+                        UUID sessionId, ExecutorService executor) {
+            super(page, queue);
+            this.player = player;
+            this.sessionId = sessionId;
+            this.executor = executor;
+        }
+    }
+
+    private final ReferenceQueue<TradingPage> collected = new ReferenceQueue<>();
+    // Handles of the pages not dismissed yet
+    private final Set<Tracked> tracked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Start tracking a page.
+     * @param sessionId Session the page was opened for, or null if none
+     * @param executor Scheduler owned by the page, shut down if the page leaks
+     * @return handle to pass to {@link #untrack(Tracked)} once the page is dismissed
+     */
+    public Tracked track(TradingPage page, PlayerRef player, UUID sessionId, ExecutorService executor) {
+        Tracked handle = new Tracked(page, collected, player, sessionId, executor);
+        tracked.add(handle);
+        return handle;
+    }
+
+    /**
+     * Stop tracking a page that was dismissed normally.
+     */
+    public void untrack(Tracked handle) {
+        if (handle != null) {
+            tracked.remove(handle);
+            handle.clear();
+        }
+    }
+
+    public int size() {
+        return tracked.size();
+    }
+
+    /**
+     * Release pages collected without being dismissed, and close pages that outlived their session.
+     *
+     * @param isSessionActive Whether a session is still active
+     * @param closePage Called with the player and page of every leaked page still alive
+     * @return the number of leaks found
+     */
+    public int check(long now, long graceMs, Predicate<UUID> isSessionActive,
+                     BiConsumer<PlayerRef, TradingPage> closePage) {
+        int leaks = 0;
+
+        // Pages that were garbage collected while still tracked never got onDismiss
+        Reference<? extends TradingPage> ref;
+        while ((ref = collected.poll()) != null) {
+            Tracked handle = (Tracked) ref;
+            if (tracked.remove(handle)) {
+                leaks++;
+                LOGGER.atWarning().log("Trading page of " + handle.player.getUsername()
+                    + " was collected without being dismissed; shutting down its scheduler");
+                handle.executor.shutdownNow();
+            }
+        }
+
+        for (Tracked handle : tracked) {
+            TradingPage page = handle.get();
+            if (page == null) {
+                // Collected, picked up from the queue on the next check
+                continue;
+            }
+            if (handle.sessionId != null && isSessionActive.test(handle.sessionId)) {
+                handle.orphanedSince = 0;
+                continue;
+            }
+            if (handle.orphanedSince == 0) {
+                handle.orphanedSince = now;
+                continue;
+            }
+            if (now - handle.orphanedSince < graceMs) {
+                continue;
+            }
+
+            tracked.remove(handle);
+            handle.clear();
+            leaks++;
+            LOGGER.atWarning().log("Trading page of " + handle.player.getUsername() + " outlived session "
+                + handle.sessionId + " by " + ((now - handle.orphanedSince) / 1000) + "s; closing it");
+            handle.executor.shutdownNow();
+            try {
+                closePage.accept(handle.player, page);
+            } catch (Exception e) {
+                LOGGER.atWarning().withCause(e).log("Error closing leaked trading page of " + handle.player.getUsername());
+            }
+        }
+        return leaks;
+    }
+
+    /**
+     * Shut down the schedulers of all tracked pages, stop tracking them and wait for the
+     * schedulers to terminate.
+     * @param deadlineNanos {@link System#nanoTime()} after which to stop waiting
+     * @return the number of schedulers still running at the deadline
+     */
+    public int shutdown(long deadlineNanos) {
+        List<ExecutorService> executors = new ArrayList<>();
+        for (Tracked handle : tracked) {
+            handle.executor.shutdownNow();
+            executors.add(handle.executor);
+            handle.clear();
+        }
+        tracked.clear();
+
+        int running = 0;
+        for (ExecutorService executor : executors) {
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    running++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running++;
+            }
+        }
+        return running;
+    }
+}
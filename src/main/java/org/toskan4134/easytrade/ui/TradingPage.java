@@ -19,11 +19,14 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import org.toskan4134.easytrade.TradingPlugin;
 import org.toskan4134.easytrade.constants.TradeConstants;
 import org.toskan4134.easytrade.messages.TradeMessages;
+import org.toskan4134.easytrade.trade.ActionRateLimiter;
+import org.toskan4134.easytrade.trade.SessionView;
 import org.toskan4134.easytrade.trade.TradeManager;
 import org.toskan4134.easytrade.trade.TradeOffer;
 import org.toskan4134.easytrade.trade.TradeSession;
 import org.toskan4134.easytrade.trade.TradeState;
 import org.toskan4134.easytrade.util.Common;
+import org.toskan4134.easytrade.util.DebugCategory;
 import org.toskan4134.easytrade.util.InventoryHelper;
 
 import javax.annotation.Nonnull;
@@ -57,15 +60,15 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     private final Store<EntityStore> store;
     private final Ref<EntityStore> entityRef;
 
-    // Consolidated inventory: itemId -> ConsolidatedItem
-    private final Map<String, ConsolidatedItem> consolidatedInventory = new LinkedHashMap<>();
-    // My offer: itemId -> quantity
-    private final Map<String, Integer> myOfferItems = new LinkedHashMap<>();
-    // Previous inventory snapshot for change detection: itemId -> quantity
-    private final Map<String, Integer> previousInventorySnapshot = new LinkedHashMap<>();
+    // Inventory caches and last status, kept by the TradeManager across page reopens
+    private final TradingPageModel model;
+    // Consolidated inventory: itemId -> ConsolidatedItem (owned by the model)
+    private final Map<String, ConsolidatedItem> consolidatedInventory;
+    // Messages in this player's client language
+    private final TradeMessages messages;
 
     // Countdown timer for UI updates
-    private final ScheduledExecutorService countdownScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService countdownScheduler;
     private ScheduledFuture<?> countdownUpdateTask;
     private long lastCountdownValue = -1;
 
@@ -75,6 +78,9 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     // Flag to request UI close on next update (for thread-safe closing)
     private volatile boolean closeRequested = false;
 
+    // Leak detector handle, released in onDismiss
+    private final PageLeakDetector.Tracked leakTracking;
+
     /**
      * Check if a temporary status message is currently being displayed.
      * Used to prevent updateStatusUI from overwriting warning/error messages.
@@ -98,6 +104,15 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         this.tradeManager = tradeManager;
         this.store = store;
         this.entityRef = entityRef;
+        this.model = tradeManager.getPageModel(playerRef);
+        this.consolidatedInventory = model.consolidatedInventory;
+        this.messages = TradeMessages.forPlayer(playerRef);
+        this.countdownScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EasyTrade-Page-" + playerRef.getUsername());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.leakTracking = tradeManager.trackTradingPage(this, playerRef, countdownScheduler);
     }
 
     // ===== STATUS MESSAGE HELPERS =====
@@ -117,6 +132,13 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * After the delay, refreshStatusUI() will be called to restore the normal status.
      */
     private void scheduleStatusReset() {
+        scheduleStatusReset(STATUS_RESET_DELAY_MS);
+    }
+
+    /**
+     * Schedule a status reset after the given delay.
+     */
+    private void scheduleStatusReset(long delayMs) {
         // Don't schedule if scheduler is shut down (UI is closing)
         if (countdownScheduler.isShutdown() || countdownScheduler.isTerminated()) {
             return;
@@ -130,10 +152,10 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
                 } catch (Exception e) {
                     LOGGER.atWarning().withCause(e).log("Error resetting status message");
                 }
-            }, STATUS_RESET_DELAY_MS, TimeUnit.MILLISECONDS);
+            }, delayMs, TimeUnit.MILLISECONDS);
         } catch (RejectedExecutionException e) {
             // Scheduler was shut down between the check and the schedule call
-            Common.logDebug(LOGGER, "Status reset task rejected - scheduler shut down");
+            Common.logDebug(LOGGER, DebugCategory.UI, "Status reset task rejected - scheduler shut down");
         }
     }
 
@@ -142,12 +164,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * Normal messages auto-reset to state-based status after 5 seconds.
      */
     private void setStatusNormal(String message) {
-        UICommandBuilder commands = new UICommandBuilder();
-        UIEventBuilder events = new UIEventBuilder();
-        commands.set("#StatusMessage.Text", message);
-        commands.set("#StatusMessage.Style.TextColor", COLOR_NORMAL);
-        sendUpdate(commands, events, false);
-        scheduleStatusReset();
+        showTemporaryStatus(message, COLOR_NORMAL);
     }
 
     /**
@@ -155,12 +172,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * Warning messages auto-reset to normal status after 5 seconds.
      */
     private void setStatusWarning(String message) {
-        UICommandBuilder commands = new UICommandBuilder();
-        UIEventBuilder events = new UIEventBuilder();
-        commands.set("#StatusMessage.Text", message);
-        commands.set("#StatusMessage.Style.TextColor", COLOR_WARNING);
-        sendUpdate(commands, events, false);
-        scheduleStatusReset();
+        showTemporaryStatus(message, COLOR_WARNING);
     }
 
     /**
@@ -168,12 +180,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * Error messages auto-reset to normal status after 5 seconds.
      */
     private void setStatusError(String message) {
-        UICommandBuilder commands = new UICommandBuilder();
-        UIEventBuilder events = new UIEventBuilder();
-        commands.set("#StatusMessage.Text", message);
-        commands.set("#StatusMessage.Style.TextColor", COLOR_ERROR);
-        sendUpdate(commands, events, false);
-        scheduleStatusReset();
+        showTemporaryStatus(message, COLOR_ERROR);
     }
 
     /**
@@ -181,12 +188,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * Success messages auto-reset to normal status after 5 seconds.
      */
     private void setStatusSuccess(String message) {
-        UICommandBuilder commands = new UICommandBuilder();
-        UIEventBuilder events = new UIEventBuilder();
-        commands.set("#StatusMessage.Text", message);
-        commands.set("#StatusMessage.Style.TextColor", COLOR_SUCCESS);
-        sendUpdate(commands, events, false);
-        scheduleStatusReset();
+        showTemporaryStatus(message, COLOR_SUCCESS);
     }
 
     /**
@@ -196,20 +198,33 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * @param color The color (use COLOR_* constants)
      */
     public void setStatus(String message, String color) {
-        UICommandBuilder commands = new UICommandBuilder();
-        UIEventBuilder events = new UIEventBuilder();
-        commands.set("#StatusMessage.Text", message);
-        commands.set("#StatusMessage.Style.TextColor", color);
-        sendUpdate(commands, events, false);
-
         // Auto-reset for warning and error colors
         if (COLOR_WARNING.equals(color) || COLOR_ERROR.equals(color)) {
-            scheduleStatusReset();
+            showTemporaryStatus(message, color);
         } else {
+            sendStatus(message, color);
             cancelStatusReset();
         }
     }
 
+    /**
+     * Show a status message that auto-resets, and remember it in the page model
+     * so a reopened page keeps showing it until it expires.
+     */
+    private void showTemporaryStatus(String message, String color) {
+        sendStatus(message, color);
+        model.rememberStatus(message, color, System.currentTimeMillis() + STATUS_RESET_DELAY_MS);
+        scheduleStatusReset();
+    }
+
+    private void sendStatus(String message, String color) {
+        UICommandBuilder commands = new UICommandBuilder();
+        UIEventBuilder events = new UIEventBuilder();
+        commands.set("#StatusMessage.Text", message);
+        commands.set("#StatusMessage.Style.TextColor", color);
+        sendUpdate(commands, events, false);
+    }
+
     @Override
     public void build(@Nonnull Ref<EntityStore> entityRef,
                       @Nonnull UICommandBuilder commands,
@@ -243,7 +258,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         // Get trade session
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            commands.set("#StatusMessage.Text", TradeMessages.uiNoActiveSession());
+            commands.set("#StatusMessage.Text", messages.uiNoActiveSession());
             commands.set("#StatusMessage.Style.TextColor", TradeConstants.COLOR_ERROR);
             commands.set("#DebugInfo.Text", "Use /trade test to start");
             return;
@@ -253,47 +268,56 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
 
         // Set partner name
         PlayerRef partner = session.getOtherPlayer(playerRef);
-        String partnerName = session.isTestMode() ? TradeMessages.uiLabelTestPartner() :
-                (partner != null ? partner.getUsername() : TradeMessages.uiLabelUnknown());
-        commands.set("#PartnerName.Text", TradeMessages.uiLabelTradingWith() + " " + partnerName);
+        String partnerName = session.isTestMode() ? messages.uiLabelTestPartner() :
+                (partner != null ? partner.getUsername() : messages.uiLabelUnknown());
+        commands.set("#PartnerName.Text", messages.uiLabelTradingWith() + " " + partnerName);
 
-        // Initialize consolidated inventory
+        // Initialize consolidated inventory (reuses the cached page model when the fingerprint is unchanged).
+        // Inventory changes made while the page was closed were already checked against the reservations.
         initializeConsolidatedInventory(store, entityRef);
 
-        // Initialize inventory snapshot for change detection
-        previousInventorySnapshot.clear();
-        previousInventorySnapshot.putAll(getCurrentInventorySnapshot(store, entityRef));
-
         // Build dynamic UI elements
+        SessionView view = session.getView();
         buildInventorySlots(commands, events);
-        buildMyOfferSlots(commands, events, session);
-        buildPartnerOfferSlots(commands, session);
+        buildMyOfferSlots(commands, events, session, view);
+        buildPartnerOfferSlots(commands, session, view);
 
         // Translate UI Constants
         translateUIConstants(commands);
 
+        // The trade executes by itself at the end of the countdown in auto-execute mode
+        if (session.getConfig().isAutoExecute()) {
+            commands.set("#ConfirmButton.Visible", false);
+        }
+
         // Hide debug info if debug mode is OFF
         if (!isDebug()) {
             commands.set("#DebugInfo.Visible", false);
         }
 
-        // Update status
-        updateStatusUI(commands, session);
+        // Update status, keeping a temporary status still fresh from a previous open
+        updateStatusUI(commands, session, view);
+        long now = System.currentTimeMillis();
+        if (model.hasFreshStatus(now)) {
+            commands.set("#StatusMessage.Text", model.statusMessage);
+            commands.set("#StatusMessage.Style.TextColor", model.statusColor);
+            scheduleStatusReset(model.statusExpiresAt - now);
+        }
 
         // Register for inventory change events (also stores entityRef for trade execution and this page instance)
         tradeManager.registerTradingPage(playerRef, this::onInventoryChangedEvent, entityRef, this::setStatus, this);
     }
 
     private void translateUIConstants(UICommandBuilder commands){
-        commands.set("#TitleLabel.Text", TradeMessages.uiTitleTrade());
-        commands.set("#YourOfferLabel.Text", TradeMessages.uiLabelYourOffer());
-        commands.set("#PartnerOfferLabel.Text", TradeMessages.uiLabelPartnerOffer());
-        commands.set("#YourInventoryLabel.Text", TradeMessages.uiLabelYourInventory());
-        commands.set("#YourStatusLabel.Text", TradeMessages.uiLabelYourStatus());
-        commands.set("#PartnerStatusLabel.Text", TradeMessages.uiLabelPartnerStatus());
-        commands.set("#AcceptButton.Text", TradeMessages.uiButtonAccept());
-        commands.set("#ConfirmButton.Text", TradeMessages.uiButtonConfirm());
-        commands.set("#CancelButton.Text", TradeMessages.uiButtonCancel());
+        commands.set("#TitleLabel.Text", messages.uiTitleTrade());
+        commands.set("#YourOfferLabel.Text", messages.uiLabelYourOffer());
+        commands.set("#PartnerOfferLabel.Text", messages.uiLabelPartnerOffer());
+        commands.set("#YourInventoryLabel.Text", messages.uiLabelYourInventory());
+        commands.set("#YourStatusLabel.Text", messages.uiLabelYourStatus());
+        commands.set("#PartnerStatusLabel.Text", messages.uiLabelPartnerStatus());
+        commands.set("#AcceptButton.Text", messages.uiButtonAccept());
+        commands.set("#ConfirmButton.Text", messages.uiButtonConfirm());
+        commands.set("#CancelButton.Text", messages.uiButtonCancel());
     }
 
     /**
@@ -301,6 +325,16 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * This runs on the correct thread since it's triggered by the event system
      */
     private void onInventoryChangedEvent() {
+        refreshWithStatus(null, null);
+    }
+
+    /**
+     * Rebuild the page and, if given, show a temporary status message in the same update.
+     * Used by the TradeManager to push a trade result to the page in one round trip.
+     * @param message The status message, or null to keep the state-based status
+     * @param color The color (use COLOR_* constants)
+     */
+    public void refreshWithStatus(String message, String color) {
         // Check if a close was requested (e.g., from disconnect handler on wrong thread)
         if (closeRequested) {
             this.close();
@@ -324,16 +358,11 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
             return;
         }
 
-        // Check and handle inventory changes
-        checkAndHandleInventoryChanges(store, entityRef);
+        // Reservations were already enforced by the TradeManager before notifying the page
 
         // Re-initialize inventory
         initializeConsolidatedInventory(store, entityRef);
 
-        // Update previous snapshot
-        previousInventorySnapshot.clear();
-        previousInventorySnapshot.putAll(getCurrentInventorySnapshot(store, entityRef));
-
         // Create update builders
         UICommandBuilder commands = new UICommandBuilder();
         UIEventBuilder events = new UIEventBuilder();
@@ -343,23 +372,23 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         commands.clear("#MyOfferSlotsContainer");
         commands.clear("#PartnerOfferSlotsContainer");
 
+        SessionView view = session.getView();
         buildInventorySlots(commands, events);
-        buildMyOfferSlots(commands, events, session);
-        buildPartnerOfferSlots(commands, session);
-
-        // Update status UI, but skip if a temporary status (warning/error) is being displayed
-        if (!isTemporaryStatusActive()) {
-            updateStatusUI(commands, session);
+        buildMyOfferSlots(commands, events, session, view);
+        buildPartnerOfferSlots(commands, session, view);
+
+        if (message != null) {
+            updateAcceptStatusUI(commands, session, view);
+            commands.set("#StatusMessage.Text", message);
+            commands.set("#StatusMessage.Style.TextColor", color);
+            model.rememberStatus(message, color, System.currentTimeMillis() + STATUS_RESET_DELAY_MS);
+            scheduleStatusReset();
+        } else if (!isTemporaryStatusActive()) {
+            // Update status UI, but skip if a temporary status (warning/error) is being displayed
+            updateStatusUI(commands, session, view);
         } else {
             // Still update accept statuses even when skipping status message
-            boolean iAmInitiator = playerRef.getUuid().equals(session.getInitiator().getUuid());
-            boolean myAccepted = iAmInitiator ? session.isInitiatorAccepted() : session.isTargetAccepted();
-            boolean partnerAccepted = iAmInitiator ? session.isTargetAccepted() : session.isInitiatorAccepted();
-            commands.set("#MyAcceptStatus.Text", myAccepted ? TradeMessages.uiStatusAccepted() : TradeMessages.uiStatusNotAccepted());
-            commands.set("#MyAcceptStatus.Style.TextColor", myAccepted ? COLOR_SUCCESS : COLOR_ERROR);
-            commands.set("#PartnerAcceptStatus.Text", partnerAccepted ? TradeMessages.uiStatusAccepted() : TradeMessages.uiStatusNotAccepted());
-            commands.set("#PartnerAcceptStatus.Style.TextColor", partnerAccepted ? COLOR_SUCCESS : COLOR_ERROR);
-
+            updateAcceptStatusUI(commands, session, view);
         }
 
         // Send update
@@ -367,50 +396,63 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     }
 
     private void initializeConsolidatedInventory(Store<EntityStore> store, Ref<EntityStore> entityRef) {
-        consolidatedInventory.clear();
-
         try {
-            Player player = store.getComponent(entityRef, Player.getComponentType());
-            if (player == null) return;
+            Inventory inventory = getInventory(store, entityRef);
+            if (inventory == null) {
+                consolidatedInventory.clear();
+                model.consolidatedValid = false;
+                return;
+            }
 
-            Inventory inventory = player.getInventory();
+            model.inventoryFingerprint.update(inventory);
+            long fingerprint = model.inventoryFingerprint.getValue();
 
-            // Load items from hotbar
-            ItemContainer hotbar = inventory.getHotbar();
-            if (hotbar != null && hotbar.getCapacity() > 0) {
-                processContainer(hotbar, "Hotbar");
-            }
+            if (model.consolidatedValid && model.consolidatedFingerprint == fingerprint) {
+                // Same item totals as the cached scan - only the offered quantities need recomputing
+                for (ConsolidatedItem consolidated : consolidatedInventory.values()) {
+                    consolidated.offeredQuantity = 0;
+                }
+            } else {
+                consolidatedInventory.clear();
 
-            // Load items from backpack
-            ItemContainer backpack = inventory.getBackpack();
-            if (backpack != null && backpack.getCapacity() > 0) {
-                processContainer(backpack, "Backpack");
-            }
+                // Load items from hotbar
+                ItemContainer hotbar = inventory.getHotbar();
+                if (hotbar != null && hotbar.getCapacity() > 0) {
+                    processContainer(hotbar, "Hotbar");
+                }
 
-            // Load items from storage (if available)
-            ItemContainer storage = inventory.getStorage();
-            if (storage != null && storage.getCapacity() > 0) {
-                processContainer(storage, "Storage");
+                // Load items from backpack
+                ItemContainer backpack = inventory.getBackpack();
+                if (backpack != null && backpack.getCapacity() > 0) {
+                    processContainer(backpack, "Backpack");
+                }
+
+                // Load items from storage (if available)
+                ItemContainer storage = inventory.getStorage();
+                if (storage != null && storage.getCapacity() > 0) {
+                    processContainer(storage, "Storage");
+                }
+
+                model.consolidatedFingerprint = fingerprint;
+                model.consolidatedValid = true;
             }
 
-            // Account for items already in the offer
+            // Account for items already in the offer (consolidated by the shared session view).
+            // Escrowed offers have already left the inventory, so they are not subtracted again.
             Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
-            if (optSession.isPresent()) {
-                TradeOffer myOffer = optSession.get().getOfferFor(playerRef);
-                if (myOffer != null) {
-                    for (ItemStack offerItem : myOffer.getItems()) {
-                        if (offerItem != null && !offerItem.isEmpty()) {
-                            String itemId = offerItem.getItem().getId();
-                            int offeredQty = offerItem.getQuantity();
-                            ConsolidatedItem consolidated = consolidatedInventory.get(itemId);
-                            if (consolidated != null) {
-                                consolidated.offeredQuantity += offeredQty;
-                            }
-                        }
+            if (optSession.isPresent() && optSession.get().isParticipant(playerRef)
+                    && !optSession.get().hasEscrow(optSession.get().isInitiator(playerRef))) {
+                TradeSession session = optSession.get();
+                Map<String, Integer> myOffer = session.getView().getItems(session.isInitiator(playerRef));
+                for (Map.Entry<String, Integer> entry : myOffer.entrySet()) {
+                    ConsolidatedItem consolidated = consolidatedInventory.get(entry.getKey());
+                    if (consolidated != null) {
+                        consolidated.offeredQuantity += entry.getValue();
                     }
                 }
             }
         } catch (Exception e) {
+            model.consolidatedValid = false;
             LOGGER.atWarning().withCause(e).log("Failed to initialize consolidated inventory");
         }
     }
@@ -464,35 +506,15 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
 
 
     /**
-     * Get current raw inventory quantities (without accounting for offers)
+     * Get the player's inventory, or null if the player component is unavailable.
      */
-    private Map<String, Integer> getCurrentInventorySnapshot(Store<EntityStore> store, Ref<EntityStore> entityRef) {
-        Map<String, Integer> snapshot = new LinkedHashMap<>();
+    private Inventory getInventory(Store<EntityStore> store, Ref<EntityStore> entityRef) {
         try {
             Player player = store.getComponent(entityRef, Player.getComponentType());
-            if (player == null) return snapshot;
-
-            Inventory inventory = player.getInventory();
-
-            // Process all containers
-            processContainerForSnapshot(inventory.getHotbar(), snapshot);
-            processContainerForSnapshot(inventory.getBackpack(), snapshot);
-            processContainerForSnapshot(inventory.getStorage(), snapshot);
+            return player != null ? player.getInventory() : null;
         } catch (Exception e) {
-            LOGGER.atWarning().withCause(e).log("Failed to get inventory snapshot");
-        }
-        return snapshot;
-    }
-
-    private void processContainerForSnapshot(ItemContainer container, Map<String, Integer> snapshot) {
-        if (container == null || container.getCapacity() <= 0) return;
-        for (int i = 0; i < container.getCapacity(); i++) {
-            ItemStack itemStack = container.getItemStack((short) i);
-            if (itemStack != null && !itemStack.isEmpty()) {
-                String itemId = itemStack.getItem().getId();
-                int quantity = itemStack.getQuantity();
-                snapshot.merge(itemId, quantity, Integer::sum);
-            }
+            LOGGER.atWarning().withCause(e).log("Failed to get inventory");
+            return null;
         }
     }
 
@@ -501,23 +523,11 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
      * @return true if all offered items are available, false otherwise
      */
     private boolean validateOfferAgainstInventory(TradeSession session) {
-        Map<String, Integer> currentInventory = getCurrentInventorySnapshot(store, entityRef);
-        TradeOffer myOffer = session.getOfferFor(playerRef);
-
-        if (myOffer == null) return true;
-
-        for (ItemStack offerItem : myOffer.getItems()) {
-            if (offerItem == null || offerItem.isEmpty()) continue;
+        if (session.getOfferFor(playerRef) == null) return true;
 
-            String itemId = offerItem.getItem().getId();
-            int offeredQty = offerItem.getQuantity();
-            int availableQty = currentInventory.getOrDefault(itemId, 0);
-
-            if (availableQty < offeredQty) {
-                LOGGER.atWarning().log("Offer validation failed: " + itemId +
-                " offered=" + offeredQty + " available=" + availableQty);
-                return false;
-            }
+        if (!tradeManager.isOfferBacked(playerRef, getInventory(store, entityRef))) {
+            LOGGER.atWarning().log("Offer validation failed: reserved items no longer in inventory of " + playerRef.getUsername());
+            return false;
         }
         return true;
     }
@@ -603,8 +613,9 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
                 }
             }
 
-            Common.logDebug(LOGGER, "Smart space check: empty=" + totalEmptySlots +
-                " needed=" + newSlotsNeeded);
+            if (Common.isDebugEnabled(DebugCategory.INVENTORY)) {
+                LOGGER.atInfo().log("Smart space check: empty=" + totalEmptySlots + " needed=" + newSlotsNeeded);
+            }
 
             return totalEmptySlots >= newSlotsNeeded;
         } catch (Exception e) {
@@ -630,9 +641,9 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
 
     /**
      * Check for inventory changes and handle them appropriately.
-     * - Auto-unaccept if player had accepted and inventory changed
-     * - Remove items from offer if no longer available in inventory
-     * - New items will be added automatically when inventory is rebuilt
+     * The inventory is only checked against the reserved offer quantities when its fingerprint moved;
+     * the TradeManager revokes acceptances and shrinks the offer if a reservation is no longer backed.
+     * New items will be added automatically when inventory is rebuilt.
      */
     private void checkAndHandleInventoryChanges(Store<EntityStore> store, Ref<EntityStore> entityRef) {
         // Skip processing during trade execution to avoid infinite recursion
@@ -641,128 +652,27 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
             TradeState currentState = checkSession.get().getState();
             if (currentState == TradeState.EXECUTING || currentState == TradeState.COMPLETED ||
                 currentState == TradeState.FAILED || currentState == TradeState.CANCELLED) {
-                Common.logDebug(LOGGER, "Skipping inventory change handling - trade state: " + currentState);
+                Common.logDebug(LOGGER, DebugCategory.INVENTORY, "Skipping inventory change handling - trade state: {}", currentState);
                 return;
             }
         }
 
-        Map<String, Integer> currentSnapshot = getCurrentInventorySnapshot(store, entityRef);
-
-        // First time - just save snapshot
-        if (previousInventorySnapshot.isEmpty()) {
-            previousInventorySnapshot.putAll(currentSnapshot);
+        // Cheap check first: if the fingerprint didn't move, the reservations were already checked
+        Inventory inventory = getInventory(store, entityRef);
+        if (inventory == null) {
             return;
         }
-
-        // Check for changes
-        boolean hasChanges = false;
-        Map<String, Integer> decreasedItems = new LinkedHashMap<>();
-
-        // Check for items that decreased or were removed
-        for (Map.Entry<String, Integer> prev : previousInventorySnapshot.entrySet()) {
-            String itemId = prev.getKey();
-            int prevQty = prev.getValue();
-            int currentQty = currentSnapshot.getOrDefault(itemId, 0);
-
-            Common.logDebug(LOGGER, "Comparing " + itemId + ": prev=" + prevQty + " current=" + currentQty);
-
-            if (currentQty < prevQty) {
-                hasChanges = true;
-                decreasedItems.put(itemId, prevQty - currentQty);
-                Common.logDebug(LOGGER, "DETECTED DECREASE: " + itemId + " from " + prevQty + " to " + currentQty);
-            }
-        }
-
-        // Check for new items
-        for (Map.Entry<String, Integer> curr : currentSnapshot.entrySet()) {
-            String itemId = curr.getKey();
-            if (!previousInventorySnapshot.containsKey(itemId)) {
-                hasChanges = true;
-            } else if (curr.getValue() > previousInventorySnapshot.get(itemId)) {
-                hasChanges = true;
-            }
-        }
-
-        if (hasChanges) {
-            Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
-
-            if (optSession.isPresent()) {
-                TradeSession session = optSession.get();
-                boolean hasAccepted = session.hasAccepted(playerRef);
-
-                // Auto-unaccept if player had accepted
-                if (hasAccepted) {
-                    boolean revoked = tradeManager.revokeAccept(playerRef);
-                    setStatusWarning(TradeMessages.uiAcceptRevoked());
-                }
-
-                // Remove items from offer if they're no longer available
-                TradeOffer myOffer = session.getOfferFor(playerRef);
-                Common.logDebug(LOGGER, "My offer: " + (myOffer != null ? myOffer.getItems().size() + " items" : "null"));
-                Common.logDebug(LOGGER, "decreasedItems: " + decreasedItems);
-
-                if (myOffer != null && !decreasedItems.isEmpty()) {
-                    Common.logDebug(LOGGER, "Calling handleDecreasedItemsInOffer...");
-                    handleDecreasedItemsInOffer(myOffer, decreasedItems, currentSnapshot, session);
-                } else {
-                    Common.logDebug(LOGGER, "NOT calling handleDecreasedItemsInOffer - myOffer=" + myOffer + " decreasedItems.isEmpty=" + decreasedItems.isEmpty());
-                }
-            }
-        } else {
-            Common.logDebug(LOGGER, "No changes detected - snapshots appear identical");
-        }
-
-        // Update snapshot
-        previousInventorySnapshot.clear();
-        previousInventorySnapshot.putAll(currentSnapshot);
-    }
-
-    /**
-     * Handle items that decreased in inventory - remove from offer if necessary
-     */
-    private void handleDecreasedItemsInOffer(TradeOffer myOffer, Map<String, Integer> decreasedItems,
-                                              Map<String, Integer> currentInventory, TradeSession session) {
-        Common.logDebug(LOGGER, "handleDecreasedItemsInOffer called - decreasedItems: " + decreasedItems);
-        Common.logDebug(LOGGER, "currentInventory: " + currentInventory);
-        Common.logDebug(LOGGER, "Offer locked: " + myOffer.isLocked());
-
-        List<ItemStack> offerItems = myOffer.getItems();
-        Common.logDebug(LOGGER, "Offer items count: " + offerItems.size());
-        boolean offerChanged = false;
-
-        for (int i = offerItems.size() - 1; i >= 0; i--) {
-            ItemStack offerItem = offerItems.get(i);
-            if (offerItem == null || offerItem.isEmpty()) continue;
-
-            String itemId = offerItem.getItem().getId();
-            int offeredQty = offerItem.getQuantity();
-            int availableQty = currentInventory.getOrDefault(itemId, 0);
-
-            Common.logDebug(LOGGER, "Checking offer item: " + itemId + " offered=" + offeredQty + " available=" + availableQty);
-
-            if (availableQty < offeredQty) {
-                // Need to reduce or remove from offer
-                if (availableQty <= 0) {
-                    // Remove entirely
-                    ItemStack removed = myOffer.removeItem(i);
-                    Common.logDebug(LOGGER, "Removed item from offer: " + (removed != null ? "success" : "FAILED"));
-                    setStatusWarning(TradeMessages.actionRemovedFromOffer(itemId));
-                } else {
-                    // Reduce quantity
-                    boolean success = myOffer.setItemQuantity(i, availableQty);
-                    Common.logDebug(LOGGER, "Set item quantity to " + availableQty + ": " + (success ? "success" : "FAILED"));
-                    setStatusWarning(TradeMessages.actionReducedInOffer(itemId, availableQty));
-                }
-                offerChanged = true;
-            }
+        model.inventoryFingerprint.update(inventory);
+        long fingerprint = model.inventoryFingerprint.getValue();
+        if (model.reservationsChecked && model.reservationsFingerprint == fingerprint) {
+            return;
         }
 
-        if (offerChanged) {
-            Common.logDebug(LOGGER, "Offer changed, notifying tradeManager");
-            tradeManager.onOfferChanged(playerRef);
-        } else {
-            Common.logDebug(LOGGER, "No offer changes needed");
+        if (tradeManager.enforceReservations(playerRef, inventory)) {
+            Common.logDebug(LOGGER, DebugCategory.INVENTORY, "Offer shrunk to the quantities still in inventory");
         }
+        model.reservationsFingerprint = fingerprint;
+        model.reservationsChecked = true;
     }
 
     private void buildInventorySlots(UICommandBuilder commands, UIEventBuilder events) {
@@ -821,20 +731,12 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         }
     }
 
-    private void buildMyOfferSlots(UICommandBuilder commands, UIEventBuilder events, TradeSession session) {
-        TradeOffer myOffer = session.getOfferFor(playerRef);
-        if (myOffer == null) return;
+    private void buildMyOfferSlots(UICommandBuilder commands, UIEventBuilder events,
+                                   TradeSession session, SessionView view) {
+        if (!session.isParticipant(playerRef)) return;
 
-        // Collect offer items into map
-        myOfferItems.clear();
-        List<ItemStack> offerItems = myOffer.getItems();
-        for (ItemStack item : offerItems) {
-            if (item != null && !item.isEmpty()) {
-                String itemId = item.getItem().getId();
-                int qty = item.getQuantity();
-                myOfferItems.merge(itemId, qty, Integer::sum);
-            }
-        }
+        // Offer is already consolidated by the shared session view
+        Map<String, Integer> myOfferItems = view.getItems(session.isInitiator(playerRef));
 
         int index = 0;
         int currentRowNum = -1;
@@ -894,21 +796,13 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         }
     }
 
-    private void buildPartnerOfferSlots(UICommandBuilder commands, TradeSession session) {
+    private void buildPartnerOfferSlots(UICommandBuilder commands, TradeSession session, SessionView view) {
         PlayerRef partner = session.getOtherPlayer(playerRef);
-        TradeOffer partnerOffer = session.getOfferFor(partner);
-        if (partnerOffer == null) return;
-
-        // Consolidate partner offer items
-        Map<String, Integer> partnerItems = new LinkedHashMap<>();
-        List<ItemStack> offerItems = partnerOffer.getItems();
-        for (ItemStack item : offerItems) {
-            if (item != null && !item.isEmpty()) {
-                String itemId = item.getItem().getId();
-                int qty = item.getQuantity();
-                partnerItems.merge(itemId, qty, Integer::sum);
-            }
-        }
+        if (partner == null) return;
+
+        // Offer is already consolidated by the shared session view
+        // (in test mode the partner is the same player, so this resolves to our own side)
+        Map<String, Integer> partnerItems = view.getItems(session.isInitiator(partner));
 
         int index = 0;
         int currentRowNum = -1;
@@ -968,6 +862,23 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
             return;
         }
 
+        // Drop actions repeated faster than the rate limit (offer edits and accept toggles)
+        ActionRateLimiter.Action limited = null;
+        if (action.startsWith(ACTION_INV_PREFIX) || action.startsWith(ACTION_OFFER_PREFIX)) {
+            limited = ActionRateLimiter.Action.OFFER_EDIT;
+        } else if (ACTION_ACCEPT.equals(action)) {
+            limited = ActionRateLimiter.Action.ACCEPT_TOGGLE;
+        }
+        if (limited != null) {
+            ActionRateLimiter.Outcome outcome = tradeManager.tryAction(playerRef, limited);
+            if (outcome == ActionRateLimiter.Outcome.LIMITED) {
+                setStatusWarning(messages.uiRateLimited());
+            }
+            if (!outcome.isAllowed()) {
+                return;
+            }
+        }
+
         // Check for inventory changes before processing any action
         // This will auto-unaccept if inventory changed while accepted
         checkAndHandleInventoryChanges(store, entityRef);
@@ -1081,7 +992,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     private boolean transferToOffer(String itemId, int requestedAmount, Store<EntityStore> store, Ref<EntityStore> entityRef) {
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            setStatusError(TradeMessages.uiNoActiveSession());
+            setStatusError(messages.uiNoActiveSession());
             return false;
         }
 
@@ -1090,20 +1001,21 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         // Auto-unaccept both players if trying to modify while accepted
         if (session.getState() == TradeState.ONE_ACCEPTED || session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
             session.revokeAllAcceptances();
-            setStatusWarning(TradeMessages.uiAcceptRevoked());
+            setStatusWarning(messages.uiAcceptRevoked());
             // Notify partner via their trading page
-            tradeManager.notifyPartnerStatus(playerRef, TradeMessages.uiPartnerModified(), COLOR_WARNING);
+            tradeManager.notifyPartnerStatus(playerRef,
+                TradeMessages.forPlayer(session.getOtherPlayer(playerRef)).uiPartnerModified(), COLOR_WARNING);
         }
 
         ConsolidatedItem item = consolidatedInventory.get(itemId);
         if (item == null) {
-            setStatusError(TradeMessages.uiItemNotFound());
+            setStatusError(messages.uiItemNotFound());
             return false;
         }
 
         int available = item.getAvailable();
         if (available <= 0) {
-            setStatusWarning(TradeMessages.uiNoItemsAvailable());
+            setStatusWarning(messages.uiNoItemsAvailable());
             return false;
         }
 
@@ -1131,7 +1043,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
             // Use the actual Item object to create a proper ItemStack
             ItemStack newItem = new ItemStack(item.itemId, actualAmount);
             if (!myOffer.addItem(newItem)) {
-                setStatusError(TradeMessages.uiFailedToAdd());
+                setStatusError(messages.uiFailedToAdd());
                 return false;
             }
             createdNewSlot = true;
@@ -1142,7 +1054,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         tradeManager.onOfferChanged(playerRef);
 
         // Clear any previous error/warning - show normal status
-        setStatusNormal(TradeMessages.actionAddedToOffer(actualAmount));
+        setStatusNormal(messages.actionAddedToOffer(actualAmount));
         return createdNewSlot;
     }
 
@@ -1153,7 +1065,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     private boolean returnFromOffer(String itemId, int requestedAmount, Store<EntityStore> store, Ref<EntityStore> entityRef) {
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            setStatusError(TradeMessages.uiNoActiveSession());
+            setStatusError(messages.uiNoActiveSession());
             return false;
         }
 
@@ -1162,9 +1074,10 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         // Auto-unaccept both players if trying to modify while accepted
         if (session.getState() == TradeState.ONE_ACCEPTED || session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
             session.revokeAllAcceptances();
-            setStatusWarning(TradeMessages.uiAcceptRevoked());
+            setStatusWarning(messages.uiAcceptRevoked());
             // Notify partner via their trading page
-            tradeManager.notifyPartnerStatus(playerRef, TradeMessages.uiPartnerModified(), COLOR_WARNING);
+            tradeManager.notifyPartnerStatus(playerRef,
+                TradeMessages.forPlayer(session.getOtherPlayer(playerRef)).uiPartnerModified(), COLOR_WARNING);
         }
 
         TradeOffer myOffer = session.getOfferFor(playerRef);
@@ -1183,7 +1096,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         }
 
         if (offerSlot == -1) {
-            setStatusError(TradeMessages.uiItemNotFound());
+            setStatusError(messages.uiItemNotFound());
             return false;
         }
 
@@ -1205,14 +1118,14 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         }
 
         tradeManager.onOfferChanged(playerRef);
-        setStatusNormal(TradeMessages.actionReturnedFromOffer(actualAmount));
+        setStatusNormal(messages.actionReturnedFromOffer(actualAmount));
         return removedSlot;
     }
 
     private void handleAccept() {
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            setStatusError(TradeMessages.uiNoActiveSession());
+            setStatusError(messages.uiNoActiveSession());
             return;
         }
 
@@ -1220,31 +1133,37 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
 
         if (session.hasAccepted(playerRef)) {
             if (tradeManager.revokeAccept(playerRef)) {
-                setStatusWarning(TradeMessages.uiAcceptRevokedManual());
+                setStatusWarning(messages.uiAcceptRevokedManual());
                 stopCountdownTimer();
             }
         } else {
             // Validate inventory before accepting
             if (!validateOfferAgainstInventory(session)) {
-                setStatusError(TradeMessages.uiFailedValidation());
+                setStatusError(messages.uiFailedValidation());
                 return;
             }
 
             // Validate inventory space
             if (!validateInventorySpace(session)) {
-                setStatusError(TradeMessages.uiNotEnoughSpace());
+                setStatusError(messages.uiNotEnoughSpace());
+                return;
+            }
+
+            // Validate distance to partner
+            if (!tradeManager.isWithinTradeDistance(session)) {
+                setStatusError(messages.uiTooFarFromPartner(Common.getMaxTradeDistance()));
                 return;
             }
 
             if (tradeManager.acceptTrade(playerRef)) {
                 if (session.getState() == TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-                    setStatusSuccess(TradeMessages.uiBothAccepted());
+                    setStatusSuccess(messages.uiBothAccepted());
                     startCountdownTimer();
                 } else {
-                    setStatusNormal(TradeMessages.uiStatusAcceptedWaiting());
+                    setStatusNormal(messages.uiStatusAcceptedWaiting());
                 }
             } else {
-                setStatusError(TradeMessages.uiCannotAcceptState());
+                setStatusError(messages.uiCannotAcceptState());
             }
         }
     }
@@ -1252,64 +1171,38 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
     private void handleConfirm(Ref<EntityStore> entityRef, Store<EntityStore> store) {
         Optional<TradeSession> optSession = tradeManager.getSession(playerRef);
         if (optSession.isEmpty()) {
-            setStatusError(TradeMessages.uiNoActiveSession());
+            setStatusError(messages.uiNoActiveSession());
             return;
         }
 
         TradeSession session = optSession.get();
 
         if (session.getState() != TradeState.BOTH_ACCEPTED_COUNTDOWN) {
-            setStatusWarning(TradeMessages.errorAcceptFirst().getAnsiMessage());
+            setStatusWarning(messages.errorAcceptFirst().getAnsiMessage());
             return;
         }
 
         if (!session.isCountdownComplete()) {
             long remaining = session.getRemainingCountdownMs();
-            setStatusWarning(TradeMessages.uiWaitMoreSeconds(remaining / 1000));
+            setStatusWarning(messages.uiWaitMoreSeconds(remaining / 1000));
             return;
         }
 
-        TradeSession.TradeResult result = tradeManager.confirmTrade(playerRef, store, entityRef);
-
-        if (result.success) {
-            setStatusSuccess(TradeMessages.uiTradeCompleted());
-            this.close();
-        } else {
-            // Trade failed - show appropriate message based on who caused it
-            boolean iAmInitiator = playerRef.getUuid().equals(session.getInitiator().getUuid());
-            String myMessage;
-            String otherMessage;
-
-            if (result.cause == TradeSession.TradeResult.FailureCause.INITIATOR) {
-                myMessage = iAmInitiator ? result.message : result.messageForOther;
-                otherMessage = iAmInitiator ? result.messageForOther : result.message;
-            } else if (result.cause == TradeSession.TradeResult.FailureCause.TARGET) {
-                myMessage = iAmInitiator ? result.messageForOther : result.message;
-                otherMessage = iAmInitiator ? result.message : result.messageForOther;
-            } else {
-                // System error - same message for both
-                myMessage = result.message;
-                otherMessage = result.message;
+        // The countdown being confirmed is the idempotency token: a retried click joins the same execution.
+        // A failure is pushed to both pages by the TradeManager, a success closes both pages.
+        long token = session.getView().getCountdownDeadline();
+        tradeManager.confirmTrade(playerRef, store, entityRef, token).thenAccept(result -> {
+            if (result.success) {
+                Common.logDebug(LOGGER, DebugCategory.UI, "Trade confirmed by {}", playerRef.getUsername());
             }
-
-            // Set error status first (this schedules a 5-second reset and activates temporary status)
-            setStatusError(myMessage);
-
-            // Then refresh UI - status update will be skipped since temporary status is active
-            sendPageUpdate(entityRef, store, true);
-
-            // Notify partner's UI with their message (via tradeManager)
-            if (otherMessage != null) {
-                tradeManager.notifyPartnerStatus(playerRef, otherMessage, COLOR_ERROR);
-            }
-        }
+        });
     }
 
     private void handleCancel() {
         if (tradeManager.cancelTrade(playerRef)) {
             this.close();
         } else {
-            setStatusError(TradeMessages.cancelFailed().getAnsiMessage());
+            setStatusError(messages.cancelFailed().getAnsiMessage());
         }
     }
 
@@ -1338,64 +1231,67 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         commands.clear("#PartnerOfferSlotsContainer");
 
         // Rebuild slots
+        SessionView view = session.getView();
         buildInventorySlots(commands, events);
-        buildMyOfferSlots(commands, events, session);
-        buildPartnerOfferSlots(commands, session);
+        buildMyOfferSlots(commands, events, session, view);
+        buildPartnerOfferSlots(commands, session, view);
 
         // Update status UI, but skip if a temporary status (warning/error) is being displayed
         // This prevents overwriting error messages that should be visible for 5 seconds
         if (!isTemporaryStatusActive()) {
-            updateStatusUI(commands, session);
+            updateStatusUI(commands, session, view);
         } else {
             // Still update accept statuses even when skipping status message
-            boolean iAmInitiator = playerRef.getUuid().equals(session.getInitiator().getUuid());
-            boolean myAccepted = iAmInitiator ? session.isInitiatorAccepted() : session.isTargetAccepted();
-            boolean partnerAccepted = iAmInitiator ? session.isTargetAccepted() : session.isInitiatorAccepted();
-            commands.set("#MyAcceptStatus.Text", myAccepted ? TradeMessages.uiStatusAccepted() : TradeMessages.uiStatusNotAccepted());
-            commands.set("#MyAcceptStatus.Style.TextColor", myAccepted ? COLOR_SUCCESS : COLOR_ERROR);
-            commands.set("#PartnerAcceptStatus.Text", partnerAccepted ? TradeMessages.uiStatusAccepted() : TradeMessages.uiStatusNotAccepted());
-            commands.set("#PartnerAcceptStatus.Style.TextColor", partnerAccepted ? COLOR_SUCCESS : COLOR_ERROR);
+            updateAcceptStatusUI(commands, session, view);
         }
 
         // Send update without full rebuild (preserves scroll position)
         sendUpdate(commands, events, false);
     }
 
-    private void updateStatusUI(UICommandBuilder commands, TradeSession session) {
+    /**
+     * Set both players' accept status labels from the session view.
+     */
+    private void updateAcceptStatusUI(UICommandBuilder commands, TradeSession session, SessionView view) {
         boolean iAmInitiator = playerRef.getUuid().equals(session.getInitiator().getUuid());
-        boolean myAccepted = iAmInitiator ? session.isInitiatorAccepted() : session.isTargetAccepted();
-        boolean partnerAccepted = iAmInitiator ? session.isTargetAccepted() : session.isInitiatorAccepted();
+        boolean myAccepted = view.isAccepted(iAmInitiator);
+        boolean partnerAccepted = view.isAccepted(!iAmInitiator);
 
-        String acceptedText = TradeMessages.uiStatusAccepted();
-        String notAcceptedText = TradeMessages.uiStatusNotAccepted();
+        String acceptedText = messages.uiStatusAccepted();
+        String notAcceptedText = messages.uiStatusNotAccepted();
         commands.set("#MyAcceptStatus.Text", myAccepted ? acceptedText : notAcceptedText);
         commands.set("#MyAcceptStatus.Style.TextColor", myAccepted ? COLOR_SUCCESS : COLOR_ERROR);
         commands.set("#PartnerAcceptStatus.Text", partnerAccepted ? acceptedText : notAcceptedText);
         commands.set("#PartnerAcceptStatus.Style.TextColor", partnerAccepted ? COLOR_SUCCESS : COLOR_ERROR);
+    }
 
+    private void updateStatusUI(UICommandBuilder commands, TradeSession session, SessionView view) {
+        updateAcceptStatusUI(commands, session, view);
+
+        boolean myAccepted = view.isAccepted(playerRef.getUuid().equals(session.getInitiator().getUuid()));
         String statusMsg;
-        TradeState state = session.getState();
+        TradeState state = view.getState();
 
         String statusColor = COLOR_NORMAL;
 
         switch (state) {
             case NEGOTIATING:
-                statusMsg = TradeMessages.uiClickInstructions();
+                statusMsg = messages.uiClickInstructions();
                 statusColor = COLOR_NORMAL;
                 commands.set("#CountdownTimer.Text", "");
                 stopCountdownTimer();
                 break;
             case ONE_ACCEPTED:
-                statusMsg = myAccepted ? TradeMessages.uiWaitingForPartner() : TradeMessages.uiPartnerAccepted();
+                statusMsg = myAccepted ? messages.uiWaitingForPartner() : messages.uiPartnerAccepted();
                 statusColor = myAccepted ? COLOR_NORMAL : COLOR_WARNING;
                 commands.set("#CountdownTimer.Text", "");
                 stopCountdownTimer();
                 break;
             case BOTH_ACCEPTED_COUNTDOWN:
-                long remaining = session.getRemainingCountdownMs();
+                long remaining = view.getRemainingCountdownMs(System.currentTimeMillis());
                 long displaySeconds = (remaining + 999) / 1000;
                 if (remaining > 0) {
-                    statusMsg = TradeMessages.statusCountdown(displaySeconds).getAnsiMessage();
+                    statusMsg = messages.statusCountdown(displaySeconds).getAnsiMessage();
                     statusColor = COLOR_SUCCESS;
                     commands.set("#CountdownTimer.Text", displaySeconds + "s");
                     // Start countdown timer if not already running
@@ -1403,9 +1299,9 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
                         startCountdownTimer();
                     }
                 } else {
-                    statusMsg = TradeMessages.uiCountdownReady();
+                    statusMsg = messages.uiCountdownReady();
                     statusColor = COLOR_SUCCESS;
-                    commands.set("#CountdownTimer.Text", TradeMessages.uiStatusReady());
+                    commands.set("#CountdownTimer.Text", messages.uiStatusReady());
                 }
                 break;
             default:
@@ -1417,7 +1313,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         commands.set("#StatusMessage.Text", statusMsg);
         commands.set("#StatusMessage.Style.TextColor", statusColor);
 
-        int totalOffered = myOfferItems.values().stream().mapToInt(Integer::intValue).sum();
+        int totalOffered = view.getTotal(session.isInitiator(playerRef));
         commands.set("#DebugInfo.Text", "State: " + state.name() + " | " +
             consolidatedInventory.size() + " unique items | Offered: " + totalOffered);
     }
@@ -1434,7 +1330,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         TradeSession session = optSession.get();
         UICommandBuilder commands = new UICommandBuilder();
         UIEventBuilder events = new UIEventBuilder();
-        updateStatusUI(commands, session);
+        updateStatusUI(commands, session, session.getView());
         sendUpdate(commands, events, false);
     }
 
@@ -1490,16 +1386,16 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
                     if (remaining > 0) {
                         commands.set("#CountdownTimer.Text", displaySeconds + "s");
                     } else {
-                        commands.set("#CountdownTimer.Text", TradeMessages.uiStatusReady());
+                        commands.set("#CountdownTimer.Text", messages.uiStatusReady());
                     }
 
                     // Only update status message if no temporary status is active
                     // (allows "Both accepted!" message to display for 5 seconds)
                     if (!isTemporaryStatusActive()) {
                         if (remaining > 0) {
-                            commands.set("#StatusMessage.Text", TradeMessages.statusCountdown(displaySeconds).getAnsiMessage());
+                            commands.set("#StatusMessage.Text", messages.statusCountdown(displaySeconds).getAnsiMessage());
                         } else {
-                            commands.set("#StatusMessage.Text", TradeMessages.uiCountdownReady());
+                            commands.set("#StatusMessage.Text", messages.uiCountdownReady());
                         }
                     }
 
@@ -1516,7 +1412,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         }, 0, COUNTDOWN_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
         } catch (RejectedExecutionException e) {
             // Scheduler was shut down between the check and the schedule call
-            Common.logDebug(LOGGER, "Countdown task rejected - scheduler shut down");
+            Common.logDebug(LOGGER, DebugCategory.UI, "Countdown task rejected - scheduler shut down");
         }
     }
 
@@ -1536,6 +1432,7 @@ public class TradingPage extends InteractiveCustomUIPage<TradingPageData> {
         stopCountdownTimer();
         cancelStatusReset();
         countdownScheduler.shutdown();
+        tradeManager.untrackTradingPage(leakTracking);
         // Unregister from inventory change events
         tradeManager.unregisterTradingPage(playerRef);
     }
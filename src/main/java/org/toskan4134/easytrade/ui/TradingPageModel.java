@@ -0,0 +1,60 @@
+package org.toskan4134.easytrade.ui;
+
+import org.toskan4134.easytrade.util.InventoryFingerprint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player state of the trading page that outlives the page itself.
+ * Kept by the TradeManager for as long as the trade session is alive, so closing and
+ * reopening the trading UI renders from the cached inventory instead of rescanning it.
+ */
+public class TradingPageModel {
+
+    final UUID sessionId;
+
+    // Consolidated inventory: itemId -> ConsolidatedItem
+    final Map<String, ConsolidatedItem> consolidatedInventory = new LinkedHashMap<>();
+    // Fingerprint of the live inventory, refreshed on every check
+    final InventoryFingerprint inventoryFingerprint = new InventoryFingerprint();
+
+    // Fingerprint values the reservation check and the consolidated inventory were done against
+    long reservationsFingerprint;
+    boolean reservationsChecked;
+    long consolidatedFingerprint;
+    boolean consolidatedValid;
+
+    // Last temporary status message shown, restored on reopen while still fresh
+    String statusMessage;
+    String statusColor;
+    long statusExpiresAt;
+
+    public TradingPageModel(UUID sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Get the session this model belongs to, or null for a detached model.
+     */
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Remember a temporary status so it can be restored if the page is reopened.
+     */
+    void rememberStatus(String message, String color, long expiresAt) {
+        this.statusMessage = message;
+        this.statusColor = color;
+        this.statusExpiresAt = expiresAt;
+    }
+
+    /**
+     * Check if the remembered temporary status is still meant to be displayed.
+     */
+    boolean hasFreshStatus(long now) {
+        return statusMessage != null && now < statusExpiresAt;
+    }
+}
@@ -4,6 +4,9 @@ import com.hypixel.hytale.logger.HytaleLogger;
 import org.toskan4134.easytrade.TradingPlugin;
 import org.toskan4134.easytrade.config.ConfigManager;
 import org.toskan4134.easytrade.config.TradeConfig;
+import org.toskan4134.easytrade.config.TradeConfigSnapshot;
+
+import java.util.function.Supplier;
 
 /**
  * Common utility class for accessing plugin configuration and shared functionality.
@@ -12,6 +15,8 @@ import org.toskan4134.easytrade.config.TradeConfig;
 public class Common {
 
     private static TradingPlugin plugin;
+    // Current config values, replaced as a whole on every load
+    private static volatile TradeConfigSnapshot config = TradeConfigSnapshot.DEFAULTS;
 
     /**
      * Initialize the Common utility with the plugin instance.
@@ -50,13 +55,32 @@ public class Common {
         return plugin.getConfig().get();
     }
 
+    /**
+     * Get the current snapshot of the trade configuration.
+     *
+     * @return The config snapshot
+     */
+    public static TradeConfigSnapshot getConfigSnapshot() {
+        return config;
+    }
+
+    /**
+     * Publish a new config snapshot; later reads see all of its values.
+     *
+     * @param snapshot The new config snapshot
+     */
+    public static void publishConfig(TradeConfigSnapshot snapshot) {
+        config = snapshot;
+        DebugCategory.setEnabledMask(snapshot.getDebugMask());
+    }
+
     /**
      * Check if debug mode is enabled.
      *
      * @return true if debug mode is enabled
      */
     public static boolean isDebug() {
-        return getConfig().isDebug();
+        return config.isDebug();
     }
 
     /**
@@ -65,7 +89,115 @@ public class Common {
      * @return true if update checking is enabled
      */
     public static boolean isCheckForUpdates() {
-        return getConfig().isCheckForUpdates();
+        return config.isCheckForUpdates();
+    }
+
+    /**
+     * Check if escrow mode is enabled.
+     *
+     * @return true if accepted offers are held in escrow
+     */
+    public static boolean isEscrowMode() {
+        return config.isEscrowMode();
+    }
+
+    /**
+     * Check if trades execute automatically when the countdown ends.
+     *
+     * @return true if auto-execute is enabled
+     */
+    public static boolean isAutoExecute() {
+        return config.isAutoExecute();
+    }
+
+    /**
+     * Get the time per tick each world may spend executing queued trades.
+     *
+     * @return Execution budget in ms
+     */
+    public static long getExecutionBudgetMs() {
+        return config.getExecutionBudgetMs();
+    }
+
+    /**
+     * Get how many pending trade requests a player can hold at once.
+     *
+     * @return Maximum pending requests per target player
+     */
+    public static int getMaxPendingRequests() {
+        return config.getMaxPendingRequests();
+    }
+
+    /**
+     * Get how many pending trade requests the server holds at most.
+     *
+     * @return Maximum pending requests across the server, or 0 for no limit
+     */
+    public static int getMaxTotalPendingRequests() {
+        return config.getMaxTotalPendingRequests();
+    }
+
+    /**
+     * Get how many trades can be active at once.
+     *
+     * @return Maximum active sessions across the server, or 0 for no limit
+     */
+    public static int getMaxActiveSessions() {
+        return config.getMaxActiveSessions();
+    }
+
+    /**
+     * Get how many confirmed trades can wait in a world's execution queue.
+     *
+     * @return Maximum execution queue depth per world, or 0 for no limit
+     */
+    public static int getMaxExecutionQueue() {
+        return config.getMaxExecutionQueue();
+    }
+
+    /**
+     * Get the radius within which players count as nearby.
+     *
+     * @return Nearby radius in blocks
+     */
+    public static int getNearbyRadius() {
+        return config.getNearbyRadius();
+    }
+
+    /**
+     * Get the maximum distance between trade partners.
+     *
+     * @return Max trade distance in blocks, or 0 for no limit
+     */
+    public static int getMaxTradeDistance() {
+        return config.getMaxTradeDistance();
+    }
+
+    /**
+     * Get how many trade requests a player can send per minute.
+     *
+     * @return Requests per minute, or 0 for no limit
+     */
+    public static int getRequestRateLimit() {
+        return config.getRequestRateLimit();
+    }
+
+    /**
+     * Get how many offer edits a player can make per second.
+     *
+     * @return Offer edits per second, or 0 for no limit
+     */
+    public static int getOfferEditRateLimit() {
+        return config.getOfferEditRateLimit();
+    }
+
+    /**
+     * Get how many times a player can toggle their acceptance per second.
+     *
+     * @return Accept toggles per second, or 0 for no limit
+     */
+    public static int getAcceptRateLimit() {
+        return config.getAcceptRateLimit();
     }
 
     /**
@@ -74,7 +206,16 @@ public class Common {
      * @return Request timeout in ms
      */
     public static long getRequestTimeoutMs() {
-        return getConfig().getRequestTimeoutMs();
+        return config.getRequestTimeoutMs();
+    }
+
+    /**
+     * Get how long the plugin may take to shut down trading.
+     *
+     * @return Shutdown timeout in ms
+     */
+    public static long getShutdownTimeoutMs() {
+        return config.getShutdownTimeoutMs();
     }
 
     /**
@@ -83,7 +224,7 @@ public class Common {
      * @return Countdown duration in ms
      */
     public static long getCountdownDurationMs() {
-        return getConfig().getCountdownDurationMs();
+        return config.getCountdownDurationMs();
     }
 
     /**
@@ -92,7 +233,7 @@ public class Common {
      * @return Countdown duration in seconds
      */
     public static long getCountdownDurationSec() {
-        return getConfig().getCountdownDurationMs() / 1000;
+        return config.getCountdownDurationMs() / 1000;
     }
 
     /**
@@ -149,18 +290,117 @@ public class Common {
         return HytaleLogger.forEnclosingClass();
     }
 
+    // Debug messages are only built when their category is enabled: a disabled call is one bit test.
+    // Prefer the {} pattern overloads for object arguments and a supplier for anything computed;
+    // primitive arguments are boxed at the call site, so guard those with isDebugEnabled on hot paths.
+
     /**
-     * Log a debug message if debug mode is enabled.
+     * Check if debug messages of a category are logged.
+     *
+     * @param category The debug category
+     * @return true if the category is enabled
+     */
+    public static boolean isDebugEnabled(DebugCategory category) {
+        return category.isEnabled();
+    }
+
+    /**
+     * Log a general debug message if its category is enabled.
      *
      * @param logger The logger to use
      * @param message The message to log
      */
     public static void logDebug(HytaleLogger logger, String message) {
-        if (isDebug()) {
+        logDebug(logger, DebugCategory.GENERAL, message);
+    }
+
+    /**
+     * Log a debug message if its category is enabled.
+     *
+     * @param logger The logger to use
+     * @param category The debug category
+     * @param message The message to log
+     */
+    public static void logDebug(HytaleLogger logger, DebugCategory category, String message) {
+        if (category.isEnabled()) {
             logger.atInfo().log(message);
         }
     }
 
+    /**
+     * Log a debug message built by a supplier, only called if the category is enabled.
+     *
+     * @param logger The logger to use
+     * @param category The debug category
+     * @param message Supplier of the message to log
+     */
+    public static void logDebug(HytaleLogger logger, DebugCategory category, Supplier<String> message) {
+        if (category.isEnabled()) {
+            logger.atInfo().log(message.get());
+        }
+    }
+
+    /**
+     * Log a debug message with one {} placeholder if its category is enabled.
+     *
+     * @param logger The logger to use
+     * @param category The debug category
+     * @param pattern The message, with {} where the argument goes
+     * @param arg The argument
+     */
+    public static void logDebug(HytaleLogger logger, DebugCategory category, String pattern, Object arg) {
+        if (category.isEnabled()) {
+            logger.atInfo().log(formatPattern(pattern, arg));
+        }
+    }
+
+    /**
+     * Log a debug message with two {} placeholders if its category is enabled.
+     *
+     * @param logger The logger to use
+     * @param category The debug category
+     * @param pattern The message, with {} where each argument goes
+     * @param arg1 The first argument
+     * @param arg2 The second argument
+     */
+    public static void logDebug(HytaleLogger logger, DebugCategory category, String pattern, Object arg1, Object arg2) {
+        if (category.isEnabled()) {
+            logger.atInfo().log(formatPattern(pattern, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log a debug message with three {} placeholders if its category is enabled.
+     *
+     * @param logger The logger to use
+     * @param category The debug category
+     * @param pattern The message, with {} where each argument goes
+     * @param arg1 The first argument
+     * @param arg2 The second argument
+     * @param arg3 The third argument
+     */
+    public static void logDebug(HytaleLogger logger, DebugCategory category, String pattern,
+                                Object arg1, Object arg2, Object arg3) {
+        if (category.isEnabled()) {
+            logger.atInfo().log(formatPattern(pattern, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Replace each {} in a pattern with the next argument.
+     */
+    private static String formatPattern(String pattern, Object... args) {
+        StringBuilder text = new StringBuilder(pattern.length() + 16 * args.length);
+        int argIndex = 0;
+        int start = 0;
+        int slot;
+        while (argIndex < args.length && (slot = pattern.indexOf("{}", start)) >= 0) {
+            text.append(pattern, start, slot).append(args[argIndex++]);
+            start = slot + 2;
+        }
+        return text.append(pattern, start, pattern.length()).toString();
+    }
+
     // ===== SAFE EXECUTION UTILITIES =====
 
     /**
@@ -0,0 +1,95 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.util.Locale;
+
+/**
+ * Subsystems whose debug logging can be switched on separately.
+ *
+ * The enabled categories are one bit mask, so checking whether a debug message should be logged is
+ * a single volatile read and a bit test. "Debug": true in the config enables every category; the
+ * "DebugCategories" option enables a comma-separated list (e.g. "Inventory, Execution"), picked up
+ * again on every config reload.
+ */
+public enum DebugCategory {
+    GENERAL("General"),
+    REQUESTS("Requests"),
+    SESSIONS("Sessions"),
+    INVENTORY("Inventory"),
+    EXECUTION("Execution"),
+    UI("UI"),
+    UPDATES("Updates");
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    /**
+     * Mask with every category enabled
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    // Bits of the enabled categories
+    private static volatile int enabledMask;
+
+    private final String configName;
+    private final int bit;
+
+    DebugCategory(String configName) {
+        this.configName = configName;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Name of the category in the "DebugCategories" config option.
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    public boolean isEnabled() {
+        return (enabledMask & bit) != 0;
+    }
+
+    /**
+     * Replace the enabled categories with a mask built by {@link #parseMask(String)}.
+     */
+    public static void setEnabledMask(int mask) {
+        synchronized (DebugCategory.class) {
+            enabledMask = mask & ALL;
+        }
+    }
+
+    /**
+     * Parse a comma-separated list of category names (case-insensitive) into a mask.
+     * Unknown names are skipped with a warning.
+     */
+    public static int parseMask(String names) {
+        if (names == null || names.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        for (String name : names.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            DebugCategory category = byName(trimmed);
+            if (category != null) {
+                mask |= category.bit;
+            } else {
+                LOGGER.atWarning().log("Unknown debug category: " + trimmed);
+            }
+        }
+        return mask;
+    }
+
+    private static DebugCategory byName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (DebugCategory category : values()) {
+            if (category.configName.toLowerCase(Locale.ROOT).equals(lower)) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
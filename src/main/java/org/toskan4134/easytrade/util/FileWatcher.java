@@ -0,0 +1,127 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Predicate;
+
+/**
+ * Watches a folder for changes to some of its files and runs a callback on its own daemon thread.
+ *
+ * Editors and atomic renames produce a burst of events per save, so after the first matching event
+ * the watcher waits a short debounce time, drops the rest of the burst and runs the callback once.
+ */
+public class FileWatcher {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    /**
+     * Time to wait for more file events before running the callback
+     */
+    private static final long DEBOUNCE_MS = 250;
+
+    private final Path folder;
+    private final Predicate<String> fileFilter;
+    private final Runnable onChange;
+    private final String threadName;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param folder Folder to watch
+     * @param fileFilter Which file names in the folder to react to
+     * @param onChange Callback run on the watcher thread after matching files changed
+     * @param threadName Name of the watcher thread
+     */
+    public FileWatcher(Path folder, Predicate<String> fileFilter, Runnable onChange, String threadName) {
+        this.folder = folder;
+        this.fileFilter = fileFilter;
+        this.onChange = onChange;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Start watching. Does nothing if already started or if the folder can't be watched.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        try {
+            watchService = folder.getFileSystem().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.atWarning().log("Could not watch " + folder + " for changes: " + e.getMessage());
+            return;
+        }
+
+        WatchService service = watchService;
+        thread = new Thread(() -> watch(service), threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching.
+     */
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = hasMatchingEvent(key);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // Let the burst of events from one save settle, then run once
+                Thread.sleep(DEBOUNCE_MS);
+                WatchKey more;
+                while ((more = service.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+
+                try {
+                    onChange.run();
+                } catch (Exception e) {
+                    LOGGER.atWarning().withCause(e).log("Error handling file change in " + folder);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private boolean hasMatchingEvent(WatchKey key) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path && fileFilter.test(((Path) context).getFileName().toString())) {
+                found = true;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,116 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * 64-bit fingerprint of a player's tradeable inventory (hotbar + backpack + storage).
+ *
+ * The fingerprint is the sum of (item key hash x quantity) over every slot, so it only
+ * depends on the total quantity of each item type: moving or splitting stacks does not
+ * change it. Each slot's contribution is cached, and {@link #update(Inventory)} only
+ * adjusts the fingerprint for slots whose contribution changed. No allocation is done.
+ */
+public final class InventoryFingerprint {
+
+    private long[] slotContributions = new long[0];
+    private long value;
+    private boolean initialized;
+
+    /**
+     * Get the current fingerprint value.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Check if the fingerprint has been computed at least once.
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Forget the cached slot contributions. The next update will report a change.
+     */
+    public void reset() {
+        slotContributions = new long[0];
+        value = 0;
+        initialized = false;
+    }
+
+    /**
+     * Update the fingerprint from the current inventory contents.
+     *
+     * @param inventory The player's inventory
+     * @return true if the fingerprint changed (or was computed for the first time)
+     */
+    public boolean update(Inventory inventory) {
+        if (inventory == null) {
+            return false;
+        }
+
+        ItemContainer hotbar = inventory.getHotbar();
+        ItemContainer backpack = inventory.getBackpack();
+        ItemContainer storage = inventory.getStorage();
+
+        int totalSlots = capacityOf(hotbar) + capacityOf(backpack) + capacityOf(storage);
+        if (slotContributions.length != totalSlots) {
+            // Layout changed (e.g. backpack resized) - start from scratch
+            slotContributions = new long[totalSlots];
+            value = 0;
+        }
+
+        long before = value;
+        int offset = 0;
+        offset = updateContainer(hotbar, offset);
+        offset = updateContainer(backpack, offset);
+        updateContainer(storage, offset);
+
+        boolean changed = !initialized || value != before;
+        initialized = true;
+        return changed;
+    }
+
+    private int updateContainer(ItemContainer container, int offset) {
+        int capacity = capacityOf(container);
+        for (short i = 0; i < capacity; i++) {
+            long contribution = slotContribution(container.getItemStack(i));
+            int index = offset + i;
+            long previous = slotContributions[index];
+            if (contribution != previous) {
+                value += contribution - previous;
+                slotContributions[index] = contribution;
+            }
+        }
+        return offset + capacity;
+    }
+
+    private static int capacityOf(ItemContainer container) {
+        return InventoryHelper.isValidContainer(container) ? container.getCapacity() : 0;
+    }
+
+    /**
+     * Contribution of one slot: item key hash multiplied by quantity.
+     */
+    private static long slotContribution(ItemStack itemStack) {
+        if (itemStack == null || itemStack.isEmpty()) {
+            return 0;
+        }
+        return itemKeyHash(itemStack.getItem().getId()) * itemStack.getQuantity();
+    }
+
+    /**
+     * Spread an item ID over 64 bits (String.hashCode is cached, so this does not allocate).
+     */
+    static long itemKeyHash(String itemId) {
+        long h = itemId.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= (h >>> 32);
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= (h >>> 32);
+        // Force odd so a non-zero quantity never contributes zero
+        return h | 1L;
+    }
+}
@@ -6,8 +6,6 @@ import javax.annotation.Nonnull;
 import java.awt.Color;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility for formatting messages with Minecraft-style color codes.
@@ -25,8 +23,7 @@ import java.util.regex.Pattern;
 public class MessageFormatter {
 
     private static final Map<Character, Color> COLOR_MAP = new HashMap<>();
-    private static final Pattern HEX_PATTERN = Pattern.compile("&#([0-9A-Fa-f]{6})");
-    private static final Color DEFAULT_COLOR = Color.WHITE;
+    static final Color DEFAULT_COLOR = Color.WHITE;
 
     static {
         COLOR_MAP.put('0', Color.BLACK);
@@ -49,6 +46,7 @@ public class MessageFormatter {
 
     /**
      * Formats text with color codes and converts to Hytale Message.
+     * Messages used repeatedly should be compiled once with {@link MessageTemplate#compile(String)}.
      *
      * @param text Text with color codes (& prefix)
      * @return Formatted Message object (never null)
@@ -58,94 +56,14 @@ public class MessageFormatter {
         if (text == null || text.isEmpty()) {
             return Message.raw("");
         }
-
-        // Replace hex colors with temporary markers
-        Matcher hexMatcher = HEX_PATTERN.matcher(text);
-        StringBuilder processed = new StringBuilder();
-        int lastEnd = 0;
-
-        while (hexMatcher.find()) {
-            processed.append(text, lastEnd, hexMatcher.start());
-            // Convert hex to §x format (Minecraft style for internal use)
-            processed.append("§x").append(hexMatcher.group(1));
-            lastEnd = hexMatcher.end();
-        }
-        processed.append(text.substring(lastEnd));
-        text = processed.toString();
-
-        // Now process standard color codes
-        return processColorCodes(text);
+        return MessageTemplate.compile(text).format();
     }
 
     /**
-     * Process color codes and build Message with proper colors.
+     * Get the color of a standard color code (0-9, a-f), or null if it is not a color code.
      */
-    private static Message processColorCodes(String text) {
-        if (!text.contains("&") && !text.contains("§")) {
-            return Message.raw(text);
-        }
-
-        StringBuilder current = new StringBuilder();
-        Color currentColor = DEFAULT_COLOR;
-        boolean bold = false;
-        Message result = Message.raw("");
-
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-
-            if ((c == '&' || c == '§') && i + 1 < text.length()) {
-                char code = Character.toLowerCase(text.charAt(i + 1));
-
-                // Flush current segment if exists
-                if (current.length() > 0) {
-                    Message segment = Message.raw(current.toString()).color(currentColor);
-                    if (bold) segment = segment.bold(true);
-                    result = Message.join(result, segment);
-                    current = new StringBuilder();
-                }
-
-                // Handle hex color (§x followed by 6 hex digits)
-                if (code == 'x' && i + 8 <= text.length()) {
-                    String hexCode = text.substring(i + 2, i + 8);
-                    try {
-                        currentColor = Color.decode("#" + hexCode);
-                    } catch (NumberFormatException e) {
-                        currentColor = DEFAULT_COLOR;
-                    }
-                    i += 7; // Skip §x + 6 hex digits
-                }
-                // Handle standard color code
-                else if (COLOR_MAP.containsKey(code)) {
-                    currentColor = COLOR_MAP.get(code);
-                    i++; // Skip the color code character
-                }
-                // Handle formatting
-                else if (code == 'l') {
-                    bold = true;
-                    i++;
-                }
-                else if (code == 'r') {
-                    currentColor = DEFAULT_COLOR;
-                    bold = false;
-                    i++;
-                }
-                else {
-                    // Unknown code, treat as literal
-                    current.append(c);
-                }
-            } else {
-                current.append(c);
-            }
-        }
-
-        // Flush remaining text
-        if (current.length() > 0) {
-            Message segment = Message.raw(current.toString()).color(currentColor);
-            if (bold) segment = segment.bold(true);
-            result = Message.join(result, segment);
-        }
-
-        return result;
+    static Color getColor(char code) {
+        return COLOR_MAP.get(code);
     }
 
     /**
@@ -185,10 +103,6 @@ public class MessageFormatter {
             return "";
         }
 
-        // Remove hex colors
-        text = HEX_PATTERN.matcher(text).replaceAll("");
-
-        // Remove standard color codes
-        return text.replaceAll("[&§][0-9a-flr]", "");
+        return MessageTemplate.compile(text).formatPlain();
     }
 }
@@ -0,0 +1,290 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.server.core.Message;
+
+import javax.annotation.Nonnull;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message compiled once from its raw text into styled runs of literal text and placeholder slots.
+ *
+ * Color codes are resolved at compile time, so formatting is a single pass that fills the slots
+ * of each run and joins the runs into one flat Message. A message without placeholders is built
+ * once and the same Message is returned every time.
+ *
+ * Placeholder values are inserted as plain text: color codes inside them are not interpreted.
+ */
+public final class MessageTemplate {
+
+    private static final Run[] NO_RUNS = new Run[0];
+
+    private final Run[] runs;
+    // Ready results of messages without placeholders (null otherwise)
+    private final Message cached;
+    private final String cachedPlain;
+
+    private MessageTemplate(Run[] runs, boolean hasSlots) {
+        this.runs = runs;
+        this.cached = hasSlots ? null : build(null);
+        this.cachedPlain = hasSlots ? null : buildPlain(null);
+    }
+
+    /**
+     * Compile raw message text with color codes (&0-f, &#RRGGBB, &l, &r) and {placeholders}.
+     */
+    @Nonnull
+    public static MessageTemplate compile(String text) {
+        if (text == null || text.isEmpty()) {
+            return new MessageTemplate(NO_RUNS, false);
+        }
+
+        // Text without any code keeps the client's default color, as before
+        boolean styled = text.indexOf('&') >= 0 || text.indexOf('§') >= 0;
+        Compiler compiler = new Compiler(styled ? MessageFormatter.DEFAULT_COLOR : null);
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+
+            if ((c == '&' || c == '§') && i + 1 < length) {
+                char code = Character.toLowerCase(text.charAt(i + 1));
+                if ((code == '#' || code == 'x') && isHex(text, i + 2, 6)) {
+                    compiler.style(new Color(Integer.parseInt(text.substring(i + 2, i + 8), 16)), compiler.bold);
+                    i += 7;
+                    continue;
+                }
+                Color color = MessageFormatter.getColor(code);
+                if (color != null) {
+                    compiler.style(color, compiler.bold);
+                    i++;
+                    continue;
+                }
+                if (code == 'l') {
+                    compiler.style(compiler.color, true);
+                    i++;
+                    continue;
+                }
+                if (code == 'r') {
+                    compiler.style(MessageFormatter.DEFAULT_COLOR, false);
+                    i++;
+                    continue;
+                }
+                // Unknown code, treat as literal
+                compiler.literal.append(c);
+                continue;
+            }
+
+            if (c == '{') {
+                int end = findPlaceholderEnd(text, i + 1);
+                if (end > 0) {
+                    compiler.slot(text.substring(i + 1, end));
+                    i = end;
+                    continue;
+                }
+            }
+
+            compiler.literal.append(c);
+        }
+
+        compiler.flushRun();
+        return new MessageTemplate(compiler.runs.toArray(NO_RUNS), compiler.hasSlots);
+    }
+
+    /**
+     * Build the message, filling placeholders from key-value pairs (e.g. "player", name).
+     * Placeholders without a value are left as written.
+     */
+    @Nonnull
+    public Message format(String... replacements) {
+        return cached != null ? cached : build(replacements);
+    }
+
+    /**
+     * Build the message as plain text without color codes (for UI elements).
+     */
+    @Nonnull
+    public String formatPlain(String... replacements) {
+        return cachedPlain != null ? cachedPlain : buildPlain(replacements);
+    }
+
+    private Message build(String[] replacements) {
+        Message[] segments = new Message[runs.length];
+        int count = 0;
+        for (Run run : runs) {
+            String text = run.fill(replacements);
+            if (text.isEmpty()) {
+                continue;
+            }
+            Message segment = Message.raw(text);
+            if (run.color != null) {
+                segment = segment.color(run.color);
+            }
+            if (run.bold) {
+                segment = segment.bold(true);
+            }
+            segments[count++] = segment;
+        }
+
+        if (count == 0) {
+            return Message.raw("");
+        }
+        if (count == 1) {
+            return segments[0];
+        }
+        // One flat join instead of nesting a level per segment
+        Message[] joined = new Message[count];
+        System.arraycopy(segments, 0, joined, 0, count);
+        return Message.join(joined);
+    }
+
+    private String buildPlain(String[] replacements) {
+        if (runs.length == 1) {
+            return runs[0].fill(replacements);
+        }
+        StringBuilder text = new StringBuilder();
+        for (Run run : runs) {
+            run.fill(replacements, text);
+        }
+        return text.toString();
+    }
+
+    // ===== HELPER METHODS =====
+
+    private static boolean isHex(String text, int start, int count) {
+        if (start + count > text.length()) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the closing brace of a placeholder name ([A-Za-z0-9_]+) starting at {@code start}.
+     * @return index of the closing brace, or -1 if this is not a placeholder
+     */
+    private static int findPlaceholderEnd(String text, int start) {
+        int i = start;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '}') {
+                return i > start ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static String lookup(String[] replacements, String name) {
+        if (replacements != null) {
+            for (int i = 0; i + 1 < replacements.length; i += 2) {
+                if (name.equals(replacements[i])) {
+                    return replacements[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Text sharing one style: literal pieces and placeholder slots in order.
+     */
+    private static final class Run {
+        final Color color;
+        final boolean bold;
+        final String[] pieces;
+        // Whether each piece is a placeholder name rather than literal text
+        final boolean[] slots;
+
+        Run(Color color, boolean bold, String[] pieces, boolean[] slots) {
+            this.color = color;
+            this.bold = bold;
+            this.pieces = pieces;
+            this.slots = slots;
+        }
+
+        String fill(String[] replacements) {
+            if (pieces.length == 1 && !slots[0]) {
+                return pieces[0];
+            }
+            StringBuilder text = new StringBuilder();
+            fill(replacements, text);
+            return text.toString();
+        }
+
+        void fill(String[] replacements, StringBuilder text) {
+            for (int i = 0; i < pieces.length; i++) {
+                if (!slots[i]) {
+                    text.append(pieces[i]);
+                    continue;
+                }
+                String value = lookup(replacements, pieces[i]);
+                if (value != null) {
+                    text.append(value);
+                } else {
+                    text.append('{').append(pieces[i]).append('}');
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the runs of a template while scanning its text.
+     */
+    private static final class Compiler {
+        final List<Run> runs = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        final List<String> pieces = new ArrayList<>();
+        final List<Boolean> slots = new ArrayList<>();
+        Color color;
+        boolean bold;
+        boolean hasSlots;
+
+        Compiler(Color color) {
+            this.color = color;
+        }
+
+        void slot(String name) {
+            flushLiteral();
+            pieces.add(name);
+            slots.add(true);
+            hasSlots = true;
+        }
+
+        void style(Color newColor, boolean newBold) {
+            flushRun();
+            color = newColor;
+            bold = newBold;
+        }
+
+        void flushLiteral() {
+            if (literal.length() > 0) {
+                pieces.add(literal.toString());
+                slots.add(false);
+                literal.setLength(0);
+            }
+        }
+
+        void flushRun() {
+            flushLiteral();
+            if (pieces.isEmpty()) {
+                return;
+            }
+            boolean[] slotFlags = new boolean[slots.size()];
+            for (int i = 0; i < slotFlags.length; i++) {
+                slotFlags[i] = slots.get(i);
+            }
+            runs.add(new Run(color, bold, pieces.toArray(new String[0]), slotFlags));
+            pieces.clear();
+            slots.clear();
+        }
+    }
+}
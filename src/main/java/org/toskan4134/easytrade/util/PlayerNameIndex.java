@@ -0,0 +1,159 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-folded trie of online player usernames.
+ * Kept up to date from connect and disconnect events, so resolving a typed name costs
+ * O(name length) no matter how many players are online.
+ */
+public class PlayerNameIndex {
+
+    private final Node root = new Node();
+
+    /**
+     * Add an online player (replaces any player indexed under the same name).
+     */
+    public synchronized void add(PlayerRef player) {
+        String key = fold(player.getUsername());
+        Node node = root;
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            path.add(node);
+        }
+        if (node.player == null) {
+            for (Node onPath : path) {
+                onPath.count++;
+            }
+        }
+        node.player = player;
+    }
+
+    /**
+     * Remove a player, if they are still the one indexed under their name.
+     */
+    public synchronized void remove(PlayerRef player) {
+        String key = fold(player.getUsername());
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].children.get(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[key.length()];
+        if (node.player == null || !node.player.getUuid().equals(player.getUuid())) {
+            return;
+        }
+        node.player = null;
+        for (int i = key.length(); i >= 0; i--) {
+            path[i].count--;
+            // Prune branches that no longer lead to any name
+            if (i > 0 && path[i].count == 0) {
+                path[i - 1].children.remove(key.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * Find an online player by exact username (case-insensitive).
+     */
+    public synchronized PlayerRef getExact(String name) {
+        Node node = find(fold(name));
+        return node != null ? node.player : null;
+    }
+
+    /**
+     * Resolve a typed name: an exact match, or else the only player whose name starts with it.
+     * @return the player, or null if no player or several players match
+     */
+    public synchronized PlayerRef resolve(String name) {
+        Node node = find(fold(name));
+        if (node == null) {
+            return null;
+        }
+        if (node.player != null) {
+            return node.player;
+        }
+        if (node.count != 1) {
+            return null;
+        }
+        // Follow the single branch down to the one name
+        while (node.player == null) {
+            node = node.children.values().iterator().next();
+        }
+        return node.player;
+    }
+
+    /**
+     * Get the usernames starting with a prefix (case-insensitive), in no particular order.
+     * @param limit Maximum number of names returned
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        Node node = find(fold(prefix));
+        if (node == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(Math.min(limit, node.count));
+        collect(node, names, limit);
+        return names;
+    }
+
+    /**
+     * Count the online players whose names start with a prefix (case-insensitive).
+     */
+    public synchronized int countMatches(String prefix) {
+        Node node = find(fold(prefix));
+        return node != null ? node.count : 0;
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        root.count = 0;
+        root.player = null;
+    }
+
+    // ===== HELPER METHODS =====
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<String> names, int limit) {
+        if (node.player != null) {
+            names.add(node.player.getUsername());
+        }
+        for (Node child : node.children.values()) {
+            if (names.size() >= limit) {
+                return;
+            }
+            collect(child, names, limit);
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        // Player whose name ends here, if any
+        PlayerRef player;
+        // Number of names in this subtree (including this node)
+        int count;
+    }
+}
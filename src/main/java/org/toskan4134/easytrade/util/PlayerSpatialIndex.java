@@ -0,0 +1,220 @@
+package org.toskan4134.easytrade.util;
+
+import com.hypixel.hytale.math.vector.Transform;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Uniform-grid index of online player positions, one grid per world.
+ *
+ * Each world's grid is rebuilt once per tick on that world's thread, from positions copied out of
+ * the players' transforms there, and published as an immutable snapshot. Readers on any thread
+ * only ever see these copies, so queries never lock, never touch live entity state and never scan
+ * every player: a query only visits the grid cells that overlap its radius.
+ */
+public class PlayerSpatialIndex {
+
+    private final int cellSize;
+
+    // World UUID -> grid of that world's players (each grid replaced as a whole by its world)
+    private volatile Map<UUID, Grid> grids = Collections.emptyMap();
+
+    public PlayerSpatialIndex(int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    /**
+     * Rebuild the grid of one world from its players' current positions.
+     * Must run on that world's thread, the only one allowed to read the transforms.
+     * Players that left the world or have no transform are left out until the next rebuild.
+     */
+    public void rebuild(UUID worldId, Collection<PlayerRef> players) {
+        List<PlayerRef> present = new ArrayList<>(players.size());
+        List<double[]> positions = new ArrayList<>(players.size());
+        for (PlayerRef player : players) {
+            double[] position = copyPosition(player);
+            if (position == null || !worldId.equals(player.getWorldUuid())) {
+                continue;
+            }
+            present.add(player);
+            positions.add(position);
+        }
+        publish(worldId, present.isEmpty() ? null : new Grid(present, positions, cellSize));
+    }
+
+    /**
+     * Drop the grids of every world not in the given set (worlds nobody is in any more).
+     */
+    public synchronized void retainWorlds(Collection<UUID> worldIds) {
+        if (!worldIds.containsAll(grids.keySet())) {
+            Map<UUID, Grid> retained = new HashMap<>(grids);
+            retained.keySet().retainAll(worldIds);
+            grids = retained;
+        }
+    }
+
+    /**
+     * Get a player's position as of the last rebuild of their world's grid.
+     * @return {x, y, z}, or null if the player is not in the index
+     */
+    public double[] getPosition(PlayerRef player) {
+        Grid grid = getGrid(player);
+        if (grid == null) {
+            return null;
+        }
+        Integer index = grid.indices.get(player.getUuid());
+        return index != null ? new double[] { grid.xs[index], grid.ys[index], grid.zs[index] } : null;
+    }
+
+    /**
+     * Find the players within a radius of a player, in the same world, closest first.
+     * @param limit Maximum number of players returned
+     */
+    public List<Nearby> findNearby(PlayerRef player, double radius, int limit) {
+        Grid grid = getGrid(player);
+        double[] origin = getPosition(player);
+        if (grid == null || origin == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Nearby> found = new ArrayList<>();
+        grid.query(origin, radius, cellSize, player.getUuid(), found);
+        found.sort((a, b) -> Double.compare(a.distance, b.distance));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Find the closest player within a radius of a player, in the same world.
+     * @return the closest player, or null if nobody is in range
+     */
+    public Nearby findNearest(PlayerRef player, double radius) {
+        List<Nearby> nearby = findNearby(player, radius, 1);
+        return nearby.isEmpty() ? null : nearby.get(0);
+    }
+
+    public synchronized void clear() {
+        grids = Collections.emptyMap();
+    }
+
+    // ===== HELPER METHODS =====
+
+    private synchronized void publish(UUID worldId, Grid grid) {
+        Map<UUID, Grid> updated = new HashMap<>(grids);
+        if (grid != null) {
+            updated.put(worldId, grid);
+        } else {
+            updated.remove(worldId);
+        }
+        grids = updated;
+    }
+
+    private Grid getGrid(PlayerRef player) {
+        UUID worldId = player.getWorldUuid();
+        return worldId != null ? grids.get(worldId) : null;
+    }
+
+    /**
+     * Copy a player's position out of their live transform. Runs on the player's world thread.
+     */
+    private static double[] copyPosition(PlayerRef player) {
+        Transform transform = player.getTransform();
+        Vector3d position = transform != null ? transform.getPosition() : null;
+        return position != null ? new double[] { position.getX(), position.getY(), position.getZ() } : null;
+    }
+
+    private static int cellOf(double coordinate, int cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Snapshot of one world's players, bucketed by (x, z) cell.
+     */
+    private static final class Grid {
+        final PlayerRef[] players;
+        final double[] xs;
+        final double[] ys;
+        final double[] zs;
+        // Player UUID -> index of the player
+        final Map<UUID, Integer> indices;
+        // Cell key -> indices of the players in that cell
+        final Map<Long, int[]> cells;
+
+        Grid(List<PlayerRef> players, List<double[]> positions, int cellSize) {
+            int count = players.size();
+            this.players = players.toArray(new PlayerRef[0]);
+            this.xs = new double[count];
+            this.ys = new double[count];
+            this.zs = new double[count];
+            this.indices = new HashMap<>(count * 2);
+
+            long[] keys = new long[count];
+            Map<Long, int[]> sizes = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                double[] position = positions.get(i);
+                xs[i] = position[0];
+                ys[i] = position[1];
+                zs[i] = position[2];
+                indices.put(this.players[i].getUuid(), i);
+                keys[i] = cellKey(cellOf(xs[i], cellSize), cellOf(zs[i], cellSize));
+                sizes.computeIfAbsent(keys[i], key -> new int[1])[0]++;
+            }
+
+            this.cells = new HashMap<>(sizes.size() * 2);
+            for (int i = 0; i < count; i++) {
+                int[] size = sizes.get(keys[i]);
+                cells.computeIfAbsent(keys[i], key -> new int[size[0]])[--size[0]] = i;
+            }
+        }
+
+        void query(double[] origin, double radius, int cellSize, UUID excluded, List<Nearby> found) {
+            double radiusSq = radius * radius;
+            int minX = cellOf(origin[0] - radius, cellSize);
+            int maxX = cellOf(origin[0] + radius, cellSize);
+            int minZ = cellOf(origin[2] - radius, cellSize);
+            int maxZ = cellOf(origin[2] + radius, cellSize);
+
+            for (int cellX = minX; cellX <= maxX; cellX++) {
+                for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                    int[] cell = cells.get(cellKey(cellX, cellZ));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i : cell) {
+                        double dx = xs[i] - origin[0];
+                        double dy = ys[i] - origin[1];
+                        double dz = zs[i] - origin[2];
+                        double distanceSq = dx * dx + dy * dy + dz * dz;
+                        if (distanceSq <= radiusSq && !players[i].getUuid().equals(excluded)) {
+                            found.add(new Nearby(players[i], Math.sqrt(distanceSq)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A player found by a proximity query.
+     */
+    public static final class Nearby {
+        public final PlayerRef player;
+        public final double distance;
+
+        Nearby(PlayerRef player, double distance) {
+            this.player = player;
+            this.distance = distance;
+        }
+    }
+}
@@ -58,14 +58,16 @@ public class VersionChecker {
      * Checks both GitHub and CurseForge, then compares to find the newest version.
      */
     public void checkForUpdates() {
-        Common.logDebug(LOGGER, "Checking for updates...");
+        Common.logDebug(LOGGER, DebugCategory.UPDATES, "Checking for updates...");
 
         // Fetch versions from both sources
         githubVersion = fetchGitHubVersion();
         curseforgeVersion = fetchCurseForgeVersion();
 
-        Common.logDebug(LOGGER, "GitHub version: " + (githubVersion != null ? githubVersion : "not found"));
-        Common.logDebug(LOGGER, "CurseForge version: " + (curseforgeVersion != null ? curseforgeVersion : "not found"));
+        Common.logDebug(LOGGER, DebugCategory.UPDATES, "GitHub version: {}",
+            githubVersion != null ? githubVersion : "not found");
+        Common.logDebug(LOGGER, DebugCategory.UPDATES, "CurseForge version: {}",
+            curseforgeVersion != null ? curseforgeVersion : "not found");
 
         // Determine which version is newest
         String newestVersion = null;
@@ -108,7 +110,7 @@ public class VersionChecker {
                 Matcher matcher = GITHUB_VERSION_PATTERN.matcher(response);
                 if (matcher.find()) {
                     String version = matcher.group(1);
-                    Common.logDebug(LOGGER, "Found GitHub version: " + version);
+                    Common.logDebug(LOGGER, DebugCategory.UPDATES, "Found GitHub version: {}", version);
                     return version;
                 }
             }
@@ -124,7 +126,7 @@ public class VersionChecker {
      */
     private String fetchCurseForgeVersion() {
         try {
-            Common.logDebug(LOGGER, "Checking CurseForge via CFWidget API...");
+            Common.logDebug(LOGGER, DebugCategory.UPDATES, "Checking CurseForge via CFWidget API...");
 
             String response = fetchUrl(CURSEFORGE_API_URL);
             if (response == null) {
@@ -132,20 +134,20 @@ public class VersionChecker {
                 return null;
             }
 
-            Common.logDebug(LOGGER, "CFWidget response length: " + response.length());
+            Common.logDebug(LOGGER, DebugCategory.UPDATES, () -> "CFWidget response length: " + response.length());
 
             // Extract version from filename in the download object
             Pattern namePattern = Pattern.compile("\"download\"\\s*:\\s*\\{[^}]*\"name\"\\s*:\\s*\"([^\"]+)\"");
             Matcher matcher = namePattern.matcher(response);
             if (matcher.find()) {
                 String fileName = matcher.group(1);
-                Common.logDebug(LOGGER, "Found filename: " + fileName);
+                Common.logDebug(LOGGER, DebugCategory.UPDATES, "Found filename: {}", fileName);
                 // Stop before .jar or end of string
                 Pattern versionExtract = Pattern.compile("([0-9]+\\.[0-9]+\\.[0-9]+)(?:\\.jar)?");
                 Matcher versionMatcher = versionExtract.matcher(fileName);
                 if (versionMatcher.find()) {
                     String version = versionMatcher.group(1);
-                    Common.logDebug(LOGGER, "Found CurseForge version: " + version);
+                    Common.logDebug(LOGGER, DebugCategory.UPDATES, "Found CurseForge version: {}", version);
                     return version;
                 }
             }
@@ -159,7 +161,7 @@ public class VersionChecker {
                 Matcher versionMatcher = versionExtract.matcher(displayName);
                 if (versionMatcher.find()) {
                     String version = versionMatcher.group(1);
-                    Common.logDebug(LOGGER, "Found CurseForge version (from display): " + version);
+                    Common.logDebug(LOGGER, DebugCategory.UPDATES, "Found CurseForge version (from display): {}", version);
                     return version;
                 }
             }
@@ -187,7 +189,7 @@ public class VersionChecker {
 
         int responseCode = connection.getResponseCode();
         if (responseCode != 200) {
-            Common.logDebug(LOGGER, "HTTP " + responseCode + " from " + urlString);
+            Common.logDebug(LOGGER, DebugCategory.UPDATES, () -> "HTTP " + responseCode + " from " + urlString);
             return null;
         }
 